@@ -9,12 +9,16 @@ import exception.*;
 import response.ResponseEntity;
 import service.conference.ConferenceService;
 import service.FeedbackService;
+import service.RegistrationResult;
+import service.session.AttendanceResult;
+import service.session.CheckInDesk;
 import service.session.SessionService;
 import service.UserService;
 import util.LoggerUtil;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class OrganizerController {
     private final UserService userService;
@@ -69,6 +73,24 @@ public class OrganizerController {
         }
     }
 
+    public ResponseEntity<Map<String, RegistrationResult>> registerAttendeesToConference(String conferenceId, Collection<String> attendeeIds) {
+        try {
+            return ResponseEntity.success(conferenceService.registerAttendeesToConference(conferenceId, attendeeIds));
+        } catch (Exception e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to register attendees to conference '%s': %s", conferenceId, e.getMessage()));
+            return ResponseEntity.error("An unexpected error occurred when registering attendees to the conference. Please try again later.");
+        }
+    }
+
+    public ResponseEntity<Map<String, RegistrationResult>> registerAttendeesToSession(String sessionId, Collection<String> attendeeIds) {
+        try {
+            return ResponseEntity.success(sessionService.registerAttendees(sessionId, attendeeIds));
+        } catch (Exception e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to register attendees to session '%s': %s", sessionId, e.getMessage()));
+            return ResponseEntity.error("An unexpected error occurred when registering attendees to the session. Please try again later.");
+        }
+    }
+
     public ResponseEntity<Void> markAttendeeAsPresent(String sessionId, String attendeeId) {
         try {
             sessionService.markAttendeeAsPresent(sessionId, attendeeId);
@@ -79,6 +101,24 @@ public class OrganizerController {
         }
     }
 
+    public ResponseEntity<Map<String, AttendanceResult>> markAttendeesAsPresent(String sessionId, Collection<String> attendeeIds) {
+        try {
+            return ResponseEntity.success(sessionService.markAttendeesPresent(sessionId, attendeeIds));
+        } catch (Exception e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to check in %d attendees to session '%s': %s", attendeeIds == null ? 0 : attendeeIds.size(), sessionId, e.getMessage()));
+            return ResponseEntity.error("An unexpected error occurred when checking in attendees for this session. Please try again later.");
+        }
+    }
+
+    public ResponseEntity<CheckInDesk> openCheckInDesk(String sessionId, Consumer<Map<String, AttendanceResult>> resultsConsumer) {
+        try {
+            return ResponseEntity.success(sessionService.openCheckInDesk(sessionId, resultsConsumer));
+        } catch (IllegalArgumentException | SessionException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to open check-in desk for session '%s': %s", sessionId, e.getMessage()));
+            return ResponseEntity.error(String.format("Session with id '%s' does not exist.", sessionId));
+        }
+    }
+
     public ResponseEntity<Void> markAttendeeAsAbsent(String sessionId, String attendeeId) {
         try {
             sessionService.markAttendeeAsAbsent(sessionId, attendeeId);
@@ -5,11 +5,12 @@ import util.validation.ConferenceValidator;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
-public class Conference {
+public class Conference extends TrackedEntity {
     private final String id;
     private final String organizerId;
     private final String name;
@@ -18,10 +19,10 @@ public class Conference {
     private LocalDate startDate;
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate endDate;
-    private final Set<String> sessions;
-    private final Set<String> attendees;
-    private final Set<String> speakers;
-    private final Set<String> feedback;
+    private Set<String> sessions;
+    private Set<String> attendees;
+    private Set<String> speakers;
+    private Set<String> feedback;
 
     // no-arg constructor for JSON serialization/de-serialization
     private Conference() {
@@ -111,35 +112,39 @@ public class Conference {
     }
 
     public void addSession(String sessionId) {
-        this.sessions.add(sessionId);
+        this.sessions = added("sessions", this.sessions, sessionId);
     }
 
     public void removeSession(String sessionId) {
-        this.sessions.remove(sessionId);
+        this.sessions = removed("sessions", this.sessions, sessionId);
     }
 
     public void addAttendee(String attendeeId) {
-        this.attendees.add(attendeeId);
+        this.attendees = added("attendees", this.attendees, attendeeId);
+    }
+
+    public void addAttendees(Collection<String> attendeeIds) {
+        this.attendees = addedAll("attendees", this.attendees, attendeeIds);
     }
 
     public void removeAttendee(String attendeeId) {
-        this.attendees.remove(attendeeId);
+        this.attendees = removed("attendees", this.attendees, attendeeId);
     }
 
     public void addSpeaker(String speakerId) {
-        this.speakers.add(speakerId);
+        this.speakers = added("speakers", this.speakers, speakerId);
     }
 
     public void removeSpeaker(String speakerId) {
-        this.speakers.remove(speakerId);
+        this.speakers = removed("speakers", this.speakers, speakerId);
     }
 
     public void addFeedback(String feedbackId) {
-        this.feedback.add(feedbackId);
+        this.feedback = added("feedback", this.feedback, feedbackId);
     }
 
     public void removeFeedback(String feedbackId) {
-        this.feedback.remove(feedbackId);
+        this.feedback = removed("feedback", this.feedback, feedbackId);
     }
 
     public String getId() {
@@ -164,7 +169,7 @@ public class Conference {
     }
 
     public void setStartDate(LocalDate startDate) {
-        this.startDate = startDate;
+        this.startDate = assigned("startDate", this.startDate, startDate);
     }
 
     public LocalDate getEndDate() {
@@ -172,23 +177,23 @@ public class Conference {
     }
 
     public void setEndDate(LocalDate endDate) {
-        this.endDate = endDate;
+        this.endDate = assigned("endDate", this.endDate, endDate);
     }
 
     public Set<String> getSessions() {
-        return new HashSet<>(this.sessions);         // defensive copy
+        return Collections.unmodifiableSet(this.sessions);
     }
 
     public Set<String> getAttendees() {
-        return new HashSet<>(this.attendees);        // defensive copy
+        return Collections.unmodifiableSet(this.attendees);
     }
 
     public Set<String> getSpeakers() {
-        return new HashSet<>(this.speakers);         // defensive copy
+        return Collections.unmodifiableSet(this.speakers);
     }
 
     public Set<String> getFeedback() {
-        return new HashSet<>(this.feedback);
+        return Collections.unmodifiableSet(this.feedback);
     }
 
     @Override
@@ -0,0 +1,64 @@
+package domain.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// a single field-level change to an entity, e.g. "add id X to presentAttendees"
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FieldChange {
+
+    public enum Operation {
+        SET,            // replace the value of a field
+        ADD,            // add an element to a set
+        REMOVE,         // remove an element from a set
+        PUT,            // put an entry into a map
+        REMOVE_KEY      // remove an entry from a map
+    }
+
+    private final Operation operation;
+    private final String field;
+    private final Object key;           // map entries only
+    private final Object value;
+
+    private FieldChange(Operation operation, String field, Object key, Object value) {
+        this.operation = operation;
+        this.field = field;
+        this.key = key;
+        this.value = value;
+    }
+
+    public static FieldChange set(String field, Object value) {
+        return new FieldChange(Operation.SET, field, null, value);
+    }
+
+    public static FieldChange add(String field, Object element) {
+        return new FieldChange(Operation.ADD, field, null, element);
+    }
+
+    public static FieldChange remove(String field, Object element) {
+        return new FieldChange(Operation.REMOVE, field, null, element);
+    }
+
+    public static FieldChange put(String field, Object key, Object value) {
+        return new FieldChange(Operation.PUT, field, key, value);
+    }
+
+    public static FieldChange removeKey(String field, Object key) {
+        return new FieldChange(Operation.REMOVE_KEY, field, key, null);
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+}
@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 
-public class Session {
+public class Session extends TrackedEntity {
 
     private final String id;
     private final String conferenceId;
@@ -22,9 +22,9 @@ public class Session {
     private LocalTime startTime;
     @JsonFormat(pattern = "HH:mm")
     private LocalTime endTime;
-    private final Set<String> registeredAttendees;
-    private final Set<String> presentAttendees;
-    private final Set<String> feedback;
+    private Set<String> registeredAttendees;
+    private Set<String> presentAttendees;
+    private Set<String> feedback;
     private final double attendanceRecord;
 
     // no-arg constructor for JSON serialization/de-serialization
@@ -136,18 +136,22 @@ public class Session {
     }
 
     public void registerAttendee(String attendeeId) {
-        this.registeredAttendees.add(attendeeId);
+        this.registeredAttendees = added("registeredAttendees", this.registeredAttendees, attendeeId);
     }
 
-    public void unregisterAttendee(String attendeeId) {this.registeredAttendees.remove(attendeeId);}
+    public void registerAttendees(Collection<String> attendeeIds) {this.registeredAttendees = addedAll("registeredAttendees", this.registeredAttendees, attendeeIds);}
 
-    public void markAttendeeAsPresent(String attendeeId) {this.presentAttendees.add(attendeeId);}
+    public void unregisterAttendee(String attendeeId) {this.registeredAttendees = removed("registeredAttendees", this.registeredAttendees, attendeeId);}
 
-    public void markAttendeeAsAbsent(String attendeeId) {this.presentAttendees.remove(attendeeId);}
+    public void markAttendeeAsPresent(String attendeeId) {this.presentAttendees = added("presentAttendees", this.presentAttendees, attendeeId);}
 
-    public void addFeedback(String feedbackId) {this.feedback.add(feedbackId);}
+    public void markAttendeesAsPresent(Collection<String> attendeeIds) {this.presentAttendees = addedAll("presentAttendees", this.presentAttendees, attendeeIds);}
 
-    public void removeFeedback(String feedbackId) {this.feedback.remove(feedbackId);}
+    public void markAttendeeAsAbsent(String attendeeId) {this.presentAttendees = removed("presentAttendees", this.presentAttendees, attendeeId);}
+
+    public void addFeedback(String feedbackId) {this.feedback = added("feedback", this.feedback, feedbackId);}
+
+    public void removeFeedback(String feedbackId) {this.feedback = removed("feedback", this.feedback, feedbackId);}
 
     public String getId() {
         return this.id;
@@ -170,7 +174,7 @@ public class Session {
     public String getDescription() {return this.description;}
 
     public void setDescription(String description) {
-        this.description = description;
+        this.description = assigned("description", this.description, description);
     }
 
     public String getRoom() {
@@ -182,7 +186,7 @@ public class Session {
     }
 
     public void setDate(LocalDate date) {
-        this.date = date;
+        this.date = assigned("date", this.date, date);
     }
 
     public LocalTime getStartTime() {
@@ -190,7 +194,7 @@ public class Session {
     }
 
     public void setStartTime(LocalTime startTime) {
-        this.startTime = startTime;
+        this.startTime = assigned("startTime", this.startTime, startTime);
     }
 
     public LocalTime getEndTime() {
@@ -198,19 +202,19 @@ public class Session {
     }
 
     public void setEndTime(LocalTime endTime) {
-        this.endTime = endTime;
+        this.endTime = assigned("endTime", this.endTime, endTime);
     }
 
     public Set<String> getRegisteredAttendees() {
-        return new HashSet<>(this.registeredAttendees);         // defensive copy
+        return Collections.unmodifiableSet(this.registeredAttendees);
     }
 
     public Set<String> getPresentAttendees() {
-        return new HashSet<>(this.presentAttendees);            // defensive copy
+        return Collections.unmodifiableSet(this.presentAttendees);
     }
 
     public Set<String> getFeedback() {
-        return new HashSet<>(this.feedback);            // defensive copy
+        return Collections.unmodifiableSet(this.feedback);
     }
 
     public float getAttendanceRecord() {
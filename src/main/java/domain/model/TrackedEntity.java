@@ -0,0 +1,66 @@
+package domain.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import util.CollectionUtils;
+import util.PersistentHashSet;
+
+import java.util.*;
+
+// records the changes made through an entity's mutators so that only those have to be persisted
+public abstract class TrackedEntity {
+
+    @JsonIgnore
+    private List<FieldChange> changes = new ArrayList<>();
+
+    // returns the changes made since the previous call and starts over
+    public List<FieldChange> drainChanges() {
+        List<FieldChange> drained = changes;
+        changes = new ArrayList<>();
+        return drained;
+    }
+
+    protected void recordChange(FieldChange change) {
+        changes.add(change);
+    }
+
+    // copy-on-write helpers that record the change only if the set actually changed
+    protected <E> Set<E> added(String field, Set<E> set, E element) {
+        Set<E> updated = CollectionUtils.copyWith(set, element);
+        if (updated != set) recordChange(FieldChange.add(field, element));
+        return updated;
+    }
+
+    // each added element only copies one path of the persistent set, whatever the size of the set
+    protected <E> Set<E> addedAll(String field, Set<E> set, Collection<E> elements) {
+        PersistentHashSet<E> updated = PersistentHashSet.copyOf(set);
+        for (E element : elements) {
+            PersistentHashSet<E> next = updated.with(element);
+            if (next != updated) recordChange(FieldChange.add(field, element));
+            updated = next;
+        }
+        return updated.size() == set.size() ? set : updated;
+    }
+
+    protected <E> Set<E> removed(String field, Set<E> set, E element) {
+        Set<E> updated = CollectionUtils.copyWithout(set, element);
+        if (updated != set) recordChange(FieldChange.remove(field, element));
+        return updated;
+    }
+
+    // copies the set only if one of the elements is in it
+    protected <E> Set<E> removedAll(String field, Set<E> set, Collection<E> elements) {
+        PersistentHashSet<E> updated = null;
+        for (E element : elements) {
+            if (!set.contains(element)) continue;
+            if (updated == null) updated = PersistentHashSet.copyOf(set);
+            updated = updated.without(element);
+            recordChange(FieldChange.remove(field, element));
+        }
+        return updated == null ? set : updated;
+    }
+
+    protected <V> V assigned(String field, V current, V value) {
+        if (!Objects.equals(current, value)) recordChange(FieldChange.set(field, value));
+        return value;
+    }
+}
@@ -3,6 +3,7 @@ package domain.model.feedback;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import domain.model.TrackedEntity;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type", visible = true)
 @JsonSubTypes({
@@ -10,7 +11,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
         @JsonSubTypes.Type(value = ConferenceFeedback.class, name = "Conference"),
         @JsonSubTypes.Type(value = SpeakerFeedback.class, name = "Speaker")
 })
-public abstract class Feedback {
+public abstract class Feedback extends TrackedEntity {
 
     private final String id;
     private final String attendeeId;
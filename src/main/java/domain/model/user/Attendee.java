@@ -1,16 +1,19 @@
 package domain.model.user;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import exception.SessionException;
+import domain.model.FieldChange;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 public class Attendee extends User {
     @JsonProperty("schedule")
-    private final Map<LocalDateTime, String> schedule;          // K: Session Time, V: Session ID
-    private final Set<String> registeredConferences;
-    private final Set<String> submittedFeedback;
+    private NavigableMap<LocalDateTime, ScheduledSession> schedule;          // K: Session Time
+    private Set<String> registeredConferences;
+    private Set<String> submittedFeedback;
 
     // no-arg constructor for JSON serialization/de-serialization
     private Attendee() {
@@ -28,35 +31,118 @@ public class Attendee extends User {
     }
 
     public void addRegisteredConference(String conferenceId) {
-        this.registeredConferences.add(conferenceId);
+        this.registeredConferences = added("registeredConferences", this.registeredConferences, conferenceId);
     }
 
     public void removeRegisteredConference(String conferenceId) {
-        this.registeredConferences.remove(conferenceId);
+        this.registeredConferences = removed("registeredConferences", this.registeredConferences, conferenceId);
     }
 
-    public void addSession(String sessionId, LocalDateTime sessionStartTime) {
-        this.schedule.put(sessionStartTime, sessionId);
+    public void removeSubmittedFeedback(Collection<String> feedbackIds) {
+        this.submittedFeedback = removedAll("submittedFeedback", this.submittedFeedback, feedbackIds);
+    }
+
+    public void addSession(String sessionId, LocalDateTime sessionStartTime, LocalDateTime sessionEndTime) {
+        // parallel tracks can run sessions at the same time, but an attendee can only be in one of them
+        ScheduledSession clash = findClash(sessionId, sessionStartTime, sessionEndTime);
+        if (clash != null) {
+            throw new SessionException(String.format("Attendee '%s' is already registered to another session running until %s.", this.getName(), clash.getEndTime()));
+        }
+
+        // the schedule is still copied whole: it only holds sessions that do not overlap, a few dozen even over a week
+        // of back-to-back sessions, and copying that many tree entries is far cheaper than the save that follows
+        ScheduledSession scheduledSession = new ScheduledSession(sessionId, sessionEndTime);
+        NavigableMap<LocalDateTime, ScheduledSession> updatedSchedule = new TreeMap<>(this.schedule);
+        updatedSchedule.put(sessionStartTime, scheduledSession);
+        this.schedule = updatedSchedule;
+        recordChange(FieldChange.put("schedule", sessionStartTime, scheduledSession));
+    }
+
+    // true if another session in the schedule overlaps the given one; back-to-back sessions do not
+    public boolean hasClash(String sessionId, LocalDateTime sessionStartTime, LocalDateTime sessionEndTime) {
+        return findClash(sessionId, sessionStartTime, sessionEndTime) != null;
+    }
+
+    // the sessions in a schedule never overlap, so of those starting before this one ends, the latest also ends last
+    // and is the only one that can reach into it. a session saved before end times were kept only clashes with one
+    // it starts in, or at the same time as
+    private ScheduledSession findClash(String sessionId, LocalDateTime sessionStartTime, LocalDateTime sessionEndTime) {
+        for (Map.Entry<LocalDateTime, ScheduledSession> entry : this.schedule.headMap(sessionEndTime, false).descendingMap().entrySet()) {
+            ScheduledSession scheduledSession = entry.getValue();
+            if (scheduledSession.getId().equals(sessionId)) continue;
+            if (scheduledSession.getEndTime() == null) {
+                return entry.getKey().isBefore(sessionStartTime) ? null : scheduledSession;
+            }
+            return scheduledSession.getEndTime().isAfter(sessionStartTime) ? scheduledSession : null;
+        }
+        return null;
     }
 
     public void removeSession(String sessionId) {
         Optional<LocalDateTime> optionalLocalDateTime = this.schedule.entrySet()
                 .stream()
-                .filter(entry -> entry.getValue().equals(sessionId))
+                .filter(entry -> entry.getValue().getId().equals(sessionId))
                 .map(Map.Entry::getKey)
                 .findFirst();
 
         if (optionalLocalDateTime.isPresent()) {
-            this.schedule.remove(optionalLocalDateTime.get());
+            NavigableMap<LocalDateTime, ScheduledSession> updatedSchedule = new TreeMap<>(this.schedule);
+            updatedSchedule.remove(optionalLocalDateTime.get());
+            this.schedule = updatedSchedule;
+            recordChange(FieldChange.removeKey("schedule", optionalLocalDateTime.get()));
         } else {
             throw new SessionException(String.format("Session id '%s' is not in attendee's '%s' personal schedule.", sessionId, this.getName()));
         }
     }
-    public Map<LocalDateTime, String> getSchedule() {
-        return new TreeMap<>(this.schedule);
-    }           // defensive copy
+
+    // drops every listed session that is in the schedule, copying the schedule at most once
+    public void removeSessions(Collection<String> sessionIds) {
+        NavigableMap<LocalDateTime, ScheduledSession> updatedSchedule = null;
+        for (Map.Entry<LocalDateTime, ScheduledSession> entry : this.schedule.entrySet()) {
+            if (!sessionIds.contains(entry.getValue().getId())) continue;
+            if (updatedSchedule == null) updatedSchedule = new TreeMap<>(this.schedule);
+            updatedSchedule.remove(entry.getKey());
+            recordChange(FieldChange.removeKey("schedule", entry.getKey()));
+        }
+        if (updatedSchedule != null) this.schedule = updatedSchedule;
+    }
+    // read-only views; the collections are replaced on every change, never modified
+    public Map<LocalDateTime, ScheduledSession> getSchedule() {
+        return Collections.unmodifiableNavigableMap(this.schedule);
+    }
 
     public Set<String> getRegisteredConferences() {
-        return new HashSet<>(this.registeredConferences);
-    }       // defensive copy
+        return Collections.unmodifiableSet(this.registeredConferences);
+    }
+
+    public static class ScheduledSession {
+        private final String id;
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private final LocalDateTime endTime;
+
+        public ScheduledSession() {
+            this.id = null;
+            this.endTime = null;
+        }
+
+        public ScheduledSession(String id, LocalDateTime endTime) {
+            this.id = id;
+            this.endTime = endTime;
+        }
+
+        // schedules used to map each start time straight to the session id; those entries load without an end time
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        private static ScheduledSession fromSessionId(String id) {
+            return new ScheduledSession(id, null);
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        // null for a session scheduled before end times were kept
+        public LocalDateTime getEndTime() {
+            return this.endTime;
+        }
+    }
 }
@@ -1,12 +1,13 @@
 package domain.model.user;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 public class Organizer extends User {
 
     private final String employeeId;
-    private final Set<String> managedConferences;
+    private Set<String> managedConferences;
 
     // no-arg constructor for JSON serialization/de-serialization
     private Organizer() {
@@ -21,15 +22,16 @@ public class Organizer extends User {
         this.managedConferences = new HashSet<>();
     }
 
+    // a read-only view; the set is replaced on every change, never modified
     public Set<String> getManagedConferences() {
-        return managedConferences;
+        return Collections.unmodifiableSet(this.managedConferences);
     }
 
     public void addConference(String conferenceId) {
-        managedConferences.add(conferenceId);
+        this.managedConferences = added("managedConferences", this.managedConferences, conferenceId);
     }
 
     public void removeConference(String conferenceId) {
-        managedConferences.remove(conferenceId);
+        this.managedConferences = removed("managedConferences", this.managedConferences, conferenceId);
     }
 }
@@ -1,6 +1,7 @@
 package domain.model.user;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import domain.model.FieldChange;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -8,8 +9,8 @@ import java.util.stream.Collectors;
 
 public class Speaker extends User {
     private String bio;
-    private final Set<String> feedback;
-    private final Map<LocalDateTime, AssignedSession> assignedSessions;          // K: Session Time, V: Session ID
+    private Set<String> feedback;
+    private SortedMap<LocalDateTime, AssignedSession> assignedSessions;          // K: Session Time, V: Session ID
 
     // no-arg constructor for JSON serialization/de-serialization
     private Speaker() {
@@ -36,7 +37,11 @@ public class Speaker extends User {
         if (!isAvailable(start, end)) {
             return;
         }
-        assignedSessions.put(start, new AssignedSession(sessionId, start, end));
+        AssignedSession assignedSession = new AssignedSession(sessionId, start, end);
+        SortedMap<LocalDateTime, AssignedSession> updatedSessions = new TreeMap<>(this.assignedSessions);
+        updatedSessions.put(start, assignedSession);
+        this.assignedSessions = updatedSessions;
+        recordChange(FieldChange.put("assignedSessions", start, assignedSession));
     }
 
     public void unassignSession(String sessionId) {
@@ -46,7 +51,24 @@ public class Speaker extends User {
                 .map(Map.Entry::getKey)
                 .findFirst();
 
-        startTimeToRemove.ifPresent(assignedSessions::remove);
+        startTimeToRemove.ifPresent(startTime -> {
+            SortedMap<LocalDateTime, AssignedSession> updatedSessions = new TreeMap<>(this.assignedSessions);
+            updatedSessions.remove(startTime);
+            this.assignedSessions = updatedSessions;
+            recordChange(FieldChange.removeKey("assignedSessions", startTime));
+        });
+    }
+
+    // drops every listed session that is assigned, copying the sessions at most once
+    public void unassignSessions(Collection<String> sessionIds) {
+        SortedMap<LocalDateTime, AssignedSession> updatedSessions = null;
+        for (Map.Entry<LocalDateTime, AssignedSession> entry : this.assignedSessions.entrySet()) {
+            if (!sessionIds.contains(entry.getValue().id)) continue;
+            if (updatedSessions == null) updatedSessions = new TreeMap<>(this.assignedSessions);
+            updatedSessions.remove(entry.getKey());
+            recordChange(FieldChange.removeKey("assignedSessions", entry.getKey()));
+        }
+        if (updatedSessions != null) this.assignedSessions = updatedSessions;
     }
 
     public static class AssignedSession {
@@ -84,20 +106,27 @@ public class Speaker extends User {
             return this.endTime;
         }
     }
-    public void addFeedback(String feedbackId) {this.feedback.add(feedbackId);}
+    public void addFeedback(String feedbackId) {
+        this.feedback = added("feedback", this.feedback, feedbackId);
+    }
+
+    public void removeFeedback(Collection<String> feedbackIds) {
+        this.feedback = removedAll("feedback", this.feedback, feedbackIds);
+    }
 
     public String getBio() {
         return this.bio;
     }
 
-    public void setBio(String bio) {this.bio = bio;}
+    public void setBio(String bio) {this.bio = assigned("bio", this.bio, bio);}
 
+    // read-only views; the collections are replaced on every change, never modified
     public Set<String> getFeedback() {
-        return this.feedback;
+        return Collections.unmodifiableSet(this.feedback);
     }
 
     public Map<LocalDateTime, AssignedSession> getAssignedSessions() {
-        return new HashMap<>(this.assignedSessions);
+        return Collections.unmodifiableSortedMap(this.assignedSessions);
     }
 
     public Set<String> getAssignedSessionIds() {
@@ -3,6 +3,7 @@ package domain.model.user;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import domain.model.TrackedEntity;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "role", visible = true)
 @JsonSubTypes({
@@ -10,7 +11,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
         @JsonSubTypes.Type(value = Attendee.class, name = "Attendee"),
         @JsonSubTypes.Type(value = Speaker.class, name = "Speaker")
 })
-public abstract class User {
+public abstract class User extends TrackedEntity {
     private final String id;
     private final String email;
     private final String name;
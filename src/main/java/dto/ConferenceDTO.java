@@ -3,6 +3,7 @@ package dto;
 import util.validation.ConferenceValidator;
 
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -118,7 +119,7 @@ public class ConferenceDTO {
         return this.endDate;
     }
     public Set<String> getSessions() {
-        return new HashSet<>(this.sessions);         // defensive copy
+        return Collections.unmodifiableSet(this.sessions);
     }
 
     public void setSessions(Set<String> sessions) {
@@ -126,20 +127,20 @@ public class ConferenceDTO {
     }
 
     public Set<String> getAttendees() {
-        return new HashSet<>(this.attendees);       // defensive copy
+        return Collections.unmodifiableSet(this.attendees);
     }
 
     public void setAttendees(Set<String> attendees) {
         this.attendees = attendees != null ? attendees : new HashSet<>();
     }
     public Set<String> getSpeakers() {
-        return new HashSet<>(this.speakers);        // defensive copy
+        return Collections.unmodifiableSet(this.speakers);
     }
     public void setSpeakers(Set<String> speakers) {
         this.speakers = speakers != null ? speakers : new HashSet<>();
     }
 
-    public Set<String> getFeedback() {return new HashSet<>(this.feedback);}
+    public Set<String> getFeedback() {return Collections.unmodifiableSet(this.feedback);}
 
     public void setFeedback(Set<String> feedback) {
         this.feedback = feedback != null ? feedback : new HashSet<>();
@@ -195,15 +195,15 @@ public class SessionDTO {
     }
 
     public Set<String> getRegisteredAttendees() {
-        return new HashSet<>(this.registeredAttendees);         // defensive copy
+        return Collections.unmodifiableSet(this.registeredAttendees);
     }
 
     public Set<String> getPresentAttendees() {
-        return new HashSet<>(this.presentAttendees);            // defensive copy
+        return Collections.unmodifiableSet(this.presentAttendees);
     }
 
     public Set<String> getFeedback() {
-        return new HashSet<>(this.feedback);            // defensive copy
+        return Collections.unmodifiableSet(this.feedback);
     }
 
     public float getAttendanceRecord() {
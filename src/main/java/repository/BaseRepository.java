@@ -1,74 +1,297 @@
 package repository;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import domain.model.Conference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import domain.model.FieldChange;
+import domain.model.TrackedEntity;
 import util.LoggerUtil;
-import util.file.JsonFileHandler;
+import util.file.JournalFileHandler;
+import util.file.StorageCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 public abstract class BaseRepository<T> {
 
-    protected final String filePath;
+    private static final long COMPACTION_INTERVAL_SECONDS = 60;
+    private static final int LOCK_STRIPES = 64;
+
+    // one background thread schedules the compaction of all repositories' journals into their snapshot files
+    private static final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "repository-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     protected final Map<String, T> cache;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];     // writes to different ids only contend when they share a stripe
+    private final Map<String, EntityIndex<T>> indexes = new LinkedHashMap<>();
+    private final AtomicLong version = new AtomicLong();                 // bumped after every change to the cache
+    private final Map<String, Long> stamps = new ConcurrentHashMap<>();  // K: id, V: version of its last change
+    private volatile Snapshot<T> snapshot;
+    private final Map<String, PendingWrite> latestWrites = new ConcurrentHashMap<>();  // K: id, V: its newest uncommitted write
+    private final EntityStore<T> store;
+    private final GroupCommitFlusher<T> flusher;
+    private final ObjectReader copyReader;
+    private final ObjectWriter copyWriter;
+
+    protected BaseRepository(RepositoryConfig config) {
+        this.cache = new ConcurrentHashMap<>();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        List<SecondaryIndex<T>> secondaryIndexes = getIndexes();
+        secondaryIndexes.forEach(index -> indexes.put(index.getName(), index));
+        getInMemoryIndexes().forEach(index -> indexes.put(index.getName(), index));
+
+        ObjectMapper copyMapper = StorageCodec.SMILE.getObjectMapper();
+        JavaType entityType = copyMapper.getTypeFactory().constructType(getTypeReference()).getContentType();
+        this.copyReader = copyMapper.readerFor(entityType);
+        this.copyWriter = copyMapper.writerFor(entityType);
+
+        this.store = createStore(config, secondaryIndexes);
+        store.loadInto(cache);
+        cache.values().forEach(BaseRepository::clearChanges);
+        buildIndexes();
 
-    protected BaseRepository(String filePath) {
-        this.filePath = filePath;
-        this.cache = new HashMap<>();
-        loadFromFile();
+        this.flusher = new GroupCommitFlusher<>(config.name().toLowerCase(), config.getGroupCommitWindowMillis(), store::commit);
+        if (store.compactsInBackground()) {
+            compactor.scheduleWithFixedDelay(() -> flusher.execute(store::compact),
+                    COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // package-private so a repository can be tested over a store of its own
+    EntityStore<T> createStore(RepositoryConfig config, List<SecondaryIndex<T>> secondaryIndexes) {
+        return switch (config.getPersistenceMode()) {
+            case MAPPED -> new MappedEntityStore<>(config, getTypeReference());
+            case SQL -> new SqlEntityStore<>(config, getTypeReference(), secondaryIndexes);
+            default -> new FileEntityStore<>(config, getTypeReference());
+        };
     }
 
     public boolean save(T entity, String id) {
-        // save user in memory first
-        boolean savedToMemory = saveInMemory(entity, id);
-        if (!savedToMemory) return false;
-
-        // save user to file storage
-        boolean isSavedToFile = JsonFileHandler.saveDataWithRetry(cache, filePath, 3);
-        if (!isSavedToFile) {
-            LoggerUtil.getInstance().logError(String.format("Failed to save entity with id '%s' to file storage. Rolling back in-memory save. Entity's class: '%s'.", id, entity.getClass().getSimpleName()));
-            removeFromMemory(id);
-            return false;
+        // inside a unit of work the change is only buffered until the unit commits
+        UnitOfWork unit = UnitOfWork.current();
+        if (unit != null) {
+            unit.put(this, id, entity);
+            return true;
         }
 
-        return true;
+        PendingWrite pendingWrite = submit(id, entity, null);
+        return pendingWrite != null && awaitCommit(pendingWrite);
     }
 
-
+    // inside a unit of work this returns the unit's own copy, which can be changed freely until it is saved
     public Optional<T> findById(String id) {
-        return Optional.ofNullable(cache.get(id));
+        UnitOfWork unit = UnitOfWork.current();
+        if (unit != null) {
+            return unit.read(this, id);
+        }
+        return findCommitted(id);
     }
 
+    // every caller shares the same immutable list until the next write publishes a new version
     public List<T> findAll() {
-        return new ArrayList<>(cache.values());
+        long currentVersion = version.get();
+        Snapshot<T> snapshot = this.snapshot;
+        if (snapshot != null && snapshot.version == currentVersion) {
+            return snapshot.entities;
+        }
+
+        List<T> entities = List.copyOf(cache.values());
+        this.snapshot = new Snapshot<>(currentVersion, entities);
+        return entities;
     }
 
     public List<Optional<T>> findAllById(Set<String> ids) {
         return ids.stream()
-                .map(id -> Optional.ofNullable(cache.get(id)))
+                .map(this::findById)
                 .collect(Collectors.toList());
     }
 
     public boolean deleteById(String id) {
-        T entity = cache.get(id);
-        removeFromMemory(id);
-        boolean isSavedToFile = JsonFileHandler.saveDataWithRetry(cache, filePath, 3);
-        if (!isSavedToFile) {
-            // rolling back the delete so that in-memory storage is synced up with file storage
-            saveInMemory(entity, id);
-            LoggerUtil.getInstance().logError(String.format("Failed to delete entity with id '%s'. Entity's class: %s", id, entity.getClass().getSimpleName()));
-            return false;
+        UnitOfWork unit = UnitOfWork.current();
+        if (unit != null) {
+            unit.delete(this, id);
+            return true;
         }
-        return true;
+
+        return awaitCommit(submit(id, null, null));
+    }
+
+    // deletes the whole batch with a single flush instead of waiting for each delete in turn
+    public boolean deleteAllById(Collection<String> ids) {
+        UnitOfWork unit = UnitOfWork.current();
+        if (unit != null) {
+            ids.forEach(id -> unit.delete(this, id));
+            return true;
+        }
+
+        List<PendingWrite> pendingWrites = ids.stream()
+                .map(id -> submit(id, null, null))
+                .toList();
+        flusher.flush();
+
+        boolean isCommitted = true;
+        for (PendingWrite pendingWrite : pendingWrites) {
+            isCommitted &= awaitCommit(pendingWrite);
+        }
+        return isCommitted;
+    }
+
+    // constant-time lookup through one of the indexes declared by getIndexes
+    public List<T> findByIndex(String name, Object key) {
+        if (!(indexes.get(name) instanceof SecondaryIndex<T> index)) {
+            throw new IllegalArgumentException("Index '" + name + "' does not exist.");
+        }
+
+        return findAllIndexed(index.find(key));
+    }
+
+    // blocks until every write submitted so far is durable
+    public boolean flush() {
+        return flusher.flush();
     }
 
 
     protected abstract TypeReference<Map<String, T>> getTypeReference();
 
+    // secondary indexes maintained on every save, delete and load
+    protected List<SecondaryIndex<T>> getIndexes() {
+        return List.of();
+    }
+
+    // indexes maintained like the secondary ones but never given a column by the SQL store;
+    // subclasses query them through getIndex
+    protected List<EntityIndex<T>> getInMemoryIndexes() {
+        return List.of();
+    }
+
+    protected EntityIndex<T> getIndex(String name) {
+        EntityIndex<T> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Index '" + name + "' does not exist.");
+        }
+        return index;
+    }
+
+    // the committed entities behind ids taken from an index, in the index's order
+    protected List<T> findAllIndexed(Collection<String> ids) {
+        return ids.stream()
+                .map(cache::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    Optional<T> findCommitted(String id) {
+        return Optional.ofNullable(cache.get(id));
+    }
+
+    // deep copy through the binary codec, used for the working copies of a unit of work
+    T copyOf(T entity) {
+        try {
+            T copy = copyReader.readValue(copyWriter.writeValueAsBytes(entity));
+            clearChanges(copy);
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to copy entity of class " + entity.getClass().getSimpleName(), e);
+        }
+    }
+
+    // version of the last change to the id, 0 if it has not changed since the repository was loaded
+    long stampOf(String id) {
+        return stamps.getOrDefault(id, 0L);
+    }
+
+    // the lock a caller of prepare has to hold until the write is submitted
+    Lock lockFor(String id) {
+        return locks[(id.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    // applies a change in memory without submitting it, where entity is null for a delete and base is the entity a
+    // working copy was made from. a non-negative expected stamp is the id's stamp when the change was based on it, and
+    // the change is refused if the id has changed since. null if the change was refused
+    @SuppressWarnings("unchecked")
+    PendingWrite prepare(String id, Object entity, Object base, long expectedStamp) {
+        if (expectedStamp >= 0 && stampOf(id) != expectedStamp) {
+            LoggerUtil.getInstance().logWarning(String.format("Entity with id '%s' was changed by another write since it was read.", id));
+            return null;
+        }
+
+        T previous = cache.get(id);
+        Map<EntityIndex<T>, Object> previousKeys = indexKeysOf(id);
+        if (entity == null) {
+            removeFromMemory(id);
+            return track(new PendingWrite(id, null, previous, previousKeys, new JournalFileHandler.Entry<>(JournalFileHandler.Operation.DELETE, id, null)));
+        }
+
+        T saved = (T) entity;
+        if (!indexEntity(id, saved) || !saveInMemory(saved, id)) {
+            restoreIndexKeys(id, previousKeys);
+            return null;
+        }
+
+        // the recorded changes only describe the difference from what is stored if they were made to the stored entity
+        // itself or to a copy of it; anything else is written whole
+        List<FieldChange> changes = saved instanceof TrackedEntity trackedEntity ? trackedEntity.drainChanges() : List.of();
+        boolean isPatch = previous != null && !changes.isEmpty() && (previous == saved || previous == base);
+        JournalFileHandler.Entry<T> entry = isPatch
+                ? new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PATCH, id, saved, changes)
+                : new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PUT, id, saved);
+        return track(new PendingWrite(id, saved, previous, previousKeys, entry));
+    }
+
+    // links the write to the one before it that is still uncommitted, which the writer may coalesce it with
+    private PendingWrite track(PendingWrite pendingWrite) {
+        pendingWrite.earlier = latestWrites.put(pendingWrite.id, pendingWrite);
+        return pendingWrite;
+    }
+
+    // applies the change in memory and submits it under the id's lock, so the writer sees writes to one id in the
+    // order the cache did; null if it was refused in memory
+    private PendingWrite submit(String id, T entity, Object base) {
+        Lock lock = lockFor(id);
+        lock.lock();
+        try {
+            PendingWrite pendingWrite = prepare(id, entity, base, -1);
+            if (pendingWrite != null) pendingWrite.submit();
+            return pendingWrite;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean awaitCommit(PendingWrite pendingWrite) {
+        boolean isCommitted = pendingWrite.getCommitted().join();
+        if (!isCommitted) {
+            pendingWrite.undo();
+        }
+        return isCommitted;
+    }
+
+    private static void clearChanges(Object entity) {
+        if (entity instanceof TrackedEntity trackedEntity) trackedEntity.drainChanges();
+    }
+
     private boolean saveInMemory(T entity, String id) {
         // update in memory storage
         try {
             cache.put(id, entity);
+            stamps.put(id, version.incrementAndGet());
             return true;
         } catch (Exception e) {
             LoggerUtil.getInstance().logError(String.format("Failed to save entity with id '%s' to in-memory storage.", id));
@@ -78,12 +301,118 @@ public abstract class BaseRepository<T> {
 
     private void removeFromMemory(String id) {
         cache.remove(id);
+        stamps.put(id, version.incrementAndGet());
+        indexes.values().forEach(index -> index.remove(id));
     }
 
+    private boolean indexEntity(String id, T entity) {
+        for (EntityIndex<T> index : indexes.values()) {
+            if (!index.put(id, entity)) {
+                LoggerUtil.getInstance().logError(String.format("Entity with id '%s' violates unique index '%s'.", id, index.getName()));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<EntityIndex<T>, Object> indexKeysOf(String id) {
+        Map<EntityIndex<T>, Object> keys = new HashMap<>();
+        indexes.values().forEach(index -> keys.put(index, index.keyOf(id)));
+        return keys;
+    }
+
+    private void restoreIndexKeys(String id, Map<EntityIndex<T>, Object> keys) {
+        keys.forEach((index, key) -> index.restore(id, key));
+    }
 
-    private void loadFromFile() {
-        JsonFileHandler.loadData(filePath, getTypeReference())
-                .ifPresent(cache::putAll);
+    private void buildIndexes() {
+        cache.forEach((id, entity) -> {
+            if (!indexEntity(id, entity)) {
+                LoggerUtil.getInstance().logWarning(String.format("Entity with id '%s' was loaded but is missing from an index.", id));
+            }
+        });
     }
 
+    // a write applied in memory, to be submitted to the writer, with the undo to run if it or anything committed
+    // together with it fails
+    class PendingWrite {
+        private final String id;
+        private final T entity;                 // null for a delete
+        private final T previous;
+        private final Map<EntityIndex<T>, Object> previousKeys;
+        private final JournalFileHandler.Entry<T> entry;
+        private volatile PendingWrite earlier;  // the id's previous write if it was not yet committed when this one was made
+        private CompletableFuture<Boolean> committed;
+
+        private PendingWrite(String id, T entity, T previous, Map<EntityIndex<T>, Object> previousKeys, JournalFileHandler.Entry<T> entry) {
+            this.id = id;
+            this.entity = entity;
+            this.previous = previous;
+            this.previousKeys = previousKeys;
+            this.entry = entry;
+        }
+
+        // the caller holds the id's lock
+        void submit() {
+            committed = flusher.submit(entry);
+            committed.thenAccept(isCommitted -> {
+                if (isCommitted) {
+                    latestWrites.remove(id, this);
+                    earlier = null;
+                }
+            });
+        }
+
+        CompletableFuture<Boolean> getCommitted() {
+            return committed;
+        }
+
+        // puts the previous entity back in memory and, if the write was already committed, submits a write restoring
+        // it in storage too; nothing is undone if another write to the id has been made since. earlier writes to the id
+        // that failed with this one, e.g. coalesced into the same batch, are undone with it, back to what was there
+        // before the first of them. the returned future completes once that restoring write is durable
+        CompletableFuture<Boolean> undo() {
+            Lock lock = lockFor(id);
+            lock.lock();
+            try {
+                latestWrites.remove(id, this);
+                if (cache.get(id) != entity) return CompletableFuture.completedFuture(true);
+
+                PendingWrite first = this;
+                while (first.earlier != null && first.earlier.hasFailed()) {
+                    first = first.earlier;
+                }
+                T restored = first.previous;
+
+                LoggerUtil.getInstance().logError(entity != null
+                        ? String.format("Rolling back save of entity with id '%s'. Entity's class: '%s'.", id, entity.getClass().getSimpleName())
+                        : String.format("Rolling back delete of entity with id '%s'.", id));
+                if (restored != null) saveInMemory(restored, id);
+                else if (entity != null) removeFromMemory(id);
+                restoreIndexKeys(id, first.previousKeys);
+
+                boolean isDurable = committed != null && committed.isDone() && committed.join();
+                if (!isDurable || (restored == null && entity == null)) return CompletableFuture.completedFuture(true);
+                return restored != null
+                        ? flusher.submit(JournalFileHandler.Operation.PUT, id, restored)
+                        : flusher.submit(JournalFileHandler.Operation.DELETE, id, null);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean hasFailed() {
+            return committed != null && committed.isDone() && !committed.join();
+        }
+    }
+
+    private static class Snapshot<T> {
+        private final long version;
+        private final List<T> entities;
+
+        private Snapshot(long version, List<T> entities) {
+            this.version = version;
+            this.entities = entities;
+        }
+    }
 }
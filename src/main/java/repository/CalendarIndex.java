@@ -0,0 +1,41 @@
+package repository;
+
+import domain.model.Conference;
+
+import java.util.Objects;
+
+// keeps the ConferenceCalendar in step with the stored conferences
+class CalendarIndex extends EntityIndex<Conference> {
+
+    private final ConferenceCalendar calendar = new ConferenceCalendar();
+
+    CalendarIndex(String name) {
+        super(name);
+    }
+
+    ConferenceCalendar getCalendar() {
+        return calendar;
+    }
+
+    @Override
+    Object keyOf(String id) {
+        return calendar.entryOf(id);
+    }
+
+    @Override
+    boolean put(String id, Conference conference) {
+        restore(id, ConferenceCalendar.Entry.of(conference));
+        return true;
+    }
+
+    @Override
+    void restore(String id, Object key) {
+        ConferenceCalendar.Entry entry = (ConferenceCalendar.Entry) key;
+        synchronized (calendar) {
+            if (Objects.equals(calendar.entryOf(id), entry)) return;
+
+            if (entry == null) calendar.remove(id);
+            else calendar.add(id, entry);
+        }
+    }
+}
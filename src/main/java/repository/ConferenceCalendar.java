@@ -0,0 +1,128 @@
+package repository;
+
+import domain.model.Conference;
+import util.IntervalTree;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// every conference's date range in an interval tree, plus their names and start and end dates in order, so overlap
+// checks and upcoming, ongoing and past lookups are range queries instead of a walk over every conference
+public class ConferenceCalendar {
+
+    private final Map<String, Entry> entries = new HashMap<>();                                 // K: conference id
+    private final Map<String, Set<String>> idsByName = new HashMap<>();                         // K: lower case name
+    private final IntervalTree<LocalDate> periods = new IntervalTree<>();
+    private final NavigableMap<LocalDate, Set<String>> idsByStartDate = new TreeMap<>();
+    private final NavigableMap<LocalDate, Set<String>> idsByEndDate = new TreeMap<>();
+
+    public synchronized void add(Conference conference) {
+        Entry entry = Entry.of(conference);
+        if (entry != null) add(conference.getId(), entry);
+    }
+
+    public synchronized void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) return;
+
+        removeFrom(idsByName, nameKey(entry.name), id);
+        periods.remove(id, entry.startDate);
+        removeFrom(idsByStartDate, entry.startDate, id);
+        removeFrom(idsByEndDate, entry.endDate, id);
+    }
+
+    // a private copy to plan further conferences against without touching the repository's calendar
+    public synchronized ConferenceCalendar copy() {
+        ConferenceCalendar copy = new ConferenceCalendar();
+        entries.forEach(copy::add);
+        return copy;
+    }
+
+    // the excluded id is the conference being changed, which never conflicts with itself
+    public synchronized boolean isNameTaken(String name, String excludedId) {
+        return idsByName.getOrDefault(nameKey(name), Set.of())
+                .stream()
+                .anyMatch(id -> !id.equals(excludedId));
+    }
+
+    // both ends are inclusive, a conference may not start on the day another one ends
+    public synchronized boolean isPeriodTaken(LocalDate startDate, LocalDate endDate, String excludedId) {
+        return periods.anyOverlap(startDate, endDate, id -> !id.equals(excludedId));
+    }
+
+    // ids ordered by start date
+    public synchronized List<String> findStartingAfter(LocalDate date) {
+        return flatten(idsByStartDate.tailMap(date, false));
+    }
+
+    public synchronized List<String> findEndingBefore(LocalDate date) {
+        return flatten(idsByEndDate.headMap(date, false));
+    }
+
+    public synchronized List<String> findHeldOn(LocalDate date) {
+        return periods.findOverlapping(date, date);
+    }
+
+    synchronized Entry entryOf(String id) {
+        return entries.get(id);
+    }
+
+    synchronized void add(String id, Entry entry) {
+        remove(id);
+        entries.put(id, entry);
+        idsByName.computeIfAbsent(nameKey(entry.name), key -> new HashSet<>()).add(id);
+        periods.insert(id, entry.startDate, entry.endDate);
+        idsByStartDate.computeIfAbsent(entry.startDate, key -> new LinkedHashSet<>()).add(id);
+        idsByEndDate.computeIfAbsent(entry.endDate, key -> new LinkedHashSet<>()).add(id);
+    }
+
+    private static String nameKey(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> flatten(Map<LocalDate, Set<String>> idsByDate) {
+        List<String> ids = new ArrayList<>();
+        idsByDate.values().forEach(ids::addAll);
+        return ids;
+    }
+
+    private static <K> void removeFrom(Map<K, Set<String>> idsByKey, K key, String id) {
+        Set<String> ids = idsByKey.get(key);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.isEmpty()) idsByKey.remove(key);
+    }
+
+    // the name and dates of a conference, as they were when it was indexed
+    static class Entry {
+        private final String name;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        private Entry(String name, LocalDate startDate, LocalDate endDate) {
+            this.name = name;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        // null for conferences without dates
+        static Entry of(Conference conference) {
+            if (conference.getStartDate() == null || conference.getEndDate() == null) {
+                return null;
+            }
+            return new Entry(conference.getName(), conference.getStartDate(), conference.getEndDate());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof Entry entry)) return false;
+            return Objects.equals(name, entry.name) && startDate.equals(entry.startDate) && endDate.equals(entry.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, startDate, endDate);
+        }
+    }
+}
@@ -3,13 +3,14 @@ package repository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import domain.model.Conference;
 
+import java.time.LocalDate;
 import java.util.*;
 
 public class ConferenceRepository extends BaseRepository<Conference> {
 
     private static ConferenceRepository instance;
     private ConferenceRepository() {
-        super("src/main/resources/data/conferences.json");
+        super(RepositoryConfig.CONFERENCES);
     }
 
     // ensures only one instance of the repository is used throughout
@@ -20,6 +21,28 @@ public class ConferenceRepository extends BaseRepository<Conference> {
         return instance;
     }
 
+    // the live calendar of all conferences, used to check a conference's name and dates for conflicts
+    public ConferenceCalendar findCalendar() {
+        return ((CalendarIndex) getIndex("calendar")).getCalendar();
+    }
+
+    public List<Conference> findAllStartingAfter(LocalDate date) {
+        return findAllIndexed(findCalendar().findStartingAfter(date));
+    }
+
+    public List<Conference> findAllEndingBefore(LocalDate date) {
+        return findAllIndexed(findCalendar().findEndingBefore(date));
+    }
+
+    public List<Conference> findAllHeldOn(LocalDate date) {
+        return findAllIndexed(findCalendar().findHeldOn(date));
+    }
+
+    @Override
+    protected List<EntityIndex<Conference>> getInMemoryIndexes() {
+        return List.of(new CalendarIndex("calendar"));
+    }
+
     @Override
     protected TypeReference<Map<String, Conference>> getTypeReference() {
         return new TypeReference<Map<String, Conference>>() {};
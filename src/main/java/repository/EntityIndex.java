@@ -0,0 +1,28 @@
+package repository;
+
+// an in-memory index of entity ids, kept in step with the cache by BaseRepository on every save, delete, rollback and load
+public abstract class EntityIndex<T> {
+
+    private final String name;
+
+    protected EntityIndex(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // the key the id is currently indexed under, handed back to restore when a write is undone
+    abstract Object keyOf(String id);
+
+    // re-indexes the id under the entity's current key; returns false if the index refuses the entity
+    abstract boolean put(String id, T entity);
+
+    // indexes the id under the given key, or removes it when the key is null
+    abstract void restore(String id, Object key);
+
+    void remove(String id) {
+        restore(id, null);
+    }
+}
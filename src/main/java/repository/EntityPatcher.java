@@ -0,0 +1,82 @@
+package repository;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domain.model.FieldChange;
+import util.LoggerUtil;
+import util.PersistentHashSet;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+// re-applies journaled field-level changes to an entity; values are converted to the declared types of its fields
+class EntityPatcher {
+
+    // private no-arg constructor to suppress instantiability
+    private EntityPatcher() {}
+
+    static void apply(String id, Object entity, JsonNode changes, ObjectMapper mapper) {
+        if (entity == null) {
+            LoggerUtil.getInstance().logWarning(String.format("Skipped changes to entity with id '%s' as it does not exist.", id));
+            return;
+        }
+
+        for (JsonNode change : changes) {
+            Field field = findField(entity.getClass(), change.get("field").asText());
+            JavaType type = mapper.getTypeFactory().constructType(field.getGenericType());
+            try {
+                Object current = field.get(entity);
+                field.set(entity, applyChange(current, type, change, mapper));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Field '" + field.getName() + "' cannot be patched: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // collections are copied, as the entities only ever replace them
+    @SuppressWarnings("unchecked")
+    private static Object applyChange(Object current, JavaType type, JsonNode change, ObjectMapper mapper) {
+        FieldChange.Operation operation = FieldChange.Operation.valueOf(change.get("operation").asText());
+        JsonNode value = change.get("value");
+        JsonNode key = change.get("key");
+
+        switch (operation) {
+            case SET -> {
+                return value == null ? null : mapper.convertValue(value, type);
+            }
+            case ADD, REMOVE -> {
+                Object element = mapper.convertValue(value, type.getContentType());
+                if (!(current instanceof SortedSet)) {
+                    // a persistent set, so replaying many changes to a large set copies it once rather than per change
+                    PersistentHashSet<Object> set = PersistentHashSet.copyOf((Set<Object>) current);
+                    return operation == FieldChange.Operation.ADD ? set.with(element) : set.without(element);
+                }
+                Set<Object> set = new TreeSet<>((Set<Object>) current);
+                if (operation == FieldChange.Operation.ADD) set.add(element);
+                else set.remove(element);
+                return set;
+            }
+            default -> {
+                Map<Object, Object> map = current instanceof SortedMap ? new TreeMap<>((Map<Object, Object>) current) : new HashMap<>((Map<Object, Object>) current);
+                Object mapKey = mapper.convertValue(key, type.getKeyType());
+                if (operation == FieldChange.Operation.PUT) map.put(mapKey, mapper.convertValue(value, type.getContentType()));
+                else map.remove(mapKey);
+                return map;
+            }
+        }
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // declared further up the hierarchy
+            }
+        }
+        throw new IllegalStateException(String.format("Class '%s' has no field '%s'.", type.getSimpleName(), name));
+    }
+}
@@ -0,0 +1,28 @@
+package repository;
+
+import util.file.JournalFileHandler;
+
+import java.util.List;
+import java.util.Map;
+
+// durable storage behind a repository's cache; after loading, it is only called from the repository's flusher thread
+interface EntityStore<T> {
+
+    void loadInto(Map<String, T> target);
+
+    // entries are the coalesced writes of one group commit, in submission order
+    boolean commit(List<JournalFileHandler.Entry<T>> entries);
+
+    // periodic background maintenance, e.g. journal compaction
+    default void compact() {}
+
+    default boolean compactsInBackground() {
+        return false;
+    }
+
+    static <T> List<JournalFileHandler.Entry<T>> toPuts(Map<String, T> entities) {
+        return entities.entrySet().stream()
+                .map(entry -> new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PUT, entry.getKey(), entry.getValue()))
+                .toList();
+    }
+}
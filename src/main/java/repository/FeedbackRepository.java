@@ -10,7 +10,7 @@ public class FeedbackRepository extends BaseRepository<Feedback> {
     private static FeedbackRepository instance;
 
     private FeedbackRepository() {
-        super("src/main/resources/data/feedback.json");
+        super(RepositoryConfig.FEEDBACK);
     }
 
     public static synchronized FeedbackRepository getInstance() {
@@ -21,29 +21,52 @@ public class FeedbackRepository extends BaseRepository<Feedback> {
     }
 
     public List<ConferenceFeedback> findAllConferenceFeedback() {
-        return cache.values()
+        return findByIndex("type", FeedbackType.CONFERENCE)
                 .stream()
-                .filter(feedback -> feedback.getType() == FeedbackType.CONFERENCE)
                 .map(feedback -> (ConferenceFeedback) feedback)
                 .toList();
     }
 
     public List<SessionFeedback> findAllSessionFeedback() {
-        return cache.values()
+        return findByIndex("type", FeedbackType.SESSION)
                 .stream()
-                .filter(feedback -> feedback.getType() == FeedbackType.SESSION)
                 .map(feedback -> (SessionFeedback) feedback)
                 .toList();
     }
 
     public List<SpeakerFeedback> findAllSpeakerFeedback() {
-        return cache.values()
+        return findByIndex("type", FeedbackType.SPEAKER)
                 .stream()
-                .filter(feedback -> feedback.getType() == FeedbackType.SPEAKER)
                 .map(feedback -> (SpeakerFeedback) feedback)
                 .toList();
     }
 
+    public List<Feedback> findAllByAttendeeId(String attendeeId) {
+        return findByIndex("attendeeId", attendeeId);
+    }
+
+    // feedback about a conference, session or speaker, by that target's id
+    public List<Feedback> findAllByTargetId(String targetId) {
+        return findByIndex("targetId", targetId);
+    }
+
+    @Override
+    protected List<SecondaryIndex<Feedback>> getIndexes() {
+        return List.of(
+                SecondaryIndex.nonUnique("type", Feedback::getType),
+                SecondaryIndex.nonUnique("targetId", FeedbackRepository::getTargetId),
+                SecondaryIndex.nonUnique("attendeeId", Feedback::getAttendeeId)
+        );
+    }
+
+    private static String getTargetId(Feedback feedback) {
+        return switch (feedback.getType()) {
+            case CONFERENCE -> ((ConferenceFeedback) feedback).getConferenceId();
+            case SESSION -> ((SessionFeedback) feedback).getSessionId();
+            case SPEAKER -> ((SpeakerFeedback) feedback).getSpeakerId();
+        };
+    }
+
     @Override
     protected TypeReference<Map<String, Feedback>> getTypeReference() {
         return new TypeReference<Map<String, Feedback>>() {};
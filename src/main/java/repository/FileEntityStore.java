@@ -0,0 +1,109 @@
+package repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import util.LoggerUtil;
+import util.file.JournalFileHandler;
+import util.file.JsonFileHandler;
+import util.file.StorageCodec;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// whole-map snapshot file, optionally with an append-only journal of the writes made since the last snapshot
+class FileEntityStore<T> implements EntityStore<T> {
+
+    private static final int COMPACTION_THRESHOLD = 1000;          // journal records before an early compaction
+
+    private final String filePath;
+    private final String journalPath;
+    private final StorageCodec codec;
+    private final PersistenceMode persistenceMode;
+    private final TypeReference<Map<String, T>> typeReference;
+    private final Map<String, T> committed = new HashMap<>();     // what storage holds; only touched by the writer thread
+    private int journalRecords;
+
+    FileEntityStore(RepositoryConfig config, TypeReference<Map<String, T>> typeReference) {
+        this.filePath = config.getFilePath();
+        this.journalPath = config.getJournalPath();
+        this.codec = config.getCodec();
+        this.persistenceMode = config.getPersistenceMode();
+        this.typeReference = typeReference;
+    }
+
+    // loads the snapshot and journal of a repository that is being switched over to another backend
+    static <T> Map<String, T> loadExisting(RepositoryConfig config, TypeReference<Map<String, T>> typeReference) {
+        Map<String, T> existing = new HashMap<>();
+        new FileEntityStore<>(config, typeReference).loadInto(existing);
+        return existing;
+    }
+
+    @Override
+    public void loadInto(Map<String, T> target) {
+        // entities are streamed straight into the cache so startup never holds a second copy of the table
+        JsonFileHandler.loadInto(filePath, codec, typeReference, target);
+
+        // records written after the last compaction are replayed on top of the snapshot
+        journalRecords = JournalFileHandler.replay(journalPath, codec, typeReference, target::put,
+                (id, changes) -> EntityPatcher.apply(id, target.get(id), changes, codec.getObjectMapper()), target::remove);
+        if (journalRecords > 0) {
+            LoggerUtil.getInstance().logInfo(String.format("Replayed %d journal records for '%s'.", journalRecords, filePath));
+        }
+        // snapshots are taken from this rather than the cache, which also holds writes that may still fail
+        committed.putAll(target);
+    }
+
+    @Override
+    public boolean commit(List<JournalFileHandler.Entry<T>> entries) {
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            Map<String, T> replaced = new HashMap<>();
+            entries.forEach(entry -> replaced.putIfAbsent(entry.getId(), committed.get(entry.getId())));
+            apply(entries);
+            boolean isSaved = JsonFileHandler.saveSnapshot(committed, filePath, codec, typeReference);
+            if (!isSaved) {
+                replaced.forEach((id, entity) -> {
+                    if (entity != null) committed.put(id, entity);
+                    else committed.remove(id);
+                });
+            }
+            return isSaved;
+        }
+
+        boolean appended = JournalFileHandler.append(journalPath, codec, entries, typeReference);
+        if (appended) {
+            apply(entries);
+            journalRecords += entries.size();
+            if (journalRecords >= COMPACTION_THRESHOLD) compact();
+        }
+        return appended;
+    }
+
+    // writes what has been committed so far as the new snapshot and only then discards the journal records it now contains
+    @Override
+    public void compact() {
+        if (journalRecords == 0) return;
+
+        boolean isSnapshotSaved = JsonFileHandler.saveSnapshot(committed, filePath, codec, typeReference);
+        if (!isSnapshotSaved) {
+            LoggerUtil.getInstance().logWarning(String.format("Journal compaction for '%s' failed; records will be kept until the next attempt.", filePath));
+            return;
+        }
+
+        if (JournalFileHandler.truncate(journalPath)) {
+            LoggerUtil.getInstance().logDebug(String.format("Compacted %d journal records into '%s'.", journalRecords, filePath));
+            journalRecords = 0;
+        }
+    }
+
+    private void apply(List<JournalFileHandler.Entry<T>> entries) {
+        for (JournalFileHandler.Entry<T> entry : entries) {
+            if (entry.getOperation() == JournalFileHandler.Operation.DELETE) committed.remove(entry.getId());
+            else committed.put(entry.getId(), entry.getEntity());
+        }
+    }
+
+    @Override
+    public boolean compactsInBackground() {
+        return persistenceMode == PersistenceMode.JOURNALED;
+    }
+}
@@ -0,0 +1,171 @@
+package repository;
+
+import util.LoggerUtil;
+import util.file.JournalFileHandler;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// single writer thread per repository: collects writes for a short window, coalesces them per id and commits them together.
+// the window is only waited out once writers have been seen to overlap; a write on its own is committed at once
+class GroupCommitFlusher<T> {
+
+    private final Function<List<JournalFileHandler.Entry<T>>, Boolean> commitAction;
+    private final long windowNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUp = lock.newCondition();
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private Batch<T> open = new Batch<>();
+    private Batch<T> inFlight;
+    private boolean flushRequested;
+    private int lastBatchSize;                      // writer thread only
+
+    GroupCommitFlusher(String name, long windowMillis, Function<List<JournalFileHandler.Entry<T>>, Boolean> commitAction) {
+        this.commitAction = commitAction;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+
+        Thread writer = new Thread(this::run, name + "-flusher");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // the returned future completes once the batch containing this write is durable
+    CompletableFuture<Boolean> submit(JournalFileHandler.Operation operation, String id, T entity) {
+        return submit(new JournalFileHandler.Entry<>(operation, id, entity));
+    }
+
+    CompletableFuture<Boolean> submit(JournalFileHandler.Entry<T> entry) {
+        lock.lock();
+        try {
+            // a later write to the same id supersedes the earlier one within a batch
+            JournalFileHandler.Entry<T> earlier = open.writes.remove(entry.getId());
+            open.writes.put(entry.getId(), coalesce(earlier, entry));
+            wakeUp.signal();
+            return open.committed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // barrier: commits everything submitted so far without waiting for the window to elapse
+    boolean flush() {
+        CompletableFuture<Boolean> committed;
+        lock.lock();
+        try {
+            if (open.writes.isEmpty()) {
+                committed = inFlight != null ? inFlight.committed : CompletableFuture.completedFuture(true);
+            } else {
+                flushRequested = true;
+                wakeUp.signal();
+                committed = open.committed;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return committed.join();
+    }
+
+    // runs maintenance work (e.g. compaction) on the writer thread so it never interleaves with a commit
+    void execute(Runnable task) {
+        lock.lock();
+        try {
+            tasks.add(task);
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Batch<T> batch = null;
+            List<Runnable> pendingTasks;
+
+            lock.lock();
+            try {
+                while (open.writes.isEmpty() && tasks.isEmpty()) {
+                    wakeUp.awaitUninterruptibly();
+                }
+
+                // give concurrent writers the rest of the window to join this batch, unless this write came on its own
+                // after a batch that had no company either, so a standalone save does not wait for writers that are
+                // not coming. under load, writes arriving during a commit still pile up for the next batch
+                boolean isAlone = open.writes.size() == 1 && lastBatchSize <= 1;
+                long deadline = System.nanoTime() + windowNanos;
+                long remaining;
+                while (!open.writes.isEmpty() && !flushRequested && !isAlone && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        wakeUp.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+
+                if (!open.writes.isEmpty()) {
+                    batch = open;
+                    inFlight = batch;
+                    open = new Batch<>();
+                    lastBatchSize = batch.writes.size();
+                }
+                flushRequested = false;
+                pendingTasks = new ArrayList<>(tasks);
+                tasks.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            if (batch != null) {
+                batch.committed.complete(commit(batch));
+                lock.lock();
+                try {
+                    if (inFlight == batch) inFlight = null;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            pendingTasks.forEach(this::runTask);
+        }
+    }
+
+    // a patch only supersedes an earlier patch by adding to its changes, and turns an earlier put into a put of the newer state
+    private JournalFileHandler.Entry<T> coalesce(JournalFileHandler.Entry<T> earlier, JournalFileHandler.Entry<T> later) {
+        if (earlier == null || later.getOperation() != JournalFileHandler.Operation.PATCH) {
+            return later;
+        }
+
+        if (earlier.getOperation() == JournalFileHandler.Operation.PATCH) {
+            List<Object> changes = new ArrayList<>(earlier.getChanges());
+            changes.addAll(later.getChanges());
+            return new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PATCH, later.getId(), later.getEntity(), changes);
+        }
+        return new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PUT, later.getId(), later.getEntity());
+    }
+
+    private boolean commit(Batch<T> batch) {
+        try {
+            return commitAction.apply(new ArrayList<>(batch.writes.values()));
+        } catch (RuntimeException e) {
+            LoggerUtil.getInstance().logError(String.format("Group commit of %d writes failed: %s", batch.writes.size(), e.getMessage()));
+            return false;
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LoggerUtil.getInstance().logError("Repository maintenance task failed: " + e.getMessage());
+        }
+    }
+
+    private static class Batch<T> {
+        private final Map<String, JournalFileHandler.Entry<T>> writes = new LinkedHashMap<>();
+        private final CompletableFuture<Boolean> committed = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,109 @@
+package repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import util.LoggerUtil;
+import util.file.JournalFileHandler;
+import util.file.MappedSegmentFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+// one record per entity in a memory-mapped segment file, so a save rewrites only the pages of the entities it changed
+class MappedEntityStore<T> implements EntityStore<T> {
+
+    private final RepositoryConfig config;
+    private final String segmentPath;
+    private final ObjectReader entityReader;
+    private final ObjectWriter entityWriter;
+    private final TypeReference<Map<String, T>> typeReference;
+    private MappedSegmentFile segment;
+
+    MappedEntityStore(RepositoryConfig config, TypeReference<Map<String, T>> typeReference) {
+        this.config = config;
+        this.segmentPath = config.getSegmentPath();
+        this.typeReference = typeReference;
+
+        ObjectMapper codecMapper = config.getCodec().getObjectMapper();
+        JavaType entityType = codecMapper.getTypeFactory().constructType(typeReference).getContentType();
+        this.entityReader = codecMapper.readerFor(entityType);
+        this.entityWriter = codecMapper.writerFor(entityType);
+    }
+
+    @Override
+    public void loadInto(Map<String, T> target) {
+        boolean isNewSegment = !new File(segmentPath).exists();
+        try {
+            segment = MappedSegmentFile.open(segmentPath);
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError("Failed to open segment file at '" + segmentPath + "': " + e.getMessage());
+            return;
+        }
+
+        if (isNewSegment) {
+            seedFromSnapshot(target);
+            return;
+        }
+
+        segment.forEach((id, payload) -> {
+            try {
+                target.put(id, entityReader.readValue(payload));
+            } catch (IOException e) {
+                LoggerUtil.getInstance().logError(String.format("Failed to read entity with id '%s' from '%s': %s", id, segmentPath, e.getMessage()));
+            }
+        });
+    }
+
+    @Override
+    public boolean commit(List<JournalFileHandler.Entry<T>> entries) {
+        if (segment == null) {
+            LoggerUtil.getInstance().logError("Segment file at '" + segmentPath + "' is not open.");
+            return false;
+        }
+
+        try {
+            for (JournalFileHandler.Entry<T> entry : entries) {
+                // a slot is rewritten whole, so a patch is stored like a put
+                if (entry.getOperation() == JournalFileHandler.Operation.DELETE) {
+                    segment.delete(entry.getId());
+                } else {
+                    segment.write(entry.getId(), entityWriter.writeValueAsBytes(entry.getEntity()));
+                }
+            }
+            segment.force();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to write %d records to segment file at '%s': %s", entries.size(), segmentPath, e.getMessage()));
+            return false;
+        }
+    }
+
+    // a repository switched to this mode starts from its existing snapshot and journal
+    private void seedFromSnapshot(Map<String, T> target) {
+        Map<String, T> existing = FileEntityStore.loadExisting(config, typeReference);
+        if (existing.isEmpty()) return;
+
+        target.putAll(existing);
+        if (commit(EntityStore.toPuts(existing))) {
+            LoggerUtil.getInstance().logInfo(String.format("Seeded segment file '%s' with %d entities.", segmentPath, existing.size()));
+            return;
+        }
+
+        // without the segment file the next start seeds again from the untouched snapshot
+        LoggerUtil.getInstance().logError("Failed to seed segment file at '" + segmentPath + "'; writes will fail until it is recreated.");
+        try {
+            segment.close();
+            Files.deleteIfExists(Path.of(segmentPath));
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError("Failed to remove partial segment file at '" + segmentPath + "': " + e.getMessage());
+        }
+        segment = null;
+    }
+}
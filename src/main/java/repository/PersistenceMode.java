@@ -0,0 +1,8 @@
+package repository;
+
+public enum PersistenceMode {
+    SNAPSHOT,           // every write rewrites the whole snapshot file
+    JOURNALED,          // every write appends one record to the journal, snapshot is compacted in the background
+    MAPPED,             // every entity is a record in a memory-mapped segment file, writes update only that record
+    SQL                 // every entity is a row in an embedded database table with indexed lookup columns
+}
@@ -0,0 +1,60 @@
+package repository;
+
+import util.file.StorageCodec;
+
+import java.nio.file.Path;
+
+public enum RepositoryConfig {
+    CONFERENCES("src/main/resources/data/conferences", StorageCodec.JSON, PersistenceMode.JOURNALED, 5),
+    SESSIONS("src/main/resources/data/sessions", StorageCodec.JSON, PersistenceMode.JOURNALED, 5),
+    USERS("src/main/resources/data/users", StorageCodec.JSON, PersistenceMode.JOURNALED, 5),
+    FEEDBACK("src/main/resources/data/feedback", StorageCodec.JSON, PersistenceMode.JOURNALED, 5);
+
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String SEGMENT_EXTENSION = ".segment";
+
+    private final String basePath;                     // file path without extension, the codec decides the extension
+    private final StorageCodec codec;
+    private final PersistenceMode persistenceMode;
+    private final long groupCommitWindowMillis;        // how long the flusher waits for more writes before committing
+
+    RepositoryConfig(String basePath, StorageCodec codec, PersistenceMode persistenceMode, long groupCommitWindowMillis) {
+        this.basePath = basePath;
+        this.codec = codec;
+        this.persistenceMode = persistenceMode;
+        this.groupCommitWindowMillis = groupCommitWindowMillis;
+    }
+
+    public String getFilePath() {
+        return getFilePath(codec);
+    }
+
+    public String getFilePath(StorageCodec codec) {
+        return basePath + codec.getExtension();
+    }
+
+    public String getJournalPath() {
+        return basePath + JOURNAL_EXTENSION;
+    }
+
+    public String getSegmentPath() {
+        return basePath + SEGMENT_EXTENSION;
+    }
+
+    // H2 adds its own file extension to the base path
+    public String getDatabaseUrl() {
+        return "jdbc:h2:file:" + Path.of(basePath).toAbsolutePath();
+    }
+
+    public StorageCodec getCodec() {
+        return codec;
+    }
+
+    public PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    public long getGroupCommitWindowMillis() {
+        return groupCommitWindowMillis;
+    }
+}
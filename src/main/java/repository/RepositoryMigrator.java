@@ -0,0 +1,102 @@
+package repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import domain.model.Conference;
+import domain.model.Session;
+import domain.model.feedback.Feedback;
+import domain.model.user.User;
+import util.LoggerUtil;
+import util.file.JournalFileHandler;
+import util.file.JsonFileHandler;
+import util.file.StorageCodec;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+// one-shot conversion of repository files between storage codecs; run it while the application is stopped
+public class RepositoryMigrator {
+
+    // private no-arg constructor to suppress instantiability
+    private RepositoryMigrator() {}
+
+    // usage: RepositoryMigrator <from codec> <to codec> [repository...], e.g. "JSON SMILE USERS"
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: RepositoryMigrator <JSON|SMILE|CBOR> <JSON|SMILE|CBOR> [CONFERENCES|SESSIONS|USERS|FEEDBACK...]");
+            System.exit(1);
+        }
+
+        StorageCodec from = StorageCodec.valueOf(args[0].toUpperCase());
+        StorageCodec to = StorageCodec.valueOf(args[1].toUpperCase());
+
+        boolean isMigrated = true;
+        if (args.length == 2) {
+            for (RepositoryConfig config : RepositoryConfig.values()) {
+                isMigrated &= migrate(config, from, to);
+            }
+        } else {
+            for (int i = 2; i < args.length; i++) {
+                isMigrated &= migrate(RepositoryConfig.valueOf(args[i].toUpperCase()), from, to);
+            }
+        }
+        System.exit(isMigrated ? 0 : 1);
+    }
+
+    // folds the journal into the snapshot and rewrites it with the target codec; the source snapshot is kept, with the
+    // journal folded in. once this succeeds, switch the repository's codec in RepositoryConfig
+    public static boolean migrate(RepositoryConfig config, StorageCodec from, StorageCodec to) {
+        return switch (config) {
+            case CONFERENCES -> migrate(config, from, to, new TypeReference<Map<String, Conference>>() {});
+            case SESSIONS -> migrate(config, from, to, new TypeReference<Map<String, Session>>() {});
+            case USERS -> migrate(config, from, to, new TypeReference<Map<String, User>>() {});
+            case FEEDBACK -> migrate(config, from, to, new TypeReference<Map<String, Feedback>>() {});
+        };
+    }
+
+    private static <T> boolean migrate(RepositoryConfig config, StorageCodec from, StorageCodec to, TypeReference<Map<String, T>> typeReference) {
+        String sourcePath = config.getFilePath(from);
+        String targetPath = config.getFilePath(to);
+        String journalPath = config.getJournalPath();
+
+        // a repository that was never checkpointed only has a journal, but a snapshot that does not load, say because
+        // of the wrong codec, or nothing at all to read must not end up as an empty target snapshot
+        boolean hasSnapshot = isNonEmpty(sourcePath) || isNonEmpty(sourcePath + JsonFileHandler.PREVIOUS_SUFFIX);
+        Map<String, T> data = new HashMap<>();
+        if (hasSnapshot && !JsonFileHandler.loadInto(sourcePath, from, typeReference, data)) {
+            LoggerUtil.getInstance().logError(String.format("Failed to load '%s' as %s, nothing was migrated.", sourcePath, from));
+            return false;
+        }
+        int replayed = JournalFileHandler.replay(journalPath, from, typeReference, data::put,
+                (id, changes) -> EntityPatcher.apply(id, data.get(id), changes, from.getObjectMapper()), data::remove);
+        if (!hasSnapshot && replayed == 0) {
+            LoggerUtil.getInstance().logError(String.format("Found neither '%s' nor a journal to migrate.", sourcePath));
+            return false;
+        }
+
+        if (!JsonFileHandler.saveSnapshot(data, targetPath, to, typeReference)) {
+            LoggerUtil.getInstance().logError(String.format("Failed to migrate '%s' to '%s'.", sourcePath, targetPath));
+            return false;
+        }
+
+        // the journal was written with the source codec; it is folded into the source snapshot as well before it is
+        // truncated, so that going back to the source codec does not lose the changes it held
+        if (replayed > 0) {
+            if (!JsonFileHandler.saveSnapshot(data, sourcePath, from, typeReference)) {
+                LoggerUtil.getInstance().logError(String.format("Failed to fold the journal into '%s', leaving '%s' in place.", sourcePath, journalPath));
+                return false;
+            }
+            if (!JournalFileHandler.truncate(journalPath)) {
+                return false;
+            }
+        }
+
+        LoggerUtil.getInstance().logInfo(String.format("Migrated %d entities from '%s' to '%s'.", data.size(), sourcePath, targetPath));
+        return true;
+    }
+
+    private static boolean isNonEmpty(String filePath) {
+        File file = new File(filePath);
+        return file.exists() && file.length() > 0;
+    }
+}
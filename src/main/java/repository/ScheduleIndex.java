@@ -0,0 +1,51 @@
+package repository;
+
+import domain.model.Session;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// keeps every conference's SessionTimeline in step with the sessions stored for it
+class ScheduleIndex extends EntityIndex<Session> {
+
+    private final Map<String, SessionTimeline> timelines = new HashMap<>();            // K: conference id
+    private final Map<String, SessionTimeline.Slot> slotsById = new HashMap<>();      // the slot each id was indexed with, since sessions are mutated in place
+
+    ScheduleIndex(String name) {
+        super(name);
+    }
+
+    // a conference without sessions gets an empty timeline that is not kept
+    synchronized SessionTimeline timelineOf(String conferenceId) {
+        SessionTimeline timeline = timelines.get(conferenceId);
+        return timeline != null ? timeline : new SessionTimeline();
+    }
+
+    @Override
+    synchronized Object keyOf(String id) {
+        return slotsById.get(id);
+    }
+
+    @Override
+    synchronized boolean put(String id, Session session) {
+        restore(id, SessionTimeline.Slot.of(session));
+        return true;
+    }
+
+    @Override
+    synchronized void restore(String id, Object key) {
+        SessionTimeline.Slot slot = (SessionTimeline.Slot) key;
+        SessionTimeline.Slot previousSlot = slot == null ? slotsById.remove(id) : slotsById.put(id, slot);
+        if (Objects.equals(previousSlot, slot)) return;
+
+        if (previousSlot != null) {
+            SessionTimeline timeline = timelines.get(previousSlot.getConferenceId());
+            timeline.remove(id);
+            if (timeline.isEmpty()) timelines.remove(previousSlot.getConferenceId());
+        }
+        if (slot != null) {
+            timelines.computeIfAbsent(slot.getConferenceId(), conferenceId -> new SessionTimeline()).add(id, slot);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package repository;
+
+import java.util.*;
+import java.util.function.Function;
+
+// in-memory index of entity ids by a key extracted from the entity, maintained by BaseRepository on every write
+public class SecondaryIndex<T> extends EntityIndex<T> {
+
+    private final Function<T, ?> keyExtractor;
+    private final boolean unique;
+    private final Map<Object, Set<String>> idsByKey = new HashMap<>();
+    private final Map<String, Object> keysById = new HashMap<>();          // the key each id is indexed under, since entities are mutated in place
+
+    private SecondaryIndex(String name, Function<T, ?> keyExtractor, boolean unique) {
+        super(name);
+        this.keyExtractor = keyExtractor;
+        this.unique = unique;
+    }
+
+    public static <T> SecondaryIndex<T> unique(String name, Function<T, ?> keyExtractor) {
+        return new SecondaryIndex<>(name, keyExtractor, true);
+    }
+
+    public static <T> SecondaryIndex<T> nonUnique(String name, Function<T, ?> keyExtractor) {
+        return new SecondaryIndex<>(name, keyExtractor, false);
+    }
+
+    public Function<T, ?> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    synchronized Set<String> find(Object key) {
+        Set<String> ids = idsByKey.get(key);
+        return ids == null ? Set.of() : new HashSet<>(ids);
+    }
+
+    @Override
+    synchronized Object keyOf(String id) {
+        return keysById.get(id);
+    }
+
+    // a unique index refuses a key that belongs to another id
+    @Override
+    synchronized boolean put(String id, T entity) {
+        Object key = keyExtractor.apply(entity);
+        if (unique && key != null) {
+            Set<String> holders = idsByKey.get(key);
+            if (holders != null && !holders.contains(id)) return false;
+        }
+        restore(id, key);
+        return true;
+    }
+
+    @Override
+    synchronized void restore(String id, Object key) {
+        Object previousKey = key == null ? keysById.remove(id) : keysById.put(id, key);
+        if (Objects.equals(previousKey, key)) return;
+
+        if (previousKey != null) {
+            Set<String> ids = idsByKey.get(previousKey);
+            ids.remove(id);
+            if (ids.isEmpty()) idsByKey.remove(previousKey);
+        }
+        if (key != null) {
+            idsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import domain.model.Session;
 import util.LoggerUtil;
 import util.file.JsonFileHandler;
 
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -12,7 +13,7 @@ public class SessionRepository extends BaseRepository<Session> {
     private static SessionRepository instance;
 
     private SessionRepository() {
-        super("src/main/resources/data/sessions.json");
+        super(RepositoryConfig.SESSIONS);
     }
 
     public static synchronized SessionRepository getInstance() {
@@ -22,6 +23,37 @@ public class SessionRepository extends BaseRepository<Session> {
         return instance;
     }
 
+    public List<Session> findAllByConferenceId(String conferenceId) {
+        return findByIndex("conferenceId", conferenceId);
+    }
+
+    public List<Session> findAllBySpeakerId(String speakerId) {
+        return findByIndex("speakerId", speakerId);
+    }
+
+    public List<Session> findAllByDate(LocalDate date) {
+        return findByIndex("date", date);
+    }
+
+    // the live timeline of a conference's sessions, used to check a session for conflicts
+    public SessionTimeline findTimeline(String conferenceId) {
+        return ((ScheduleIndex) getIndex("schedule")).timelineOf(conferenceId);
+    }
+
+    @Override
+    protected List<SecondaryIndex<Session>> getIndexes() {
+        return List.of(
+                SecondaryIndex.nonUnique("conferenceId", Session::getConferenceId),
+                SecondaryIndex.nonUnique("speakerId", Session::getSpeakerId),
+                SecondaryIndex.nonUnique("date", Session::getDate)
+        );
+    }
+
+    @Override
+    protected List<EntityIndex<Session>> getInMemoryIndexes() {
+        return List.of(new ScheduleIndex("schedule"));
+    }
+
     @Override
     protected TypeReference<Map<String, Session>> getTypeReference() {
         return new TypeReference<Map<String, Session>>() {};
@@ -0,0 +1,146 @@
+package repository;
+
+import domain.model.Session;
+import util.IntervalTree;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// one conference's sessions laid out in time: interval trees over all of them, per room and per speaker, plus their
+// names, so a conflict check is a tree lookup instead of a walk over the whole programme
+public class SessionTimeline {
+
+    private final Map<String, Slot> slots = new HashMap<>();                                     // K: session id
+    private final Map<String, Set<String>> idsByName = new HashMap<>();
+    private final IntervalTree<LocalDateTime> sessions = new IntervalTree<>();
+    private final Map<String, IntervalTree<LocalDateTime>> sessionsByRoom = new HashMap<>();         // K: normalized room name
+    private final Map<String, IntervalTree<LocalDateTime>> sessionsBySpeaker = new HashMap<>();
+
+    public synchronized void add(Session session) {
+        Slot slot = Slot.of(session);
+        if (slot != null) add(session.getId(), slot);
+    }
+
+    public synchronized void remove(String id) {
+        Slot slot = slots.remove(id);
+        if (slot == null) return;
+
+        removeFrom(idsByName, slot.name, id);
+        sessions.remove(id, slot.start);
+        if (slot.room != null) removeFrom(sessionsByRoom, roomKey(slot.room), id, slot.start);
+        removeFrom(sessionsBySpeaker, slot.speakerId, id, slot.start);
+    }
+
+    // a private copy to plan further sessions against without touching the repository's timeline
+    public synchronized SessionTimeline copy() {
+        SessionTimeline copy = new SessionTimeline();
+        slots.forEach(copy::add);
+        return copy;
+    }
+
+    // the excluded id is the session being changed, which never conflicts with itself
+    public synchronized boolean isNameTaken(String name, String excludedId) {
+        return idsByName.getOrDefault(name, Set.of())
+                .stream()
+                .anyMatch(id -> !id.equals(excludedId));
+    }
+
+    // anything on anywhere in the conference, whatever the room
+    public synchronized boolean isTimeTaken(LocalDateTime start, LocalDateTime end, String excludedId) {
+        return sessions.anyOverlap(start, end, id -> !id.equals(excludedId));
+    }
+
+    // ids of the sessions running at some point between start and end, across all rooms
+    public synchronized List<String> findSessionsDuring(LocalDateTime start, LocalDateTime end) {
+        return sessions.findOverlapping(start, end);
+    }
+
+    // sessions in different rooms may run in parallel; rooms are told apart ignoring case and surrounding spaces
+    public synchronized boolean isRoomTaken(String room, LocalDateTime start, LocalDateTime end, String excludedId) {
+        return room != null && overlaps(sessionsByRoom.get(roomKey(room)), start, end, excludedId);
+    }
+
+    public synchronized boolean isSpeakerBusy(String speakerId, LocalDateTime start, LocalDateTime end, String excludedId) {
+        return overlaps(sessionsBySpeaker.get(speakerId), start, end, excludedId);
+    }
+
+    synchronized boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    synchronized void add(String id, Slot slot) {
+        remove(id);
+        slots.put(id, slot);
+        idsByName.computeIfAbsent(slot.name, key -> new HashSet<>()).add(id);
+        sessions.insert(id, slot.start, slot.end);
+        if (slot.room != null) sessionsByRoom.computeIfAbsent(roomKey(slot.room), key -> new IntervalTree<>()).insert(id, slot.start, slot.end);
+        if (slot.speakerId != null) sessionsBySpeaker.computeIfAbsent(slot.speakerId, key -> new IntervalTree<>()).insert(id, slot.start, slot.end);
+    }
+
+    private static String roomKey(String room) {
+        return room.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean overlaps(IntervalTree<LocalDateTime> tree, LocalDateTime start, LocalDateTime end, String excludedId) {
+        return tree != null && tree.anyOverlap(start, end, id -> !id.equals(excludedId));
+    }
+
+    private static void removeFrom(Map<String, Set<String>> idsByKey, String key, String id) {
+        Set<String> ids = idsByKey.get(key);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.isEmpty()) idsByKey.remove(key);
+    }
+
+    private static void removeFrom(Map<String, IntervalTree<LocalDateTime>> trees, String key, String id, LocalDateTime start) {
+        IntervalTree<LocalDateTime> tree = trees.get(key);
+        if (tree == null) return;
+        tree.remove(id, start);
+        if (tree.isEmpty()) trees.remove(key);
+    }
+
+    // where and when a session takes place, as it was when it was indexed
+    static class Slot {
+        private final String conferenceId;
+        private final String name;
+        private final String room;
+        private final String speakerId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Slot(String conferenceId, String name, String room, String speakerId, LocalDateTime start, LocalDateTime end) {
+            this.conferenceId = conferenceId;
+            this.name = name;
+            this.room = room;
+            this.speakerId = speakerId;
+            this.start = start;
+            this.end = end;
+        }
+
+        // null for sessions that cannot be placed in time
+        static Slot of(Session session) {
+            if (session.getConferenceId() == null || session.getDate() == null || session.getStartTime() == null || session.getEndTime() == null) {
+                return null;
+            }
+            return new Slot(session.getConferenceId(), session.getName(), session.getRoom(), session.getSpeakerId(),
+                    LocalDateTime.of(session.getDate(), session.getStartTime()), LocalDateTime.of(session.getDate(), session.getEndTime()));
+        }
+
+        String getConferenceId() {
+            return conferenceId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof Slot slot)) return false;
+            return Objects.equals(conferenceId, slot.conferenceId) && Objects.equals(name, slot.name) && Objects.equals(room, slot.room)
+                    && Objects.equals(speakerId, slot.speakerId) && start.equals(slot.start) && end.equals(slot.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(conferenceId, name, room, speakerId, start, end);
+        }
+    }
+}
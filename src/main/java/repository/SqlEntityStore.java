@@ -0,0 +1,196 @@
+package repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import util.LoggerUtil;
+import util.file.JournalFileHandler;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+
+// one row per entity in an embedded H2 database; every secondary index gets its own indexed column next to the encoded entity
+class SqlEntityStore<T> implements EntityStore<T> {
+
+    private static final String SCHEMA = "PUBLIC";
+
+    private final RepositoryConfig config;
+    private final String table;
+    private final TypeReference<Map<String, T>> typeReference;
+    private final Collection<SecondaryIndex<T>> indexes;
+    private final Map<String, String> columns = new LinkedHashMap<>();      // index name -> column name
+    private final ObjectReader entityReader;
+    private final ObjectWriter entityWriter;
+    private Connection connection;
+
+    SqlEntityStore(RepositoryConfig config, TypeReference<Map<String, T>> typeReference, Collection<SecondaryIndex<T>> indexes) {
+        this.config = config;
+        this.table = config.name();
+        this.typeReference = typeReference;
+        this.indexes = indexes;
+        indexes.forEach(index -> columns.put(index.getName(), toColumnName(index.getName())));
+
+        ObjectMapper codecMapper = config.getCodec().getObjectMapper();
+        JavaType entityType = codecMapper.getTypeFactory().constructType(typeReference).getContentType();
+        this.entityReader = codecMapper.readerFor(entityType);
+        this.entityWriter = codecMapper.writerFor(entityType);
+    }
+
+    @Override
+    public synchronized void loadInto(Map<String, T> target) {
+        boolean isNewTable;
+        boolean isSchemaChanged;
+        try {
+            connection = DriverManager.getConnection(config.getDatabaseUrl());
+            connection.setAutoCommit(false);
+            isNewTable = !tableExists();
+            isSchemaChanged = createSchema();
+        } catch (SQLException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to open database for '%s': %s", table, e.getMessage()));
+            connection = null;
+            return;
+        }
+
+        if (isNewTable) {
+            seedFromSnapshot(target);
+            return;
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT ID, ENTITY FROM " + table)) {
+            while (rows.next()) {
+                String id = rows.getString(1);
+                try {
+                    target.put(id, entityReader.readValue(rows.getBytes(2)));
+                } catch (IOException e) {
+                    LoggerUtil.getInstance().logError(String.format("Failed to read entity with id '%s' from table '%s': %s", id, table, e.getMessage()));
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to load table '%s': %s", table, e.getMessage()));
+            return;
+        }
+
+        // columns added for newly indexed fields are filled in by rewriting every row once
+        if (isSchemaChanged && !target.isEmpty()) {
+            commit(EntityStore.toPuts(target));
+        }
+    }
+
+    // all writes of a group commit go into one transaction, as row-level upserts and deletes
+    @Override
+    public synchronized boolean commit(List<JournalFileHandler.Entry<T>> entries) {
+        if (connection == null) {
+            LoggerUtil.getInstance().logError("Database for '" + table + "' is not open.");
+            return false;
+        }
+
+        try (PreparedStatement upsert = connection.prepareStatement(upsertStatement());
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE ID = ?")) {
+            for (JournalFileHandler.Entry<T> entry : entries) {
+                // a row is rewritten whole, so a patch is stored like a put
+                if (entry.getOperation() == JournalFileHandler.Operation.DELETE) {
+                    delete.setString(1, entry.getId());
+                    delete.addBatch();
+                } else {
+                    bindRow(upsert, entry.getId(), entry.getEntity());
+                    upsert.addBatch();
+                }
+            }
+            upsert.executeBatch();
+            delete.executeBatch();
+            connection.commit();
+            return true;
+        } catch (SQLException | IOException | RuntimeException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to write %d rows to table '%s': %s", entries.size(), table, e.getMessage()));
+            rollback();
+            return false;
+        }
+    }
+
+    private boolean tableExists() throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(null, SCHEMA, table, null)) {
+            return tables.next();
+        }
+    }
+
+    // creates the table and its indexes and adds columns for indexes declared later; returns whether anything was added
+    private boolean createSchema() throws SQLException {
+        Set<String> existingColumns = new HashSet<>();
+        try (ResultSet rows = connection.getMetaData().getColumns(null, SCHEMA, table, null)) {
+            while (rows.next()) {
+                existingColumns.add(rows.getString("COLUMN_NAME"));
+            }
+        }
+
+        boolean isChanged = false;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " (ID VARCHAR(255) PRIMARY KEY, ENTITY VARBINARY NOT NULL)");
+            for (String column : columns.values()) {
+                if (!existingColumns.isEmpty() && !existingColumns.contains(column)) isChanged = true;
+                statement.execute(String.format("ALTER TABLE %s ADD COLUMN IF NOT EXISTS %s VARCHAR(255)", table, column));
+                statement.execute(String.format("CREATE INDEX IF NOT EXISTS IDX_%s_%s ON %s (%s)", table, column, table, column));
+            }
+        }
+        connection.commit();
+        return isChanged;
+    }
+
+    private String upsertStatement() {
+        StringJoiner names = new StringJoiner(", ", "(", ")").add("ID").add("ENTITY");
+        StringJoiner values = new StringJoiner(", ", "(", ")").add("?").add("?");
+        for (String column : columns.values()) {
+            names.add(column);
+            values.add("?");
+        }
+        return "MERGE INTO " + table + " " + names + " KEY (ID) VALUES " + values;
+    }
+
+    private void bindRow(PreparedStatement upsert, String id, T entity) throws SQLException, IOException {
+        upsert.setString(1, id);
+        upsert.setBytes(2, entityWriter.writeValueAsBytes(entity));
+        int parameter = 3;
+        for (SecondaryIndex<T> index : indexes) {
+            Object value = index.getKeyExtractor().apply(entity);
+            upsert.setString(parameter++, value == null ? null : String.valueOf(value));
+        }
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to roll back transaction on table '%s': %s", table, e.getMessage()));
+        }
+    }
+
+    // a repository switched to this mode starts from its existing snapshot and journal
+    private void seedFromSnapshot(Map<String, T> target) {
+        Map<String, T> existing = FileEntityStore.loadExisting(config, typeReference);
+        if (existing.isEmpty()) return;
+
+        target.putAll(existing);
+        if (commit(EntityStore.toPuts(existing))) {
+            LoggerUtil.getInstance().logInfo(String.format("Seeded table '%s' with %d entities.", table, existing.size()));
+            return;
+        }
+
+        // without the table the next start seeds again from the untouched snapshot
+        LoggerUtil.getInstance().logError("Failed to seed table '" + table + "'; it will be seeded again on the next start.");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + table);
+            connection.commit();
+        } catch (SQLException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to drop partially seeded table '%s': %s", table, e.getMessage()));
+        }
+    }
+
+    // e.g. conferenceId -> CONFERENCE_ID
+    private static String toColumnName(String field) {
+        return field.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+}
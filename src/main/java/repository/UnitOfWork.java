@@ -0,0 +1,195 @@
+package repository;
+
+import util.LoggerUtil;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// buffers every repository change made by the current thread and applies them together only once the work has completed;
+// if the work throws, the buffered changes are simply dropped and nothing has to be undone. on commit every change is
+// checked and applied in memory before any is written, and if any write then fails every other one is undone, in
+// storage as well as in memory
+public class UnitOfWork {
+
+    private static final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+    // units commit one at a time, so one can hold the locks of all its ids without ever waiting on another unit's
+    private static final Lock commitLock = new ReentrantLock();
+
+    // K: repository, V: pending change per id in the order it was first made
+    private final Map<BaseRepository<?>, Map<String, Change>> changes = new LinkedHashMap<>();
+    // private copies of the entities read by id, so in-place mutations never reach the shared cache before commit
+    private final Map<BaseRepository<?>, Map<String, Object>> workingCopies = new HashMap<>();
+    // K: working copy, V: committed entity it was made from
+    private final Map<Object, Object> copiedFrom = new IdentityHashMap<>();
+    // K: repository, V: stamp of each id when the unit first read it, a change is refused if the id changed since
+    private final Map<BaseRepository<?>, Map<String, Long>> readStamps = new HashMap<>();
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    private UnitOfWork() {}
+
+    // runs the work and commits its changes; returns whether all of them were committed.
+    // exceptions thrown by the work propagate after its changes have been discarded.
+    // a nested unit joins the outermost one, whose commit has not happened yet when the nested call returns; it
+    // returns true as its changes were accepted, and anything that must only happen once they are committed, like
+    // notifying users, is registered with afterCommit
+    public static boolean run(Runnable work) {
+        if (work == null) {
+            throw new IllegalArgumentException("Work cannot be null.");
+        }
+
+        if (current.get() != null) {
+            work.run();
+            return true;
+        }
+
+        UnitOfWork unit = new UnitOfWork();
+        current.set(unit);
+        try {
+            work.run();
+        } finally {
+            current.remove();
+        }
+
+        boolean isCommitted = unit.commit();
+        if (isCommitted) {
+            unit.afterCommit.forEach(UnitOfWork::runAfterCommit);
+        }
+        return isCommitted;
+    }
+
+    // runs the action once the outermost unit has committed, or straight away outside of a unit;
+    // it is dropped if the unit fails
+    public static void afterCommit(Runnable action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null.");
+        }
+
+        UnitOfWork unit = current.get();
+        if (unit == null) {
+            action.run();
+        } else {
+            unit.afterCommit.add(action);
+        }
+    }
+
+    static UnitOfWork current() {
+        return current.get();
+    }
+
+    void put(BaseRepository<?> repository, String id, Object entity) {
+        changesOf(repository).put(id, new Change(entity));
+    }
+
+    void delete(BaseRepository<?> repository, String id) {
+        changesOf(repository).put(id, new Change(null));
+        Map<String, Object> copies = workingCopies.get(repository);
+        if (copies != null) copies.remove(id);
+    }
+
+    // reads see the unit's own changes first, then a private copy of the committed entity
+    @SuppressWarnings("unchecked")
+    <T> Optional<T> read(BaseRepository<T> repository, String id) {
+        Change change = changes.getOrDefault(repository, Map.of()).get(id);
+        if (change != null) {
+            return Optional.ofNullable((T) change.entity);
+        }
+
+        Map<String, Object> copies = workingCopies.computeIfAbsent(repository, key -> new HashMap<>());
+        T copy = (T) copies.get(id);
+        if (copy == null) {
+            // taken before the entity, so a write in between makes the stamp look stale rather than current
+            readStamps.computeIfAbsent(repository, key -> new HashMap<>()).putIfAbsent(id, repository.stampOf(id));
+            T committed = repository.findCommitted(id).orElse(null);
+            if (committed == null) return Optional.empty();
+            copy = repository.copyOf(committed);
+            copies.put(id, copy);
+            copiedFrom.put(copy, committed);
+        }
+        return Optional.of(copy);
+    }
+
+    private Map<String, Change> changesOf(BaseRepository<?> repository) {
+        return changes.computeIfAbsent(repository, key -> new LinkedHashMap<>());
+    }
+
+    private boolean commit() {
+        List<BaseRepository<?>.PendingWrite> pendingWrites = new ArrayList<>();
+        List<Lock> heldLocks = new ArrayList<>();
+
+        commitLock.lock();
+        try {
+            // every change is checked and applied in memory before any of them is submitted
+            for (Map.Entry<BaseRepository<?>, Map<String, Change>> repositoryChanges : changes.entrySet()) {
+                BaseRepository<?> repository = repositoryChanges.getKey();
+                Map<String, Long> stamps = readStamps.getOrDefault(repository, Map.of());
+                for (Map.Entry<String, Change> change : repositoryChanges.getValue().entrySet()) {
+                    String id = change.getKey();
+                    Lock lock = repository.lockFor(id);
+                    lock.lock();
+                    heldLocks.add(lock);
+
+                    Object entity = change.getValue().entity;
+                    BaseRepository<?>.PendingWrite pendingWrite = repository.prepare(id, entity, copiedFrom.get(entity), stamps.getOrDefault(id, -1L));
+                    if (pendingWrite == null) {
+                        // refused in memory, e.g. by a unique index or a conflicting write
+                        for (int i = pendingWrites.size() - 1; i >= 0; i--) {
+                            pendingWrites.get(i).undo();
+                        }
+                        LoggerUtil.getInstance().logError("Unit of work was refused; none of its changes were applied.");
+                        return false;
+                    }
+                    pendingWrites.add(pendingWrite);
+                }
+            }
+
+            // submitted while the ids are still locked, so no other write to them can come in between
+            pendingWrites.forEach(BaseRepository.PendingWrite::submit);
+        } finally {
+            for (int i = heldLocks.size() - 1; i >= 0; i--) {
+                heldLocks.get(i).unlock();
+            }
+            commitLock.unlock();
+        }
+
+        // one durable commit per repository
+        changes.keySet().forEach(BaseRepository::flush);
+        boolean isCommitted = true;
+        for (BaseRepository<?>.PendingWrite pendingWrite : pendingWrites) {
+            isCommitted &= pendingWrite.getCommitted().join();
+        }
+        if (isCommitted) {
+            return true;
+        }
+
+        // undo in reverse order, writing back what was there before for every write that did reach storage
+        List<CompletableFuture<Boolean>> restores = new ArrayList<>();
+        for (int i = pendingWrites.size() - 1; i >= 0; i--) {
+            restores.add(pendingWrites.get(i).undo());
+        }
+        changes.keySet().forEach(BaseRepository::flush);
+        if (restores.stream().allMatch(CompletableFuture::join)) {
+            LoggerUtil.getInstance().logError("Unit of work could not be committed; all of its changes were rolled back.");
+        } else {
+            LoggerUtil.getInstance().logError("Unit of work could not be committed and some of its changes could not be rolled back in storage.");
+        }
+        return false;
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LoggerUtil.getInstance().logError("Action after commit failed: " + e.getMessage());
+        }
+    }
+
+    private static class Change {
+        private final Object entity;            // null for a delete
+
+        private Change(Object entity) {
+            this.entity = entity;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package repository;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import domain.model.user.User;
+import domain.model.user.UserRole;
 
 import java.util.*;
 
@@ -9,7 +10,7 @@ public class UserRepository extends BaseRepository<User> {
     private static UserRepository instance;
 
     private UserRepository() {
-        super("src/main/resources/data/users.json");
+        super(RepositoryConfig.USERS);
     }
 
     public static synchronized UserRepository getInstance() {
@@ -20,12 +21,23 @@ public class UserRepository extends BaseRepository<User> {
     }
 
     public Optional<User> findByEmail(String email) {
-        return cache.values()
+        return findByIndex("email", email)
                 .stream()
-                .filter(user -> user.getEmail().equals(email))
                 .findFirst();
     }
 
+    public List<User> findAllByRole(UserRole role) {
+        return findByIndex("role", role);
+    }
+
+    @Override
+    protected List<SecondaryIndex<User>> getIndexes() {
+        return List.of(
+                SecondaryIndex.unique("email", User::getEmail),
+                SecondaryIndex.nonUnique("role", User::getRole)
+        );
+    }
+
     @Override
     protected TypeReference<Map<String, User>> getTypeReference() {
         return new TypeReference<Map<String, User>>(){};
@@ -5,6 +5,7 @@ import domain.model.feedback.*;
 import dto.FeedbackDTO;
 import exception.FeedbackException;
 import repository.FeedbackRepository;
+import repository.UnitOfWork;
 import util.CollectionUtils;
 import util.LoggerUtil;
 
@@ -35,19 +36,22 @@ public class FeedbackService {
 
         Feedback feedback = FeedbackFactory.create(feedbackDTO);
         try {
-            // save references to feedback in relevant domains
-            switch (feedback.getType()) {
-                case CONFERENCE -> serviceMediator.addFeedbackToConference(feedback.getId(), feedbackDTO.getConferenceId());
-                case SESSION -> serviceMediator.addFeedbackToSession(feedback.getId(), feedbackDTO.getSessionId());
-                case SPEAKER -> serviceMediator.addFeedbackToSpeaker(feedback.getId(), feedbackDTO.getSpeakerId());
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // save references to feedback in relevant domains
+                switch (feedback.getType()) {
+                    case CONFERENCE -> serviceMediator.addFeedbackToConference(feedback.getId(), feedbackDTO.getConferenceId());
+                    case SESSION -> serviceMediator.addFeedbackToSession(feedback.getId(), feedbackDTO.getSessionId());
+                    case SPEAKER -> serviceMediator.addFeedbackToSpeaker(feedback.getId(), feedbackDTO.getSpeakerId());
+                }
+
+                feedbackRepository.save(feedback, feedback.getId());
+            });
+            if (!isCommitted) {
+                throw new FeedbackException("Changes could not be saved.");
             }
-
-            feedbackRepository.save(feedback, feedback.getId());
         } catch (Exception e) {
+            // nothing was written unless the references and the feedback could all be committed together
             LoggerUtil.getInstance().logError(String.format("Failed to submit feedback '%s': %s %s", feedback.getId(), e.getMessage(), e));
-
-            // implement rollback
-
             throw new FeedbackException("An unexpected error occurred when submitting feedback. Please try again later.");
         }
     }
@@ -75,9 +79,9 @@ public class FeedbackService {
             throw new IllegalArgumentException("Invalid speaker id");
         }
 
-        return feedbackRepository.findAllSpeakerFeedback()
+        return feedbackRepository.findAllByTargetId(speakerId)
                 .stream()
-                .filter(speakerFeedback -> speakerFeedback.getSpeakerId().equals(speakerId))
+                .filter(feedback -> feedback.getType() == FeedbackType.SPEAKER)
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
@@ -90,7 +94,10 @@ public class FeedbackService {
     }
 
     public void deleteAllById(Set<String> ids) {
-        ids.forEach(this::deleteById);
+        boolean isDeleted = feedbackRepository.deleteAllById(ids);
+        if (!isDeleted) {
+            throw new FeedbackException(String.format("Failed to delete %d feedback entries.", ids.size()));
+        }
     }
 
     private boolean hasAlreadySubmitted(FeedbackDTO feedbackDTO) {
@@ -110,11 +117,9 @@ public class FeedbackService {
             throw new IllegalArgumentException("Invalid attendee id and/or conference id.");
         }
 
-        return feedbackRepository.findAllConferenceFeedback()
+        return feedbackRepository.findAllByTargetId(conferenceId)
                 .stream()
-                .anyMatch(conferenceFeedback ->
-                        conferenceFeedback.getAttendeeId().equals(attendeeId) && conferenceFeedback.getConferenceId().equals(conferenceId)
-                );
+                .anyMatch(feedback -> feedback.getType() == FeedbackType.CONFERENCE && feedback.getAttendeeId().equals(attendeeId));
     }
 
     private boolean hasAlreadySubmittedForSession(String attendeeId, String sessionId) {
@@ -122,11 +127,9 @@ public class FeedbackService {
             throw new IllegalArgumentException("Invalid attendee id and/or session id.");
         }
 
-        return feedbackRepository.findAllSessionFeedback()
+        return feedbackRepository.findAllByTargetId(sessionId)
                 .stream()
-                .anyMatch(sessionFeedback ->
-                        sessionFeedback.getAttendeeId().equals(attendeeId) && sessionFeedback.getSessionId().equals(sessionId)
-                );
+                .anyMatch(feedback -> feedback.getType() == FeedbackType.SESSION && feedback.getAttendeeId().equals(attendeeId));
     }
 
     private boolean hasAlreadySubmittedForSpeaker(String attendeeId, String speakerId) {
@@ -134,11 +137,9 @@ public class FeedbackService {
             throw new IllegalArgumentException("Invalid attendee id and/or speaker id.");
         }
 
-        return feedbackRepository.findAllSpeakerFeedback()
+        return feedbackRepository.findAllByTargetId(speakerId)
                 .stream()
-                .anyMatch(speakerFeedback ->
-                        speakerFeedback.getAttendeeId().equals(attendeeId) && speakerFeedback.getSpeakerId().equals(speakerId)
-                );
+                .anyMatch(feedback -> feedback.getType() == FeedbackType.SPEAKER && feedback.getAttendeeId().equals(attendeeId));
     }
 
     private FeedbackDTO mapToDTO(Feedback feedback) {
@@ -0,0 +1,9 @@
+package service;
+
+// outcome of registering a single attendee in a bulk registration
+public enum RegistrationResult {
+    REGISTERED,             // registered by this request
+    ALREADY_REGISTERED,     // registered before, nothing changed
+    NOT_AN_ATTENDEE,        // unknown user or not an attendee, rejected
+    SCHEDULE_CONFLICT       // already in another session at an overlapping time, rejected
+}
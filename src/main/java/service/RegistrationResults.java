@@ -0,0 +1,42 @@
+package service;
+
+import domain.model.user.UserRole;
+import dto.UserDTO;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+// shared validation for the bulk registration of attendees to conferences and sessions
+public class RegistrationResults {
+
+    // private no-arg constructor to suppress instantiability
+    private RegistrationResults() {}
+
+    // attendee ids are expected to be unique and non-null
+    public static Map<String, RegistrationResult> classify(Set<String> attendeeIds, Set<String> alreadyRegistered, List<UserDTO> users) {
+        Set<String> attendees = users.stream()
+                .filter(user -> user.getRole() == UserRole.ATTENDEE)
+                .map(UserDTO::getId)
+                .collect(Collectors.toSet());
+
+        Map<String, RegistrationResult> results = new LinkedHashMap<>();
+        for (String attendeeId : attendeeIds) {
+            if (!attendees.contains(attendeeId)) {
+                results.put(attendeeId, RegistrationResult.NOT_AN_ATTENDEE);
+            } else if (alreadyRegistered.contains(attendeeId)) {
+                results.put(attendeeId, RegistrationResult.ALREADY_REGISTERED);
+            } else {
+                results.put(attendeeId, RegistrationResult.REGISTERED);
+            }
+        }
+        return results;
+    }
+
+    public static List<String> registered(Map<String, RegistrationResult> results) {
+        return results.entrySet()
+                .stream()
+                .filter(entry -> entry.getValue() == RegistrationResult.REGISTERED)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -1,12 +1,14 @@
 package service;
 
 import dto.ConferenceDTO;
+import dto.FeedbackDTO;
 import dto.SessionDTO;
 import dto.UserDTO;
 import service.conference.ConferenceService;
 import service.session.SessionService;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -38,8 +40,8 @@ public class ServiceMediator {
         return sessionService.findAllById(sessionIds);
     }
 
-    public void deleteAllSessionsById(Set<String> sessionIds) {
-        sessionService.deleteAllById(sessionIds);
+    public void deleteAllSessionsOfConference(Set<String> sessionIds) {
+        sessionService.deleteAllOfConference(sessionIds);
     }
 
 
@@ -52,6 +54,19 @@ public class ServiceMediator {
         userService.addConferenceToAttendee(attendeeId, conferenceId);
     }
 
+    public void addConferenceToAttendees(String conferenceId, Collection<String> attendeeIds) {
+        userService.addConferenceToAttendees(attendeeIds, conferenceId);
+    }
+
+    // returns the attendees left out because their schedule clashes with the session
+    public Set<String> addSessionToAttendees(SessionDTO sessionDTO, Collection<String> attendeeIds) {
+        return userService.addSessionToAttendees(attendeeIds, sessionDTO);
+    }
+
+    public void removeConferenceReferences(String conferenceId, Set<String> sessionIds, Set<String> feedbackIds, Collection<String> userIds) {
+        userService.removeConferenceReferences(userIds, conferenceId, sessionIds, feedbackIds);
+    }
+
     public void addSessionToAttendee(SessionDTO sessionDTO, String attendeeId) {
         userService.addSessionToAttendee(attendeeId, sessionDTO);
     }
@@ -115,6 +130,10 @@ public class ServiceMediator {
 
 
     // FEEDBACK RELATED METHODS - CRUD ORDERED
+    public List<FeedbackDTO> findFeedbackByIds(Set<String> feedbackIds) {
+        return feedbackService.findAllById(feedbackIds);
+    }
+
     public void deleteAllFeedbackById(Set<String> feedbackIds) {
         feedbackService.deleteAllById(feedbackIds);
     }
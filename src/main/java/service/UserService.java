@@ -72,6 +72,21 @@ public class UserService {
         LoggerUtil.getInstance().logInfo(String.format("Successfully added conference with id '%s' to attendee '%s' registered conferences.", conferenceId, attendee.getName()));
     }
 
+    // bulk variant: every attendee is validated before any of them is changed
+    public void addConferenceToAttendees(Collection<String> ids, String conferenceId) {
+        if (ids == null || conferenceId == null || conferenceId.isEmpty()) {
+            throw new IllegalArgumentException("Attendee ids and conference id cannot be null or empty.");
+        }
+
+        List<Attendee> attendees = findAllAttendees(ids);
+        attendees.forEach(attendee -> {
+            attendee.addRegisteredConference(conferenceId);
+            save(attendee, "An unexpected error occurred when registering attendees to conference. Please try again later.");
+        });
+
+        LoggerUtil.getInstance().logInfo(String.format("Successfully added conference with id '%s' to %d attendees' registered conferences.", conferenceId, attendees.size()));
+    }
+
     public void addSessionToAttendee(String id, SessionDTO sessionDTO) {
         if (id == null || id.isEmpty()) {
             throw new IllegalArgumentException("Invalid attendee id.");
@@ -87,7 +102,7 @@ public class UserService {
 
         // add session to attendee's personal schedule
         Attendee attendee = (Attendee) user;
-        attendee.addSession(sessionDTO.getId(), LocalDateTime.of(sessionDTO.getDate(), sessionDTO.getStartTime()));
+        attendee.addSession(sessionDTO.getId(), LocalDateTime.of(sessionDTO.getDate(), sessionDTO.getStartTime()), LocalDateTime.of(sessionDTO.getDate(), sessionDTO.getEndTime()));
 
         // save updated attendee data to storage
         save(attendee, "An unexpected error occurred when registering session to attendee's schedule. Please try again later.");
@@ -95,6 +110,30 @@ public class UserService {
         LoggerUtil.getInstance().logInfo(String.format("Successfully added session '%s' to attendee '%s' schedule.", sessionDTO.getName(), attendee.getName()));
     }
 
+    // bulk variant: attendees already in another session at an overlapping time are left out and returned, the others
+    // get the session
+    public Set<String> addSessionToAttendees(Collection<String> ids, SessionDTO sessionDTO) {
+        if (ids == null || sessionDTO == null) {
+            throw new IllegalArgumentException("Invalid attendee ids and/or session data.");
+        }
+
+        LocalDateTime sessionStartTime = LocalDateTime.of(sessionDTO.getDate(), sessionDTO.getStartTime());
+        LocalDateTime sessionEndTime = LocalDateTime.of(sessionDTO.getDate(), sessionDTO.getEndTime());
+        List<Attendee> attendees = findAllAttendees(ids);
+        Set<String> clashingIds = new LinkedHashSet<>();
+        attendees.forEach(attendee -> {
+            if (attendee.hasClash(sessionDTO.getId(), sessionStartTime, sessionEndTime)) {
+                clashingIds.add(attendee.getId());
+                return;
+            }
+            attendee.addSession(sessionDTO.getId(), sessionStartTime, sessionEndTime);
+            save(attendee, "An unexpected error occurred when registering session to attendees' schedules. Please try again later.");
+        });
+
+        LoggerUtil.getInstance().logInfo(String.format("Successfully added session '%s' to %d attendees' schedules.", sessionDTO.getName(), attendees.size() - clashingIds.size()));
+        return clashingIds;
+    }
+
     public void assignNewSessionForSpeaker(SessionDTO sessionDTO) {
         if (sessionDTO == null) {
             throw new IllegalArgumentException("SessionDTO cannot be null.");
@@ -189,17 +228,15 @@ public class UserService {
     }
 
     public List<UserDTO> findAllSpeakers() {
-        return userRepository.findAll()
+        return userRepository.findAllByRole(UserRole.SPEAKER)
                 .stream()
-                .filter(user -> user.getRole() == UserRole.SPEAKER)
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<UserDTO> findAllAttendees() {
-        return userRepository.findAll()
+        return userRepository.findAllByRole(UserRole.ATTENDEE)
                 .stream()
-                .filter(user -> user.getRole() == UserRole.ATTENDEE)
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
@@ -370,6 +407,46 @@ public class UserService {
         LoggerUtil.getInstance().logInfo(String.format("Successfully unassigned session with id '%s' from speaker '%s'.", sessionId, speaker.getName()));
     }
 
+    // strips every reference to a deleted conference, its sessions and their feedback from the given users, saving each user once
+    public void removeConferenceReferences(Collection<String> ids, String conferenceId, Set<String> sessionIds, Set<String> feedbackIds) {
+        if (ids == null || conferenceId == null || conferenceId.isEmpty() || sessionIds == null || feedbackIds == null) {
+            throw new IllegalArgumentException("User ids, conference id, session ids and feedback ids cannot be null or empty.");
+        }
+
+        for (String id : ids) {
+            // users deleted since they were referenced have nothing left to clean up
+            Optional<User> userOptional = userRepository.findById(id);
+            if (userOptional.isEmpty()) {
+                LoggerUtil.getInstance().logWarning(String.format("Skipping reference cleanup for user with id '%s' as it does not exist.", id));
+                continue;
+            }
+
+            User user = userOptional.get();
+            removeConferenceReferences(user, conferenceId, sessionIds, feedbackIds);
+            save(user, "An unexpected error occurred when removing conference references from users. Please try again later.");
+        }
+
+        LoggerUtil.getInstance().logInfo(String.format("Successfully removed references to conference with id '%s' from %d users.", conferenceId, ids.size()));
+    }
+
+    // drops the conference, its sessions and the feedback deleted with them from one user
+    static void removeConferenceReferences(User user, String conferenceId, Set<String> sessionIds, Set<String> feedbackIds) {
+        switch (user.getRole()) {
+            case ATTENDEE -> {
+                Attendee attendee = (Attendee) user;
+                attendee.removeRegisteredConference(conferenceId);
+                attendee.removeSessions(sessionIds);
+                attendee.removeSubmittedFeedback(feedbackIds);
+            }
+            case SPEAKER -> {
+                Speaker speaker = (Speaker) user;
+                speaker.unassignSessions(sessionIds);
+                speaker.removeFeedback(feedbackIds);
+            }
+            case ORGANIZER -> ((Organizer) user).removeConference(conferenceId);
+        }
+    }
+
 
 
     // helpers
@@ -389,6 +466,16 @@ public class UserService {
         return userOptional.get();
     }
 
+    private List<Attendee> findAllAttendees(Collection<String> ids) {
+        List<Attendee> attendees = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            User user = findById(id);
+            validateRole(user, UserRole.ATTENDEE);
+            attendees.add((Attendee) user);
+        }
+        return attendees;
+    }
+
     private void validateRole(User user, UserRole requiredRole) {
         if (user.getRole() != requiredRole) {
             throw new UserException(String.format("User with id '%s' does not have %s permissions.", user.getId(), requiredRole.getDisplayName()));
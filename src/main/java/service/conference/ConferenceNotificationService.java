@@ -3,13 +3,13 @@ package service.conference;
 
 import dto.ConferenceDTO;
 import dto.UserDTO;
-import exception.SessionException;
 import util.LoggerUtil;
 import util.email.EmailContentService;
 import util.email.EmailService;
+import util.email.EmailBatch;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 public class ConferenceNotificationService {
 
@@ -25,23 +25,11 @@ public class ConferenceNotificationService {
 
         final String subject = "New Conference";
         try {
-
-            // notify attendees
-            attendees.forEach(attendee ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(attendee.getEmail(), attendee.getName(), subject,
-                                    EmailContentService.getConferenceCreationBody(conferenceDTO, attendee))
-                    )
-            );
-
-            // notify speakers
-            speakers.forEach(speaker ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(speaker.getEmail(), speaker.getName(), subject,
-                                    EmailContentService.getConferenceCreationBody(conferenceDTO, speaker))
-                    )
-            );
-
+            // notify attendees and speakers, the body is rendered once per role
+            List<EmailBatch> batches = new ArrayList<>();
+            batches.addAll(EmailBatch.forUsers(subject, attendees, (role, name) -> EmailContentService.getConferenceCreationBody(conferenceDTO, role, name)));
+            batches.addAll(EmailBatch.forUsers(subject, speakers, (role, name) -> EmailContentService.getConferenceCreationBody(conferenceDTO, role, name)));
+            emailService.sendEmails(batches);
         } catch (Exception e) {
             LoggerUtil.getInstance().logError("Notification failure when notifying of conference creation: " + e.getMessage());
         }
@@ -50,22 +38,12 @@ public class ConferenceNotificationService {
     public static void notifyConferenceChange(ConferenceDTO conferenceDTO, List<UserDTO> attendees, List<UserDTO> speakers) {
         String subject = "Conference Change";
         try {
-            // notify attendees
-            attendees.forEach(attendee ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(attendee.getEmail(), attendee.getName(), subject,
-                                    EmailContentService.getConferenceChangeBody(conferenceDTO, attendee))
-                    )
-            );
-
-            // notify speakers
-            speakers.forEach(speaker ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(speaker.getEmail(), speaker.getName(), subject,
-                                    EmailContentService.getConferenceChangeBody(conferenceDTO, speaker))
-                    )
-            );
-
+            // notify attendees and speakers, the body is rendered once per role. changes made in quick succession are
+            // merged into one email with the latest details
+            List<EmailBatch> batches = new ArrayList<>();
+            batches.addAll(EmailBatch.forUsers(subject, attendees, (role, name) -> EmailContentService.getConferenceChangeBody(conferenceDTO, role, name)));
+            batches.addAll(EmailBatch.forUsers(subject, speakers, (role, name) -> EmailContentService.getConferenceChangeBody(conferenceDTO, role, name)));
+            emailService.sendLatestEmails(entityKey(conferenceDTO), batches);
         } catch (Exception e) {
             LoggerUtil.getInstance().logError("Notification failure when notifying of conference change: " + e.getMessage());
         }
@@ -74,21 +52,11 @@ public class ConferenceNotificationService {
     public static void notifyConferenceDeletion(ConferenceDTO conferenceDTO, List<UserDTO> attendees, List<UserDTO> speakers) {
         String subject = "Conference Cancelled";
         try {
-            // notify attendees
-            attendees.forEach(attendee ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(attendee.getEmail(), attendee.getName(), subject,
-                                    EmailContentService.getConferenceDeletionBody(conferenceDTO, attendee))
-                    )
-            );
-
-            // notify speakers
-            speakers.forEach(speaker ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(speaker.getEmail(), speaker.getName(), subject,
-                                    EmailContentService.getConferenceCreationBody(conferenceDTO, speaker))
-                    )
-            );
+            // notify attendees and speakers, the body is rendered once per role. change emails not sent yet are dropped
+            List<EmailBatch> batches = new ArrayList<>();
+            batches.addAll(EmailBatch.forUsers(subject, attendees, (role, name) -> EmailContentService.getConferenceDeletionBody(conferenceDTO, role, name)));
+            batches.addAll(EmailBatch.forUsers(subject, speakers, (role, name) -> EmailContentService.getConferenceDeletionBody(conferenceDTO, role, name)));
+            emailService.sendFinalEmails(entityKey(conferenceDTO), batches);
         } catch (Exception e) {
             LoggerUtil.getInstance().logError("Notification failure when notifying of conference deletion: " + e.getMessage());
         }
@@ -101,17 +69,30 @@ public class ConferenceNotificationService {
 
         String subject = "Registered to Conference";
         try {
-            CompletableFuture.runAsync(() ->
-                    emailService.sendEmail(
-                            attendee.getEmail(),
-                            attendee.getName(),
-                            subject,
-                            EmailContentService.getAttendeeRegisteredToConferenceBody(conferenceDTO, attendee))
-            );
+            emailService.sendEmail(
+                    attendee.getEmail(),
+                    attendee.getName(),
+                    subject,
+                    EmailContentService.getAttendeeRegisteredToConferenceBody(conferenceDTO, attendee));
         } catch (Exception e) {
             LoggerUtil.getInstance().logError(String.format("Failed to notify attendee '%s' of his decision to leave conference '%s'.", attendee.getName(), conferenceDTO.getName()));
         }
     }
+    // one hand-off for the whole batch, the body is rendered once
+    public static void notifyAttendeesRegistrationToConference(ConferenceDTO conferenceDTO, List<UserDTO> attendees) {
+        if (conferenceDTO == null || attendees == null) {
+            throw new IllegalArgumentException("Invalid conference and/or attendees data.");
+        }
+
+        String subject = "Registered to Conference";
+        try {
+            emailService.sendEmails(EmailBatch.forUsers(subject, attendees,
+                    (role, name) -> EmailContentService.getAttendeeRegisteredToConferenceBody(conferenceDTO, name)));
+        } catch (Exception e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to notify attendees of registration to conference '%s'.", conferenceDTO.getName()));
+        }
+    }
+
     public static void notifyAttendeeUnregisteredFromConference(ConferenceDTO conferenceDTO, UserDTO attendee) {
         if (conferenceDTO == null || attendee == null) {
             throw new IllegalArgumentException("Invalid conference and/or attendee data.");
@@ -119,17 +100,17 @@ public class ConferenceNotificationService {
 
         String subject = "Unregistered from Conference";
         try {
-            CompletableFuture.runAsync(() ->
-                    emailService.sendEmail(
-                            attendee.getEmail(),
-                            attendee.getName(),
-                            subject,
-                            EmailContentService.getAttendeeUnregisteredFromConferenceBody(conferenceDTO, attendee))
-            );
+            emailService.sendEmail(
+                    attendee.getEmail(),
+                    attendee.getName(),
+                    subject,
+                    EmailContentService.getAttendeeUnregisteredFromConferenceBody(conferenceDTO, attendee));
         } catch (Exception e) {
             LoggerUtil.getInstance().logError(String.format("Failed to notify attendee '%s' of his decision to leave conference '%s'.", attendee.getName(), conferenceDTO.getName()));
         }
     }
 
-
+    private static String entityKey(ConferenceDTO conferenceDTO) {
+        return "conference:" + conferenceDTO.getId();
+    }
 }
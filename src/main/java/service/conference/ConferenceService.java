@@ -4,12 +4,16 @@ import domain.factory.ConferenceFactory;
 import domain.model.Conference;
 import domain.model.Session;
 import dto.ConferenceDTO;
+import dto.FeedbackDTO;
 import dto.SessionDTO;
 import exception.ConferenceException;
 import exception.SessionException;
 import exception.UserException;
 import repository.ConferenceRepository;
+import repository.UnitOfWork;
 import response.ResponseEntity;
+import service.RegistrationResult;
+import service.RegistrationResults;
 import service.ServiceMediator;
 import service.UserService;
 import util.CollectionUtils;
@@ -17,11 +21,7 @@ import util.LoggerUtil;
 import util.validation.ConferenceValidator;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public class ConferenceService {
@@ -41,42 +41,39 @@ public class ConferenceService {
             throw new IllegalArgumentException("ConferenceDTO cannot be null.");
         }
 
-        boolean isSaved = false;
-        boolean assignedToOrganizer = false;
         try {
             // prepare data for validation
-            List<ConferenceDTO> conferenceDTOs = findAll();
             List<SessionDTO> sessionDTOs = serviceMediator.findSessionsByIds(conferenceDTO.getSessions());
 
-            // validate data
-            ConferenceValidatorService.validateData(conferenceDTO, conferenceDTOs, sessionDTOs, false);
+            // validate data against the indexed calendar of conferences
+            ConferenceValidatorService.validateData(conferenceDTO, conferenceRepository.findCalendar(), sessionDTOs, false);
 
-            // creating conference
-            Conference conference = ConferenceFactory.createConference(conferenceDTO);
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // creating conference
+                Conference conference = ConferenceFactory.createConference(conferenceDTO);
 
-            // saving conference to storage
-            save(conference);
-            isSaved = true;
+                // saving conference to storage
+                save(conference);
 
-            // add reference to conference in organizer's managed conferences
-            assignConferenceToOrganizer(conference);
-            assignedToOrganizer = true;
-
-            // notify attendees and all speakers of new upcoming conference
-            ConferenceNotificationService.notifyConferenceCreation(
-                    conferenceDTO,
-                    serviceMediator.findAllAttendees(),
-                    serviceMediator.findAllSpeakers()
-            );
-
-            LoggerUtil.getInstance().logInfo(String.format("Conference '%s' has successfully been created.", conference.getName()));
+                // add reference to conference in organizer's managed conferences
+                assignConferenceToOrganizer(conference);
+            });
+            if (!isCommitted) {
+                throw new ConferenceException("An unexpected error occurred when try to save conference data. Please try again later.");
+            }
         } catch (Exception e) {
-            // rollback changes
-            rollbackCreateOrUpdate(conferenceDTO, isSaved, assignedToOrganizer);
-
             // throw original exception to be handled by controller
             throw new ConferenceException(String.format("An error occurred when creating conference: %s", e.getMessage()));
         }
+
+        // notify attendees and all speakers of new upcoming conference
+        ConferenceNotificationService.notifyConferenceCreation(
+                conferenceDTO,
+                serviceMediator.findAllAttendees(),
+                serviceMediator.findAllSpeakers()
+        );
+
+        LoggerUtil.getInstance().logInfo(String.format("Conference '%s' has successfully been created.", conferenceDTO.getName()));
     }
 
     public void registerSession(SessionDTO sessionDTO) {
@@ -116,35 +113,67 @@ public class ConferenceService {
             throw new ConferenceException(String.format("Conference with id '%s' does not exist.", id));
         }
 
-        // adding attendee id to conference data
-        Conference conference = conferenceOptional.get();
-
-        boolean addedConferenceToAttendee = false;
         try {
-            conference.addAttendee(attendeeId);
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // adding attendee id to the unit's own copy of the conference data
+                Conference conference = conferenceRepository.findById(id).orElseThrow();
+                conference.addAttendee(attendeeId);
+
+                // adding reference to the conference in attendee data
+                serviceMediator.addConferenceToAttendee(id, attendeeId);
+
+                // saving updated conference
+                save(conference);
+            });
+            if (!isCommitted) {
+                throw new ConferenceException("Changes could not be saved. Please try again later.");
+            }
+        } catch (Exception e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to register attendee to conference: %s", e.getMessage()));
+            throw new ConferenceException(String.format("An error occurred when registering attendee to conference: %s", e.getMessage()));
+        }
 
-            // adding reference to the conference in attendee data
-            serviceMediator.addConferenceToAttendee(id, attendeeId);
-            addedConferenceToAttendee = true;
+        ConferenceNotificationService.notifyAttendeeRegistrationToConference(getById(id), serviceMediator.getUserById(attendeeId));
+    }
 
-            // saving updated conference
-            save(conference);
+    // registers a whole cohort with one save per repository; results are keyed by attendee id in the order given
+    public Map<String, RegistrationResult> registerAttendeesToConference(String id, Collection<String> attendeeIds) {
+        if (id == null || id.isEmpty() || attendeeIds == null) {
+            throw new IllegalArgumentException("Conference id and attendee ids cannot be null or empty.");
+        }
 
-            ConferenceNotificationService.notifyAttendeeRegistrationToConference(mapToDTO(conference), serviceMediator.getUserById(attendeeId));
+        ConferenceDTO conferenceDTO = getById(id);
 
-        } catch (Exception e) {
-            LoggerUtil.getInstance().logError(String.format("Failed to register attendee to conference: %s", e.getMessage()));
+        // validate all attendees before changing anything
+        Set<String> uniqueIds = new LinkedHashSet<>(attendeeIds);
+        uniqueIds.remove(null);
+        Map<String, RegistrationResult> results = RegistrationResults.classify(
+                uniqueIds, conferenceDTO.getAttendees(), serviceMediator.findAllUsersById(uniqueIds));
+        List<String> toRegister = RegistrationResults.registered(results);
+        if (toRegister.isEmpty()) {
+            return results;
+        }
 
-            // rollback changes
-            if (addedConferenceToAttendee) {
-                ConferenceRollbackService.rollbackAddingConferenceToAttendee(
-                        conference.getId(),
-                        attendeeId,
-                        serviceMediator::removeConferenceFromAttendee);
+        try {
+            boolean isCommitted = UnitOfWork.run(() -> {
+                Conference conference = conferenceRepository.findById(id).orElseThrow();
+                conference.addAttendees(toRegister);
+                save(conference);
+
+                // adding reference to the conference in every attendee's data
+                serviceMediator.addConferenceToAttendees(id, toRegister);
+            });
+            if (!isCommitted) {
+                throw new ConferenceException("Changes could not be saved. Please try again later.");
             }
-
-            throw new ConferenceException(String.format("An error occurred when registering attendee to conference: %s", e.getMessage()));
+        } catch (Exception e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to register %d attendees to conference '%s': %s", toRegister.size(), conferenceDTO.getName(), e.getMessage()));
+            throw new ConferenceException(String.format("An error occurred when registering attendees to conference: %s", e.getMessage()));
         }
+
+        ConferenceNotificationService.notifyAttendeesRegistrationToConference(getById(id), serviceMediator.findAllUsersById(new HashSet<>(toRegister)));
+        LoggerUtil.getInstance().logInfo(String.format("Registered %d of %d attendees to conference '%s'.", toRegister.size(), results.size(), conferenceDTO.getName()));
+        return results;
     }
 
     public void addFeedback(String id, String feedbackId) {
@@ -197,12 +226,26 @@ public class ConferenceService {
                 .collect(Collectors.toList());
     }
 
+    // conferences starting after today, ordered by start date
     public List<ConferenceDTO> findAllUpcoming() {
-        List<Conference> conferences = conferenceRepository.findAll();
+        return conferenceRepository.findAllStartingAfter(LocalDate.now())
+                .stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
 
-        return conferences.stream()
-                .filter(conference -> conference != null &&
-                        LocalDateTime.of(conference.getStartDate(), LocalTime.MIN).isAfter(LocalDateTime.now()))
+    // conferences held today
+    public List<ConferenceDTO> findAllOngoing() {
+        return conferenceRepository.findAllHeldOn(LocalDate.now())
+                .stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // conferences that ended before today, ordered by end date
+    public List<ConferenceDTO> findAllPast() {
+        return conferenceRepository.findAllEndingBefore(LocalDate.now())
+                .stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
@@ -225,10 +268,9 @@ public class ConferenceService {
             // merge data
             mergeData(existingConference, conferenceDTO);
 
-            // validate data
-            List<ConferenceDTO> conferenceDTOs = findAll();
+            // validate data against the indexed calendar of conferences
             List<SessionDTO> sessionDTOs = serviceMediator.findSessionsByIds(conferenceDTO.getSessions());
-            ConferenceValidatorService.validateData(conferenceDTO, conferenceDTOs, sessionDTOs, true);
+            ConferenceValidatorService.validateData(conferenceDTO, conferenceRepository.findCalendar(), sessionDTOs, true);
 
             // Create and save updated conference
             Conference updatedConference = ConferenceFactory.createConference(conferenceDTO);
@@ -262,15 +304,41 @@ public class ConferenceService {
         Conference conference = conferenceOptional.get();
         Set<String> attendees = conference.getAttendees(), speakers = conference.getSpeakers();
 
-        try {
-            // delete all sessions within conference
-            serviceMediator.deleteAllSessionsById(conference.getSessions());
-
-            // delete all feedback within conference
-            serviceMediator.deleteAllFeedbackById(conference.getFeedback());
+        // the full closure of what goes with the conference is computed up front: its sessions, all feedback
+        // on it or its sessions, and every user that still references any of them, authors of the feedback included
+        Set<String> sessionIds = conference.getSessions();
+        Set<String> feedbackIds = new HashSet<>(conference.getFeedback());
+        Set<String> userIds = new HashSet<>(attendees);
+        userIds.addAll(speakers);
+        userIds.add(conference.getOrganizerId());
+        for (SessionDTO session : serviceMediator.findSessionsByIds(sessionIds)) {
+            feedbackIds.addAll(session.getFeedback());
+            userIds.addAll(session.getRegisteredAttendees());
+            userIds.add(session.getSpeakerId());
+        }
+        for (FeedbackDTO feedback : serviceMediator.findFeedbackByIds(feedbackIds)) {
+            userIds.add(feedback.getAttendeeId());
+        }
+        userIds.remove(null);
 
-            // delete conference from repository
-            conferenceRepository.deleteById(id);
+        try {
+            // the whole cascade is applied together with one commit per repository
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // remove the conference, its sessions and their feedback from every user, one save per user
+                serviceMediator.removeConferenceReferences(id, sessionIds, feedbackIds, userIds);
+
+                // delete all sessions within conference, leaving the conference's own references alone
+                serviceMediator.deleteAllSessionsOfConference(sessionIds);
+
+                // delete all feedback on the conference and its sessions
+                serviceMediator.deleteAllFeedbackById(feedbackIds);
+
+                // delete conference from repository
+                conferenceRepository.deleteById(id);
+            });
+            if (!isCommitted) {
+                throw new ConferenceException("An unexpected error occurred when deleting conference. Please try again later.");
+            }
 
             // notify attendees and speakers of cancellation
             ConferenceNotificationService.notifyConferenceDeletion(
@@ -318,27 +386,26 @@ public class ConferenceService {
 
         Conference conference = conferenceOptional.get();
 
-        boolean isSaved = false;
         try {
-            conference.removeAttendee(attendeeId);
-
-            save(conference);
-            isSaved = true;
-
-            // remove conference reference from attendee's registered conferences
-            serviceMediator.removeConferenceFromAttendee(id, attendeeId);
-
-            // notify attendee that he has been unregistered from the conference
-            ConferenceNotificationService.notifyAttendeeUnregisteredFromConference(mapToDTO(conference), serviceMediator.getUserById(attendeeId));
-
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // removing attendee id from the unit's own copy of the conference data
+                Conference updatedConference = conferenceRepository.findById(id).orElseThrow();
+                updatedConference.removeAttendee(attendeeId);
+                save(updatedConference);
+
+                // remove conference reference from attendee's registered conferences
+                serviceMediator.removeConferenceFromAttendee(id, attendeeId);
+            });
+            if (!isCommitted) {
+                throw new ConferenceException("Changes could not be saved. Please try again later.");
+            }
         } catch (Exception e) {
             LoggerUtil.getInstance().logError(String.format("Failed to remove attendee with id '%s' from conference '%s': %s", attendeeId, conference.getName(), e.getMessage()));
-
-            // rollback removing attendee from conference
-            if (isSaved) ConferenceRollbackService.rollbackRemovingAttendeeFromConference(conference.getId(), attendeeId, this::registerAttendeeToConference);
-
             throw new ConferenceException(String.format("An unexpected error occurred when removing attendee from conference: %s", e.getMessage()));
         }
+
+        // notify attendee that he has been unregistered from the conference
+        ConferenceNotificationService.notifyAttendeeUnregisteredFromConference(getById(id), serviceMediator.getUserById(attendeeId));
     }
 
 
@@ -350,13 +417,6 @@ public class ConferenceService {
         }
     }
 
-    private void delete(String id) {
-        boolean deleted = conferenceRepository.deleteById(id);
-        if (!deleted) {
-            throw new ConferenceException("An unexpected error occurred when try to delete conference. Please try again later.");
-        }
-    }
-
     private void assignConferenceToOrganizer(Conference conference) {
         try {
             serviceMediator.assignConferenceToOrganizer(conference.getId(), conference.getOrganizerId());
@@ -368,16 +428,6 @@ public class ConferenceService {
         }
     }
 
-    private void rollbackCreateOrUpdate(ConferenceDTO conferenceDTO, boolean isSaved, boolean assignedToOrganizer) {
-        // roll back save
-        if (isSaved) ConferenceRollbackService.rollbackSave(conferenceDTO.getId(), this::delete);
-
-        // roll back assigning conference to organizer
-        if (assignedToOrganizer) ConferenceRollbackService.rollbackAssignmentToOrganzer(
-                conferenceDTO.getId(), conferenceDTO.getOrganizerId(), serviceMediator::unassignConferenceFromOrganizer
-        );
-    }
-
     private ConferenceDTO mapToDTO(Conference conference) {
         String organizerId = conference.getOrganizerId(), name = conference.getName(), description = conference.getDescription();
         LocalDate startDate = conference.getStartDate(), endDate = conference.getEndDate();
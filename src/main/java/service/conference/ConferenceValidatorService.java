@@ -3,6 +3,7 @@ package service.conference;
 import dto.ConferenceDTO;
 import dto.SessionDTO;
 import exception.ConferenceException;
+import repository.ConferenceCalendar;
 import util.LoggerUtil;
 
 import java.time.LocalDate;
@@ -12,24 +13,25 @@ import java.util.List;
 
 public class ConferenceValidatorService {
 
-    public static void validateData(ConferenceDTO conferenceDTO, List<ConferenceDTO> conferenceDTOs, List<SessionDTO> sessionDTOS, boolean isUpdate) {
-        if (conferenceDTO == null) {
-            throw new IllegalArgumentException("ConferenceDTO cannot be null.");
+    public static void validateData(ConferenceDTO conferenceDTO, ConferenceCalendar calendar, List<SessionDTO> sessionDTOS, boolean isUpdate) {
+        if (conferenceDTO == null || calendar == null) {
+            throw new IllegalArgumentException("ConferenceDTO and calendar cannot be null.");
         }
 
         // if update request:
-            // remove current conference data from list of conferences for accurate validation of names and dates
+            // exclude the conference itself from the name and date checks
             // check conferences dates validity with existing session dates
+        String excludedId = null;
         if (isUpdate) {
-            removeConferenceFromList(conferenceDTO, conferenceDTOs);
+            excludedId = conferenceDTO.getId();
             validateConferenceDatesWithExistingSessions(conferenceDTO.getStartDate(), conferenceDTO.getEndDate(), sessionDTOS);
         }
 
         // ensure conference name is available
-        validateConferenceName(conferenceDTO.getName(), conferenceDTOs);
+        validateConferenceName(conferenceDTO.getName(), calendar, excludedId);
 
         // ensure conference dates do not clash with other conferences
-        validateConferenceDates(conferenceDTOs, conferenceDTO.getStartDate(), conferenceDTO.getEndDate());
+        validateConferenceDates(calendar, conferenceDTO.getStartDate(), conferenceDTO.getEndDate(), excludedId);
 
         LoggerUtil.getInstance().logInfo(String.format("Validation successful for conference '%s'.", conferenceDTO.getName()));
     }
@@ -54,49 +56,27 @@ public class ConferenceValidatorService {
 
     }
 
-    private static void validateConferenceName(String name, List<ConferenceDTO> conferenceDTOS) {
+    private static void validateConferenceName(String name, ConferenceCalendar calendar, String excludedId) {
         if (name == null || name.isEmpty()) {
             throw new IllegalArgumentException("Conference name cannot be null or empty.");
         }
 
-        boolean isNameTaken = conferenceDTOS.stream()
-                .anyMatch(conferenceDTO -> name.equalsIgnoreCase(conferenceDTO.getName()));
-
-        if (isNameTaken) {
+        if (calendar.isNameTaken(name, excludedId)) {
             LoggerUtil.getInstance().logError("Conference name validation failed: Session name is taken.");
             throw new ConferenceException("A conference with this name is already registered. Please choose a different name.");
         }
     }
 
-    private static void validateConferenceDates(List<ConferenceDTO> conferenceDTOS, LocalDate startDate, LocalDate endDate) {
-        if (conferenceDTOS == null || startDate == null || endDate == null) {
-            throw new IllegalArgumentException("ConferenceDTOs and conference start and end dates cannot be null.");
+    private static void validateConferenceDates(ConferenceCalendar calendar, LocalDate startDate, LocalDate endDate, String excludedId) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Conference start and end dates cannot be null.");
         }
 
-        // ensure selected time period is available
-        if (!isTimePeriodAvailable(conferenceDTOS, startDate, endDate)) {
+        // ensure selected time period is available, conferences sharing even a single day clash
+        if (calendar.isPeriodTaken(startDate, endDate, excludedId)) {
             LoggerUtil.getInstance().logWarning("Validation failed for conference creation/update. Dates provided for the conference are not available..");
             throw new ConferenceException("Another conference is already registered to be held within the time" +
                     " period you selected. Please choose different dates.");
         }
     }
-
-    private static boolean isTimePeriodAvailable(List<ConferenceDTO> conferenceDTOS, LocalDate startDate, LocalDate endDate) {
-        if (startDate == null || endDate == null) {
-            throw new IllegalArgumentException("Conference start and end dates cannot be null");
-        }
-
-        return conferenceDTOS.stream()
-                .noneMatch(conference ->
-                        (startDate.isBefore(conference.getEndDate()) && endDate.isAfter(conference.getStartDate())) ||
-                                endDate.equals(conference.getStartDate()) ||
-                                startDate.equals(conference.getEndDate())
-                );
-    }
-
-    private static void removeConferenceFromList(ConferenceDTO conferenceDTO, List<ConferenceDTO> conferenceDTOs) {
-        conferenceDTOs.removeIf(conference -> conference.getId().equals(conferenceDTO.getId()));
-    }
-
-
 }
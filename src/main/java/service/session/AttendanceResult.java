@@ -0,0 +1,8 @@
+package service.session;
+
+// outcome of checking a single attendee into a session
+public enum AttendanceResult {
+    PRESENT,                // marked present by this check-in
+    ALREADY_PRESENT,        // checked in before, nothing changed
+    NOT_REGISTERED          // not registered to the session, rejected
+}
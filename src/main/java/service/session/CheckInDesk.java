@@ -0,0 +1,91 @@
+package service.session;
+
+import util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+// takes badge scans from any number of scanners; a single worker drains whatever has queued up since its last
+// batch and checks it in with one save, so the writes get fewer exactly when the queue backs up
+public class CheckInDesk implements AutoCloseable {
+
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final Object END_OF_SCANS = new Object();
+
+    private final String sessionId;
+    private final SessionService sessionService;
+    private final Consumer<Map<String, AttendanceResult>> resultsConsumer;
+    private final BlockingQueue<Object> scans = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private boolean open = true;
+
+    CheckInDesk(String sessionId, SessionService sessionService, Consumer<Map<String, AttendanceResult>> resultsConsumer) {
+        this.sessionId = sessionId;
+        this.sessionService = sessionService;
+        this.resultsConsumer = resultsConsumer;
+
+        this.worker = new Thread(this::run, "check-in-" + sessionId);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // returns false once the desk has been closed
+    public synchronized boolean scan(String attendeeId) {
+        if (!open || attendeeId == null || attendeeId.isEmpty()) {
+            return false;
+        }
+        return scans.offer(attendeeId);
+    }
+
+    // stops taking scans and waits until the ones already queued are checked in
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!open) return;
+            open = false;
+            scans.offer(END_OF_SCANS);
+        }
+
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        boolean isEnd = false;
+        while (!isEnd) {
+            List<Object> scanned = new ArrayList<>();
+            try {
+                scanned.add(scans.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            scans.drainTo(scanned, MAX_BATCH_SIZE - 1);
+
+            List<String> batch = new ArrayList<>(scanned.size());
+            for (Object scan : scanned) {
+                if (scan == END_OF_SCANS) isEnd = true;
+                else batch.add((String) scan);
+            }
+
+            if (!batch.isEmpty()) {
+                checkIn(batch);
+            }
+        }
+    }
+
+    private void checkIn(List<String> batch) {
+        try {
+            resultsConsumer.accept(sessionService.markAttendeesPresent(sessionId, batch));
+        } catch (RuntimeException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to check in %d attendees to session '%s': %s", batch.size(), sessionId, e.getMessage()));
+        }
+    }
+}
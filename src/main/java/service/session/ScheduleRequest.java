@@ -0,0 +1,47 @@
+package service.session;
+
+import java.time.Duration;
+import java.util.Set;
+
+// a session still to be placed by the SessionScheduler: who presents it, how long it runs and which rooms suit it
+public class ScheduleRequest {
+    private final String name;
+    private final String description;
+    private final String speakerId;
+    private final String speakerName;
+    private final Duration duration;
+    private final Set<String> rooms;            // empty when any room will do
+
+    public ScheduleRequest(String name, String description, String speakerId, String speakerName, Duration duration, Set<String> rooms) {
+        this.name = name;
+        this.description = description;
+        this.speakerId = speakerId;
+        this.speakerName = speakerName;
+        this.duration = duration;
+        this.rooms = rooms != null ? Set.copyOf(rooms) : Set.of();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+
+    public String getSpeakerId() {
+        return this.speakerId;
+    }
+
+    public String getSpeakerName() {
+        return this.speakerName;
+    }
+
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    public Set<String> getRooms() {
+        return this.rooms;
+    }
+}
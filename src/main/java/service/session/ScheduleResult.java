@@ -0,0 +1,30 @@
+package service.session;
+
+import dto.SessionDTO;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// outcome of an automatic scheduling run: the sessions placed, ready to be created, and why the others were not
+public class ScheduleResult {
+    private final List<SessionDTO> scheduled;
+    private final Map<String, String> unscheduled;          // K: session name, V: reason
+
+    ScheduleResult(List<SessionDTO> scheduled, Map<String, String> unscheduled) {
+        this.scheduled = scheduled;
+        this.unscheduled = unscheduled;
+    }
+
+    public boolean isComplete() {
+        return unscheduled.isEmpty();
+    }
+
+    public List<SessionDTO> getScheduled() {
+        return Collections.unmodifiableList(this.scheduled);
+    }
+
+    public Map<String, String> getUnscheduled() {
+        return Collections.unmodifiableMap(this.unscheduled);
+    }
+}
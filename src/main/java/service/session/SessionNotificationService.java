@@ -3,14 +3,13 @@ package service.session;
 import dto.SessionDTO;
 import dto.UserDTO;
 import exception.SessionException;
-import service.UserService;
 import util.LoggerUtil;
 import util.email.EmailContentService;
 import util.email.EmailService;
+import util.email.EmailBatch;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 
 public class SessionNotificationService {
 
@@ -21,20 +20,8 @@ public class SessionNotificationService {
     public static void notifySessionCreation(SessionDTO sessionDTO, List<UserDTO> attendees, UserDTO speaker) {
         final String subject = "New Session";
         try {
-
-            // notify attendees
-            attendees.forEach(attendee ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(attendee.getEmail(), attendee.getName(), subject,
-                                           EmailContentService.getSessionCreationBody(sessionDTO, attendee))
-                    )
-            );
-
-            // notify speaker
-            CompletableFuture.runAsync(() ->
-                    emailService.sendEmail(speaker.getEmail(), speaker.getName(), subject,
-                                           EmailContentService.getSessionCreationBody(sessionDTO, speaker))
-            );
+            // notify attendees and speaker, the body is rendered once per role
+            emailService.sendEmails(EmailBatch.forUsers(subject, recipients(attendees, speaker), (role, name) -> EmailContentService.getSessionCreationBody(sessionDTO, role, name)));
         } catch (Exception e) {
             LoggerUtil.getInstance().logError("Notification failure: " + e.getMessage());
         }
@@ -43,19 +30,9 @@ public class SessionNotificationService {
     public static void notifySessionChange(SessionDTO sessionDTO, List<UserDTO> attendees, UserDTO speaker) {
         String subject = "Session Change";
         try {
-            // notify attendees
-            attendees.forEach(attendee ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(attendee.getEmail(), attendee.getName(), subject,
-                                    EmailContentService.getSessionChangeBody(sessionDTO, attendee))
-                    )
-            );
-
-            // notify speaker
-            CompletableFuture.runAsync(() ->
-                    emailService.sendEmail(speaker.getEmail(), speaker.getName(), subject,
-                            EmailContentService.getSessionChangeBody(sessionDTO, speaker))
-            );
+            // notify attendees and speaker, the body is rendered once per role. changes made in quick succession are
+            // merged into one email with the latest details
+            emailService.sendLatestEmails(entityKey(sessionDTO), EmailBatch.forUsers(subject, recipients(attendees, speaker), (role, name) -> EmailContentService.getSessionChangeBody(sessionDTO, role, name)));
         } catch (Exception e) {
             LoggerUtil.getInstance().logError("Notification failure: " + e.getMessage());
             throw new SessionException("An unexpected error occurred when notifying users of session changes.");
@@ -65,24 +42,21 @@ public class SessionNotificationService {
     public static void notifySessionDeletion(SessionDTO sessionDTO, List<UserDTO> attendees, UserDTO speaker) {
         String subject = "Session Cancelled";
         try {
-            // notify attendees
-            attendees.forEach(attendee ->
-                    CompletableFuture.runAsync(() ->
-                            emailService.sendEmail(attendee.getEmail(), attendee.getName(), subject,
-                                    EmailContentService.getSessionDeletionBody(sessionDTO, attendee))
-                    )
-            );
-
-            // notify speaker
-            CompletableFuture.runAsync(() ->
-                    emailService.sendEmail(speaker.getEmail(), speaker.getName(), subject,
-                            EmailContentService.getSessionDeletionBody(sessionDTO, speaker))
-            );
+            // notify attendees and speaker, the body is rendered once per role. change emails not sent yet are dropped
+            emailService.sendFinalEmails(entityKey(sessionDTO), EmailBatch.forUsers(subject, recipients(attendees, speaker), (role, name) -> EmailContentService.getSessionDeletionBody(sessionDTO, role, name)));
         } catch (Exception e) {
             LoggerUtil.getInstance().logError("Notification failure: " + e.getMessage());
             throw new SessionException("An unexpected error occurred when notifying users of session cancellation.");
         }
     }
 
+    private static String entityKey(SessionDTO sessionDTO) {
+        return "session:" + sessionDTO.getId();
+    }
 
+    private static List<UserDTO> recipients(List<UserDTO> attendees, UserDTO speaker) {
+        List<UserDTO> recipients = new ArrayList<>(attendees);
+        recipients.add(speaker);
+        return recipients;
+    }
 }
@@ -0,0 +1,276 @@
+package service.session;
+
+import domain.model.Session;
+import dto.ConferenceDTO;
+import dto.SessionDTO;
+import repository.SessionTimeline;
+import util.IdGenerator;
+import util.LoggerUtil;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// places sessions in a conference automatically: every request is given a day, start time and room so that no room
+// and no speaker is double booked, neither among the new sessions nor against the conference's existing timeline.
+// the search is a depth-first branch and bound over the candidate slots, hardest requests first, where leaving a
+// request out is the last option tried. several searches run in parallel on the fork-join pool, each scanning the
+// candidates from a different offset; the first complete placement stops the others, otherwise the best partial
+// placement found within the time budget wins
+public class SessionScheduler {
+
+    private static final LocalTime DAY_START = LocalTime.of(9, 0);
+    private static final LocalTime DAY_END = LocalTime.of(18, 0);
+    private static final Duration SLOT_LENGTH = Duration.ofMinutes(30);
+    private static final Duration MIN_DURATION = Duration.ofHours(1);
+    private static final long BACKTRACK_LIMIT = 100_000;           // per search, so a hopeless one gives up before the budget
+
+    private final ConferenceDTO conference;
+    private final SessionTimeline timeline;
+    private final List<String> rooms;
+    private final Duration timeBudget;
+
+    // the timeline is only read, every search plans on its own copy
+    public SessionScheduler(ConferenceDTO conference, SessionTimeline timeline, List<String> rooms, Duration timeBudget) {
+        if (conference == null || timeline == null || rooms == null || rooms.isEmpty() || timeBudget == null) {
+            throw new IllegalArgumentException("Conference, timeline, rooms and time budget are required for scheduling.");
+        }
+        this.conference = conference;
+        this.timeline = timeline;
+        this.rooms = List.copyOf(rooms);
+        this.timeBudget = timeBudget;
+    }
+
+    public ScheduleResult schedule(List<ScheduleRequest> requests) {
+        if (requests == null || requests.contains(null)) {
+            throw new IllegalArgumentException("Schedule requests cannot be null.");
+        }
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+
+        // requests that can never be placed are reported straight away
+        Map<String, String> unscheduled = new LinkedHashMap<>();
+        List<Placement> placements = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        Map<String, Long> minutesBySpeaker = new HashMap<>();
+        for (ScheduleRequest request : requests) {
+            String rejection = findRejection(request, names);
+            if (rejection != null) {
+                unscheduled.put(String.valueOf(request.getName()), rejection);
+                continue;
+            }
+            Placement placement = new Placement(request, findCandidates(request));
+            if (placement.candidates.isEmpty()) {
+                unscheduled.put(request.getName(), "No requested room is free for long enough on any day of the conference.");
+                continue;
+            }
+            placements.add(placement);
+            minutesBySpeaker.merge(request.getSpeakerId(), request.getDuration().toMinutes(), Long::sum);
+        }
+
+        // hardest first: fewest candidate slots, then the busiest speakers, then the longest sessions
+        placements.sort(Comparator.<Placement>comparingInt(placement -> placement.candidates.size())
+                .thenComparing(placement -> minutesBySpeaker.get(placement.request.getSpeakerId()), Comparator.reverseOrder())
+                .thenComparing(placement -> placement.request.getDuration(), Comparator.reverseOrder()));
+
+        Slot[] best = placements.isEmpty() ? new Slot[0] : ForkJoinPool.commonPool().invoke(new PortfolioTask(placements, deadline));
+
+        List<SessionDTO> scheduled = new ArrayList<>();
+        for (int i = 0; i < placements.size(); i++) {
+            Placement placement = placements.get(i);
+            if (best[i] != null) {
+                scheduled.add(toDTO(placement, best[i]));
+            } else {
+                unscheduled.put(placement.request.getName(), "No free room and time could be found for the session and its speaker.");
+            }
+        }
+        scheduled.sort(Comparator.comparing(SessionDTO::getDate).thenComparing(SessionDTO::getStartTime).thenComparing(SessionDTO::getRoom));
+
+        LoggerUtil.getInstance().logInfo(String.format("Scheduled %d of %d sessions for conference '%s'.",
+                scheduled.size(), requests.size(), conference.getName()));
+        return new ScheduleResult(scheduled, unscheduled);
+    }
+
+    private String findRejection(ScheduleRequest request, Set<String> names) {
+        if (request.getName() == null || request.getName().isEmpty()) {
+            return "Session name must not be empty.";
+        }
+        if (request.getSpeakerId() == null || request.getSpeakerId().isEmpty()) {
+            return "Session speaker is required.";
+        }
+        if (request.getDuration() == null || request.getDuration().compareTo(MIN_DURATION) < 0) {
+            return "A session must be at least an hour long.";
+        }
+        if (timeline.isNameTaken(request.getName(), null) || !names.add(request.getName())) {
+            return "A session with this name is already registered to this conference.";
+        }
+        return null;
+    }
+
+    // every start on the slot grid of every remaining conference day, in every suitable room, in time order
+    private List<Slot> findCandidates(ScheduleRequest request) {
+        List<String> suitableRooms = rooms.stream()
+                .filter(room -> request.getRooms().isEmpty() || request.getRooms().stream().anyMatch(room::equalsIgnoreCase))
+                .toList();
+
+        List<Slot> candidates = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate lastDay = conference.getEndDate();
+        for (LocalDate day = conference.getStartDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            LocalDateTime latestStart = LocalDateTime.of(day, DAY_END).minus(request.getDuration());
+            for (LocalDateTime start = LocalDateTime.of(day, DAY_START); !start.isAfter(latestStart); start = start.plus(SLOT_LENGTH)) {
+                if (start.isBefore(now)) continue;
+                for (String room : suitableRooms) {
+                    candidates.add(new Slot(room, start, start.plus(request.getDuration())));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private SessionDTO toDTO(Placement placement, Slot slot) {
+        ScheduleRequest request = placement.request;
+        return SessionDTO.builder(conference.getId(), request.getSpeakerId(), request.getSpeakerName(), request.getName(), slot.room,
+                        slot.start.toLocalDate(), slot.start.toLocalTime(), slot.end.toLocalTime())
+                .setId(placement.id)
+                .setDescription(request.getDescription())
+                .build();
+    }
+
+    // runs one search per worker of the pool and keeps the placement that fits the most sessions
+    private class PortfolioTask extends RecursiveTask<Slot[]> {
+        private final List<Placement> placements;
+        private final long deadline;
+
+        private PortfolioTask(List<Placement> placements, long deadline) {
+            this.placements = placements;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Slot[] compute() {
+            int searchCount = Math.max(1, getPool().getParallelism());
+            AtomicBoolean isSolved = new AtomicBoolean();
+            List<SearchTask> searches = new ArrayList<>();
+            for (int i = 0; i < searchCount; i++) {
+                searches.add(new SearchTask(placements, i, searchCount, deadline, isSolved));
+            }
+            ForkJoinTask.invokeAll(searches);
+
+            return searches.stream()
+                    .map(ForkJoinTask::join)
+                    .max(Comparator.comparingLong(slots -> Arrays.stream(slots).filter(Objects::nonNull).count()))
+                    .orElseThrow();
+        }
+    }
+
+    private class SearchTask extends RecursiveTask<Slot[]> {
+        private final List<Placement> placements;
+        private final int searchIndex;
+        private final int searchCount;
+        private final long deadline;
+        private final AtomicBoolean isSolved;           // shared, set by the first search to place every session
+        private final SessionTimeline plan;
+        private final Slot[] chosen;
+        private Slot[] best;
+        private int bestPlaced = -1;
+        private long backtracks;
+
+        private SearchTask(List<Placement> placements, int searchIndex, int searchCount, long deadline, AtomicBoolean isSolved) {
+            this.placements = placements;
+            this.searchIndex = searchIndex;
+            this.searchCount = searchCount;
+            this.deadline = deadline;
+            this.isSolved = isSolved;
+            this.plan = timeline.copy();
+            this.chosen = new Slot[placements.size()];
+            this.best = chosen.clone();
+        }
+
+        @Override
+        protected Slot[] compute() {
+            search(0, 0);
+            return best;
+        }
+
+        // returns true once every session is placed, false when this branch is done or the search has to stop
+        private boolean search(int index, int placed) {
+            if (index == placements.size()) {
+                if (placed > bestPlaced) {
+                    bestPlaced = placed;
+                    best = chosen.clone();
+                }
+                if (placed == placements.size()) {
+                    isSolved.set(true);
+                    return true;
+                }
+                return false;
+            }
+
+            Placement placement = placements.get(index);
+            List<Slot> candidates = placement.candidates;
+            int offset = (int) ((long) candidates.size() * searchIndex / searchCount);
+            for (int i = 0; i < candidates.size(); i++) {
+                if (isStopped()) return false;
+
+                Slot slot = candidates.get((offset + i) % candidates.size());
+                if (!fits(placement, slot)) continue;
+
+                plan.add(placement.toSession(conference.getId(), slot));
+                chosen[index] = slot;
+                if (search(index + 1, placed + 1)) return true;
+                plan.remove(placement.id);
+                chosen[index] = null;
+                backtracks++;
+            }
+
+            // leaving the session out is only worth trying if the rest could still beat the best placement so far
+            if (isStopped() || placed + placements.size() - index - 1 <= bestPlaced) return false;
+            return search(index + 1, placed);
+        }
+
+        private boolean fits(Placement placement, Slot slot) {
+            return !plan.isRoomTaken(slot.room, slot.start, slot.end, null)
+                    && !plan.isSpeakerBusy(placement.request.getSpeakerId(), slot.start, slot.end, null);
+        }
+
+        private boolean isStopped() {
+            return isSolved.get() || backtracks > BACKTRACK_LIMIT || System.nanoTime() > deadline;
+        }
+    }
+
+    // a request with the id its session will be created under and the slots it could take
+    private static class Placement {
+        private final ScheduleRequest request;
+        private final List<Slot> candidates;
+        private final String id;
+
+        private Placement(ScheduleRequest request, List<Slot> candidates) {
+            this.request = request;
+            this.candidates = candidates;
+            this.id = IdGenerator.generateUniqueId();
+        }
+
+        private Session toSession(String conferenceId, Slot slot) {
+            return Session.builder(id, conferenceId, request.getSpeakerId(), request.getSpeakerName(), request.getName(), slot.room,
+                    slot.start.toLocalDate(), slot.start.toLocalTime(), slot.end.toLocalTime()).build();
+        }
+    }
+
+    private static class Slot {
+        private final String room;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Slot(String room, LocalDateTime start, LocalDateTime end) {
+            this.room = room;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
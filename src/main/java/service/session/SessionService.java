@@ -7,14 +7,19 @@ import dto.SessionDTO;
 import dto.UserDTO;
 import exception.*;
 import repository.SessionRepository;
+import repository.UnitOfWork;
+import service.RegistrationResult;
+import service.RegistrationResults;
 import service.ServiceMediator;
 import util.CollectionUtils;
 import util.LoggerUtil;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class SessionService {
@@ -35,48 +40,44 @@ public class SessionService {
             throw new IllegalArgumentException("SessionDTO cannot be null.");
         }
 
-        boolean sessionSaved = false;
-        boolean conferenceUpdated = false;
-        boolean speakerAssigned = false;
-
+        ConferenceDTO conferenceDTO;
         try {
-            // prepare data for validation - conference data, conference sessions
-            ConferenceDTO conferenceDTO = serviceMediator.getConferenceById(sessionDTO.getConferenceId());
-            List<SessionDTO> conferenceSessions = findAllById(conferenceDTO.getSessions());
+            // prepare data for validation
+            conferenceDTO = serviceMediator.getConferenceById(sessionDTO.getConferenceId());
 
-            // validate session data for creation
-            SessionValidatorService.validateData(sessionDTO, conferenceDTO, conferenceSessions, false);
+            // validate session data for creation against the conference's indexed timeline
+            SessionValidatorService.validateData(sessionDTO, conferenceDTO, sessionRepository.findTimeline(conferenceDTO.getId()), false);
 
-            // convert DTO to domain object and save
-            Session session = SessionFactory.create(sessionDTO);
-            sessionSaved = sessionRepository.save(session, session.getId());
-            if (!sessionSaved) {
-                throw new SessionException("An unexpected error occurred while saving session data.");
-            }
-
-            // assign session to speaker
-            serviceMediator.assignNewSessionForSpeaker(sessionDTO);
-            speakerAssigned = true;
+            // save the session and its references to speaker and conference together
+            saveWithReferences(sessionDTO);
+        } catch (RuntimeException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to create session '%s': %s", sessionDTO.getName(), e.getMessage()));
+            throw new SessionException(e.getMessage());
+        }
 
-            // add session to conference
-            serviceMediator.registerSessionInConference(sessionDTO);
-            conferenceUpdated = true;
+        // notify all system attendees and assign speaker of session creation
+        SessionNotificationService.notifySessionCreation(
+                sessionDTO,
+                serviceMediator.findAllUsersById(conferenceDTO.getAttendees()),
+                serviceMediator.getUserById(sessionDTO.getSpeakerId())
+        );
 
+        LoggerUtil.getInstance().logInfo(String.format("Session '%s' has been successfully created.", sessionDTO.getName()));
+    }
 
-            // notify all system attendees and assign speaker of session creation
-            SessionNotificationService.notifySessionCreation(
-                    sessionDTO,
-                    serviceMediator.findAllUsersById(conferenceDTO.getAttendees()),
-                    serviceMediator.getUserById(sessionDTO.getSpeakerId())
-            );
+    // proposes a conflict-free placement for new sessions in the conference's rooms; nothing is saved, the
+    // scheduled sessions carry their ids and are created like any other session
+    public ScheduleResult planSchedule(String conferenceId, List<ScheduleRequest> requests, List<String> rooms, Duration timeBudget) {
+        if (conferenceId == null || requests == null || rooms == null || rooms.isEmpty() || timeBudget == null) {
+            throw new IllegalArgumentException("Conference id, schedule requests, rooms and time budget cannot be null or empty.");
+        }
 
-            LoggerUtil.getInstance().logInfo(String.format("Session '%s' has been successfully created.", session.getName()));
+        try {
+            ConferenceDTO conferenceDTO = serviceMediator.getConferenceById(conferenceId);
+            SessionScheduler scheduler = new SessionScheduler(conferenceDTO, sessionRepository.findTimeline(conferenceId), rooms, timeBudget);
+            return scheduler.schedule(requests);
         } catch (RuntimeException e) {
-            LoggerUtil.getInstance().logError(String.format("Failed to create session '%s': %s", sessionDTO.getName(), e.getMessage()));
-
-            // rolling back changes
-            rollbackCreateOrUpdate(sessionDTO, sessionSaved, speakerAssigned, conferenceUpdated);
-
+            LoggerUtil.getInstance().logError(String.format("Failed to schedule sessions for conference '%s': %s", conferenceId, e.getMessage()));
             throw new SessionException(e.getMessage());
         }
     }
@@ -86,31 +87,71 @@ public class SessionService {
             throw new IllegalArgumentException("Invalid session id and/or attendee id.");
         }
 
-        Optional<Session> sessionOptional = sessionRepository.findById(id);
-        if (sessionOptional.isEmpty()) {
-            throw new SessionException(String.format("Session with id '%s' does not exist.", id));
+        try {
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // read inside the unit so the change stays private until it is committed
+                Session session = sessionRepository.findById(id)
+                        .orElseThrow(() -> new SessionException(String.format("Session with id '%s' does not exist.", id)));
+                session.registerAttendee(attendeeId);
+
+                // adding session reference to attendee's session schedule
+                serviceMediator.addSessionToAttendee(mapToDTO(session), attendeeId);
+
+                sessionRepository.save(session, session.getId());
+            });
+            if (!isCommitted) {
+                throw new SessionException("Changes could not be saved. Please try again later.");
+            }
+        } catch (Exception e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to register attendee '%s' to session '%s': %s", attendeeId, id, e.getMessage()));
+            throw new SessionException(String.format("An error occurred when registering attendee to session: %s", e.getMessage()));
         }
 
-        Session session = sessionOptional.get();
-        session.registerAttendee(attendeeId);
+        LoggerUtil.getInstance().logInfo(String.format("Successfully registered attendee '%s' to session '%s'.", attendeeId, id));
+    }
 
-        boolean sessionAddedToAttendee = false;
-        try {
-            // adding session reference to attendee's session schedule
-            serviceMediator.addSessionToAttendee(mapToDTO(session), attendeeId);
-            sessionAddedToAttendee = true;
+    // registers a whole cohort with one save per repository; results are keyed by attendee id in the order given
+    public Map<String, RegistrationResult> registerAttendees(String id, Collection<String> attendeeIds) {
+        if (id == null || id.isEmpty() || attendeeIds == null) {
+            throw new IllegalArgumentException("Invalid session id and/or attendee ids.");
+        }
 
-            sessionRepository.save(session, session.getId());
-        } catch (Exception e) {
-            LoggerUtil.getInstance().logError(String.format("Failed to register attendee '%s' to session '%s': %s", attendeeId, session.getName(), e.getMessage()));
+        SessionDTO sessionDTO = getById(id);
 
-            // rollback changes
-            if (sessionAddedToAttendee) SessionRollbackService.rollbackSessionAddedToAttendee(session.getId(), attendeeId, serviceMediator::removeSessionFromAttendee);
+        // validate all attendees before changing anything
+        Set<String> uniqueIds = new LinkedHashSet<>(attendeeIds);
+        uniqueIds.remove(null);
+        Map<String, RegistrationResult> results = RegistrationResults.classify(
+                uniqueIds, sessionDTO.getRegisteredAttendees(), serviceMediator.findAllUsersById(uniqueIds));
+        List<String> toRegister = RegistrationResults.registered(results);
+        if (toRegister.isEmpty()) {
+            return results;
+        }
 
-            throw new SessionException(String.format("An error occurred when registering attendee to session: %s", e.getMessage()));
+        try {
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // adding session reference to every attendee's session schedule; attendees already in another session
+                // at an overlapping time are left out and reported, instead of failing the whole cohort. checked
+                // inside the unit, so the schedules checked are the ones committed
+                serviceMediator.addSessionToAttendees(sessionDTO, toRegister)
+                        .forEach(attendeeId -> results.put(attendeeId, RegistrationResult.SCHEDULE_CONFLICT));
+
+                List<String> registered = RegistrationResults.registered(results);
+                if (registered.isEmpty()) return;
+                Session session = sessionRepository.findById(id).orElseThrow();
+                session.registerAttendees(registered);
+                sessionRepository.save(session, session.getId());
+            });
+            if (!isCommitted) {
+                throw new SessionException("Changes could not be saved. Please try again later.");
+            }
+        } catch (Exception e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to register %d attendees to session '%s': %s", toRegister.size(), sessionDTO.getName(), e.getMessage()));
+            throw new SessionException(String.format("An error occurred when registering attendees to session: %s", e.getMessage()));
         }
 
-        LoggerUtil.getInstance().logInfo(String.format("Successfully registered attendee '%s' to session '%s'.", attendeeId, id));
+        LoggerUtil.getInstance().logInfo(String.format("Registered %d of %d attendees to session '%s'.", RegistrationResults.registered(results).size(), results.size(), sessionDTO.getName()));
+        return results;
     }
 
     public void update(SessionDTO sessionDTO) {
@@ -118,48 +159,27 @@ public class SessionService {
             throw new IllegalArgumentException("SessionDTO and its ID cannot be null or empty for updates.");
         }
 
-        boolean sessionSaved = false;
-        boolean speakerAssigned = false;
-        boolean conferenceUpdated = false;
-
         try {
             // prepare data for validation
             ConferenceDTO conferenceDTO = serviceMediator.getConferenceById(sessionDTO.getConferenceId());
-            List<SessionDTO> conferenceSessions = findAllById(conferenceDTO.getSessions());
-
-            // validate session data for update
-            SessionValidatorService.validateData(sessionDTO, conferenceDTO, conferenceSessions, true);
-
-            // convert DTO to domain object and save
-            Session session = SessionFactory.create(sessionDTO);
-            sessionSaved = sessionRepository.save(session, session.getId());
-            if (!sessionSaved) {
-                throw new SessionException("An unexpected error occurred while saving session data.");
-            }
 
-            // Assign session to speaker
-            serviceMediator.assignNewSessionForSpeaker(sessionDTO);
-            speakerAssigned = true;
+            // validate session data for update against the conference's indexed timeline
+            SessionValidatorService.validateData(sessionDTO, conferenceDTO, sessionRepository.findTimeline(conferenceDTO.getId()), true);
 
-            // Update session in conference
-            serviceMediator.registerSessionInConference(sessionDTO);
-            conferenceUpdated = true;
-
-            SessionNotificationService.notifySessionChange(
-                    sessionDTO,
-                    serviceMediator.findAllUsersById(sessionDTO.getRegisteredAttendees()),
-                    serviceMediator.getUserById(sessionDTO.getSpeakerId())
-            );
-
-            LoggerUtil.getInstance().logInfo(String.format("Session '%s' has been successfully updated.", session.getName()));
+            // save the session and its references to speaker and conference together
+            saveWithReferences(sessionDTO);
         } catch (Exception e) {
             LoggerUtil.getInstance().logError(String.format("Failed to update session '%s': %s", sessionDTO.getName(), e.getMessage()));
-
-            // rolling back changes
-            rollbackCreateOrUpdate(sessionDTO, sessionSaved, speakerAssigned, conferenceUpdated);
-
             throw new SessionException(String.format("An error occurred when updating session: %s", e.getMessage()));
         }
+
+        SessionNotificationService.notifySessionChange(
+                sessionDTO,
+                serviceMediator.findAllUsersById(sessionDTO.getRegisteredAttendees()),
+                serviceMediator.getUserById(sessionDTO.getSpeakerId())
+        );
+
+        LoggerUtil.getInstance().logInfo(String.format("Session '%s' has been successfully updated.", sessionDTO.getName()));
     }
 
     public void addFeedback(String id, String feedbackId) {
@@ -167,15 +187,7 @@ public class SessionService {
             throw new IllegalArgumentException("Invalid session id and/or feedback id.");
         }
 
-        Optional<Session> sessionOptional = sessionRepository.findById(id);
-        if (sessionOptional.isEmpty()) {
-            throw new SessionException(String.format("Session with id '%s' does not exist.", id));
-        }
-
-        Session session = sessionOptional.get();
-        session.addFeedback(feedbackId);
-
-        sessionRepository.save(session, session.getId());
+        changeSession(id, session -> session.addFeedback(feedbackId));
     }
 
     public void markAttendeeAsPresent(String id, String attendeeId) {
@@ -183,15 +195,62 @@ public class SessionService {
             throw new IllegalArgumentException("Invalid session id and/or attendee id.");
         }
 
-        Optional<Session> sessionOptional = sessionRepository.findById(id);
-        if (sessionOptional.isEmpty()) {
-            throw new SessionException(String.format("Session with id '%s' does not exist.", id));
+        changeSession(id, session -> session.markAttendeeAsPresent(attendeeId));
+    }
+
+    // checks a whole batch of attendees in with a single save; results are keyed by attendee id in the order given
+    public Map<String, AttendanceResult> markAttendeesPresent(String id, Collection<String> attendeeIds) {
+        if (id == null || id.isEmpty() || attendeeIds == null) {
+            throw new IllegalArgumentException("Invalid session id and/or attendee ids.");
         }
 
-        Session session = sessionOptional.get();
-        session.markAttendeeAsPresent(attendeeId);
+        String sessionName = sessionRepository.findById(id)
+                .map(Session::getName)
+                .orElseThrow(() -> new SessionException(String.format("Session with id '%s' does not exist.", id)));
+
+        Map<String, AttendanceResult> results = new LinkedHashMap<>();
+        List<String> checkedIn = new ArrayList<>();
+        boolean isCommitted = UnitOfWork.run(() -> {
+            // read inside the unit so the batch is applied to a private copy, not the session other threads see
+            Session session = sessionRepository.findById(id)
+                    .orElseThrow(() -> new SessionException(String.format("Session with id '%s' does not exist.", id)));
+            Set<String> registeredAttendees = session.getRegisteredAttendees();
+            Set<String> presentAttendees = session.getPresentAttendees();
+
+            for (String attendeeId : attendeeIds) {
+                if (attendeeId == null || results.containsKey(attendeeId)) continue;
+
+                if (!registeredAttendees.contains(attendeeId)) {
+                    results.put(attendeeId, AttendanceResult.NOT_REGISTERED);
+                } else if (presentAttendees.contains(attendeeId)) {
+                    results.put(attendeeId, AttendanceResult.ALREADY_PRESENT);
+                } else {
+                    results.put(attendeeId, AttendanceResult.PRESENT);
+                    checkedIn.add(attendeeId);
+                }
+            }
+
+            if (!checkedIn.isEmpty()) {
+                session.markAttendeesAsPresent(checkedIn);
+                sessionRepository.save(session, session.getId());
+            }
+        });
+        if (!isCommitted) {
+            throw new SessionException(String.format("An unexpected error occurred when checking in %d attendees to session '%s'.", checkedIn.size(), sessionName));
+        }
+
+        LoggerUtil.getInstance().logInfo(String.format("Checked in %d of %d attendees to session '%s'.", checkedIn.size(), results.size(), sessionName));
+        return results;
+    }
+
+    // streaming check-in: scans queued at the desk are marked present in batches, one save per batch
+    public CheckInDesk openCheckInDesk(String id, Consumer<Map<String, AttendanceResult>> resultsConsumer) {
+        if (id == null || id.isEmpty() || resultsConsumer == null) {
+            throw new IllegalArgumentException("Invalid session id and/or results consumer.");
+        }
 
-        sessionRepository.save(session, session.getId());
+        getById(id);
+        return new CheckInDesk(id, this, resultsConsumer);
     }
 
     public void markAttendeeAsAbsent(String id, String attendeeId) {
@@ -199,15 +258,7 @@ public class SessionService {
             throw new IllegalArgumentException("Invalid session id and/or attendee id.");
         }
 
-        Optional<Session> sessionOptional = sessionRepository.findById(id);
-        if (sessionOptional.isEmpty()) {
-            throw new SessionException(String.format("Session with id '%s' does not exist.", id));
-        }
-
-        Session session = sessionOptional.get();
-        session.markAttendeeAsAbsent(attendeeId);
-
-        sessionRepository.save(session, session.getId());
+        changeSession(id, session -> session.markAttendeeAsAbsent(attendeeId));
     }
 
     public SessionDTO getById(String id) {
@@ -280,47 +331,45 @@ public class SessionService {
         Session session = sessionOptional.get();
         SessionDTO sessionDTO = mapToDTO(session);
 
-        boolean sessionDeleted = false;
-        boolean sessionRemovedFromConference = false;
-        boolean sessionUnassignedFromSpeaker = false;
         try {
-            // remove session reference from speaker schedule
-            serviceMediator.unassignSessionFromSpeaker(session.getId(), session.getSpeakerId());
-            sessionUnassignedFromSpeaker = true;
-
-            // remove session reference from conference
-            serviceMediator.removeSessionFromConference(session.getId(), session.getConferenceId());
-            sessionRemovedFromConference = true;
-
-            // delete session from repository
-            sessionDeleted = sessionRepository.deleteById(id);
-            if (!sessionDeleted) {
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // remove session reference from speaker schedule
+                serviceMediator.unassignSessionFromSpeaker(session.getId(), session.getSpeakerId());
+
+                // remove session reference from conference
+                serviceMediator.removeSessionFromConference(session.getId(), session.getConferenceId());
+
+                // delete session from repository
+                sessionRepository.deleteById(id);
+
+                // notify attendees and speaker of session cancellation, only once the deletion is committed even
+                // when it is part of a larger unit
+                UnitOfWork.afterCommit(() -> SessionNotificationService.notifySessionDeletion(
+                        sessionDTO, serviceMediator.findAllUsersById(sessionDTO.getRegisteredAttendees()),
+                        serviceMediator.getUserById(sessionDTO.getSpeakerId())));
+            });
+            if (!isCommitted) {
                 throw new SessionException("An unexpected error occurred when deleting session. Please try again later.");
             }
-
-            // notify attendees and speaker of session cancellation
-            SessionNotificationService.notifySessionDeletion(
-                    sessionDTO, serviceMediator.findAllUsersById(sessionDTO.getRegisteredAttendees()),
-                    serviceMediator.getUserById(sessionDTO.getSpeakerId()));
-
         } catch (Exception e) {
             LoggerUtil.getInstance().logError(String.format("Failed to delete session with id '%s': %s", id, e.getMessage()));
 
-            // rolling back changes
-            rollbackDeletion(sessionDTO, sessionDeleted, sessionRemovedFromConference, sessionUnassignedFromSpeaker);
-
             // throwing original exception that caused the error
             throw new SessionException("An error occurred when deleting session: " + e.getMessage());
         }
     }
 
-    public void deleteAllById(Set<String> ids) {
+    // deletes the sessions of a conference that is being deleted along with them; the caller takes care of every
+    // reference to them, so none are cleaned up one session at a time here
+    public void deleteAllOfConference(Set<String> ids) {
         if (ids == null) {
             throw new IllegalArgumentException("Ids cannot be null.");
         }
 
-        // deleting each session and all its associated references
-        ids.forEach(this::deleteById);
+        boolean isDeleted = sessionRepository.deleteAllById(ids);
+        if (!isDeleted) {
+            throw new SessionException("An unexpected error occurred when deleting sessions. Please try again later.");
+        }
     }
 
     public void unregisterAttendee(String id, String attendeeId) {
@@ -328,62 +377,55 @@ public class SessionService {
             throw new IllegalArgumentException("Invalid session id and/or attendee id.");
         }
 
-        Optional<Session> sessionOptional = sessionRepository.findById(id);
-        if (sessionOptional.isEmpty()) {
-            throw new SessionException(String.format("Session with id '%s' does not exist.", id));
-        }
-
-        Session session = sessionOptional.get();
-        session.unregisterAttendee(attendeeId);
-
-        boolean sessionRemovedFromAttendee = false;
         try {
-            // remove session reference from attendee's registered sessions
-            serviceMediator.removeSessionFromAttendee(id, attendeeId);
-            sessionRemovedFromAttendee = true;
-
-            sessionRepository.save(session, session.getId());
+            boolean isCommitted = UnitOfWork.run(() -> {
+                // read inside the unit so the change stays private until it is committed
+                Session session = sessionRepository.findById(id)
+                        .orElseThrow(() -> new SessionException(String.format("Session with id '%s' does not exist.", id)));
+                session.unregisterAttendee(attendeeId);
+
+                // remove session reference from attendee's registered sessions
+                serviceMediator.removeSessionFromAttendee(id, attendeeId);
+
+                sessionRepository.save(session, session.getId());
+            });
+            if (!isCommitted) {
+                throw new SessionException("Changes could not be saved. Please try again later.");
+            }
         } catch (Exception e) {
-            LoggerUtil.getInstance().logError(String.format("Failed to unregister attendee '%s' from session '%s': %s", attendeeId, id, e.getMessage() + e));
-
-            // rollback changes
-            if (sessionRemovedFromAttendee) SessionRollbackService.rollbackSessionRemovedFromAttendee(mapToDTO(session), attendeeId, serviceMediator::addSessionToAttendee);
-
-            throw new SessionException(String.format("An error occurred when unregistering attendee from session: %s", e.getMessage() + e));
+            LoggerUtil.getInstance().logError(String.format("Failed to unregister attendee '%s' from session '%s': %s", attendeeId, id, e.getMessage()));
+            throw new SessionException(String.format("An error occurred when unregistering attendee from session: %s", e.getMessage()));
         }
     }
 
-    // helper rollback methods
-    private void rollbackCreateOrUpdate(SessionDTO sessionDTO, boolean sessionSaved, boolean speakerAssigned, boolean conferenceUpdated) {
-        if (sessionSaved) SessionRollbackService.rollbackSessionSave(sessionDTO.getId(), this::delete);
-        if (speakerAssigned) SessionRollbackService.rollbackSpeakerAssignment(sessionDTO.getId(), sessionDTO.getSpeakerId(), serviceMediator::unassignSessionFromSpeaker);
-        if (conferenceUpdated) SessionRollbackService.rollbackConferenceUpdate(sessionDTO.getId(), sessionDTO.getConferenceId(), serviceMediator::removeSessionFromConference);
-    }
-
-    private void rollbackDeletion(SessionDTO sessionDTO, boolean sessionDeleted, boolean speakerUnassigned, boolean sessionRemovedFromConference) {
-        if (sessionDeleted) SessionRollbackService.rollbackSessionDeletion(sessionDTO, this::save);
-        if (speakerUnassigned) SessionRollbackService.rollbackSpeakerUnassignment(sessionDTO, serviceMediator::assignNewSessionForSpeaker);
-        if (sessionRemovedFromConference) SessionRollbackService.rollbackSessionRemovalFromConference(sessionDTO, serviceMediator::registerSessionInConference);
+    // applies a change to a private copy of the session and saves it as a unit of work, so the cached session is
+    // only replaced once the change is committed and a failed save leaves it as it was
+    private void changeSession(String id, Consumer<Session> change) {
+        boolean isCommitted = UnitOfWork.run(() -> {
+            Session session = sessionRepository.findById(id)
+                    .orElseThrow(() -> new SessionException(String.format("Session with id '%s' does not exist.", id)));
+            change.accept(session);
+            sessionRepository.save(session, session.getId());
+        });
+        if (!isCommitted) {
+            throw new SessionException("Changes could not be saved. Please try again later.");
+        }
     }
 
+    // saves the session and registers it with its speaker and conference as one unit of work
+    private void saveWithReferences(SessionDTO sessionDTO) {
+        boolean isCommitted = UnitOfWork.run(() -> {
+            Session session = SessionFactory.create(sessionDTO);
+            sessionRepository.save(session, session.getId());
 
-    // helper save and delete
-    private void save(SessionDTO sessionDTO) {
-        if (sessionDTO == null) {
-            throw new IllegalArgumentException("SessionDTO cannot be null.");
-        }
-
-        Session session = SessionFactory.create(sessionDTO);
-        boolean saved = sessionRepository.save(session, session.getId());
-        if (!saved) {
-            throw new SessionException("An error occurred when saving session.");
-        }
-    }
+            // assign session to speaker
+            serviceMediator.assignNewSessionForSpeaker(sessionDTO);
 
-    private void delete(String id) {
-        boolean isDeleted = sessionRepository.deleteById(id);
-        if (!isDeleted) {
-            throw new SessionException("An error occurred when deleting session.");
+            // add session to conference
+            serviceMediator.registerSessionInConference(sessionDTO);
+        });
+        if (!isCommitted) {
+            throw new SessionException("An unexpected error occurred while saving session data.");
         }
     }
 
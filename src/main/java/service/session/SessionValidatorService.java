@@ -3,62 +3,52 @@ package service.session;
 import dto.ConferenceDTO;
 import dto.SessionDTO;
 import exception.SessionException;
+import repository.SessionTimeline;
 import util.LoggerUtil;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 public class SessionValidatorService {
 
-    public static void validateData(SessionDTO sessionDTO, ConferenceDTO conferenceDTO, List<SessionDTO> conferenceSessions, boolean isUpdate) {
-        if (sessionDTO == null || conferenceDTO == null || conferenceSessions == null) {
-            throw new IllegalArgumentException("SessionDTO, ConferenceDTO, conference sessions, and existing session names cannot be null.");
+    // conflicts are looked up in the conference's timeline; on update the session itself is left out of every check
+    public static void validateData(SessionDTO sessionDTO, ConferenceDTO conferenceDTO, SessionTimeline timeline, boolean isUpdate) {
+        if (sessionDTO == null || conferenceDTO == null || timeline == null) {
+            throw new IllegalArgumentException("SessionDTO, ConferenceDTO and conference timeline cannot be null.");
         }
 
-        if (isUpdate) {
-            // remove the session from lists to validate correctly during an update
-            conferenceSessions.removeIf(session -> session.getId().equals(sessionDTO.getId()));
-        }
-
-        validateSessionName(sessionDTO.getName(), getSessionNames(conferenceSessions));
-        validateSpeakerAvailability(sessionDTO, conferenceSessions);
-        validateSessionTime(sessionDTO, conferenceSessions, conferenceDTO.getStartDate(), conferenceDTO.getEndDate());
+        String excludedId = isUpdate ? sessionDTO.getId() : null;
+        validateSessionName(sessionDTO.getName(), timeline, excludedId);
+        validateSpeakerAvailability(sessionDTO, timeline, excludedId);
+        validateSessionTime(sessionDTO, timeline, excludedId, conferenceDTO.getStartDate(), conferenceDTO.getEndDate());
     }
 
-    private static void validateSessionName(String sessionName, Set<String> existingSessionNames) {
+    private static void validateSessionName(String sessionName, SessionTimeline timeline, String excludedId) {
         if (sessionName == null || sessionName.isEmpty()) {
             throw new IllegalArgumentException("Session name cannot be null or empty.");
         }
 
-        if (existingSessionNames.contains(sessionName)) {
+        if (timeline.isNameTaken(sessionName, excludedId)) {
             LoggerUtil.getInstance().logError("Session name validation failed: Name is already taken.");
             throw new SessionException("A session with this name is already registered to this conference. Please choose a different name.");
         }
     }
 
-    private static void validateSpeakerAvailability(SessionDTO sessionDTO, List<SessionDTO> conferenceSessions) {
-        String speakerId = sessionDTO.getSpeakerId();
+    private static void validateSpeakerAvailability(SessionDTO sessionDTO, SessionTimeline timeline, String excludedId) {
         LocalDateTime sessionStart = LocalDateTime.of(sessionDTO.getDate(), sessionDTO.getStartTime());
         LocalDateTime sessionEnd = LocalDateTime.of(sessionDTO.getDate(), sessionDTO.getEndTime());
 
-        boolean isSpeakerUnavailable = conferenceSessions.stream()
-                .filter(session -> session.getSpeakerId().equals(speakerId))
-                .anyMatch(session -> session.overlapsWith(sessionStart, sessionEnd));
-
-        if (isSpeakerUnavailable) {
+        if (timeline.isSpeakerBusy(sessionDTO.getSpeakerId(), sessionStart, sessionEnd, excludedId)) {
             LoggerUtil.getInstance().logError("Speaker availability validation failed: Speaker is unavailable.");
             throw new SessionException("The speaker is already assigned to another session during the selected time. " +
                     "Please choose a different speaker or time.");
         }
     }
 
-    private static void validateSessionTime(SessionDTO sessionDTO, List<SessionDTO> conferenceSessions, LocalDate conferenceStartDate, LocalDate conferenceEndDate) {
-        if (sessionDTO == null || conferenceSessions == null || conferenceStartDate == null || conferenceEndDate == null) {
-            throw new IllegalArgumentException("SessionDTO, conference sessions, conference start and end dates cannot be null.");
+    private static void validateSessionTime(SessionDTO sessionDTO, SessionTimeline timeline, String excludedId, LocalDate conferenceStartDate, LocalDate conferenceEndDate) {
+        if (conferenceStartDate == null || conferenceEndDate == null) {
+            throw new IllegalArgumentException("Conference start and end dates cannot be null.");
         }
 
         LocalDateTime conferenceStartDateTime = LocalDateTime.of(conferenceStartDate, LocalTime.MIN);
@@ -74,18 +64,11 @@ public class SessionValidatorService {
             throw new SessionException("Session end time is after the conference end time. Please adjust the session timing.");
         }
 
-        boolean timeConflict = conferenceSessions.stream()
-                .anyMatch(session -> session.overlapsWith(sessionStart, sessionEnd));
-
-        if (timeConflict) {
-            LoggerUtil.getInstance().logError("Session time validation failed: Time slot is already occupied.");
-            throw new SessionException("The selected time slot is already occupied by another session. Please choose a different time.");
+        // parallel tracks are allowed, only the room has to be free
+        if (timeline.isRoomTaken(sessionDTO.getRoom(), sessionStart, sessionEnd, excludedId)) {
+            LoggerUtil.getInstance().logError("Session time validation failed: Room is already booked for the time slot.");
+            throw new SessionException(String.format("Room '%s' is already booked for another session during the selected time. " +
+                    "Please choose a different room or time.", sessionDTO.getRoom()));
         }
     }
-
-    private static Set<String> getSessionNames(List<SessionDTO> sessionDTOs) {
-        return sessionDTOs.stream()
-                .map(SessionDTO::getName)
-                .collect(Collectors.toSet());
-    }
 }
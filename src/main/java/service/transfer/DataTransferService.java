@@ -0,0 +1,437 @@
+package service.transfer;
+
+import domain.factory.ConferenceFactory;
+import domain.factory.SessionFactory;
+import domain.factory.UserFactory;
+import domain.model.Conference;
+import domain.model.Session;
+import domain.model.user.*;
+import dto.ConferenceDTO;
+import dto.RegistrationDTO;
+import dto.SessionDTO;
+import dto.UserDTO;
+import exception.ConferenceException;
+import exception.SessionException;
+import exception.UserException;
+import repository.ConferenceCalendar;
+import repository.ConferenceRepository;
+import repository.SessionRepository;
+import repository.SessionTimeline;
+import repository.UnitOfWork;
+import repository.UserRepository;
+import service.conference.ConferenceValidatorService;
+import service.session.SessionValidatorService;
+import util.LoggerUtil;
+import util.PasswordUtil;
+import util.file.RecordReader;
+import util.file.RecordWriter;
+import util.validation.FormValidator;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// bulk import and export of users, conferences and sessions as CSV or JSON Lines files.
+// imports validate every row with the same rules as the forms and services, report the rows they reject,
+// and write the accepted ones in batches, each batch as one unit of work
+public class DataTransferService {
+    private static final int BATCH_SIZE = 1000;
+
+    private static final List<String> USER_COLUMNS = List.of("id", "email", "name", "role", "bio",
+            "registeredConferences", "schedule", "assignedSessions", "managedConferences");
+    private static final List<String> CONFERENCE_COLUMNS = List.of("id", "organizerId", "name", "description", "startDate", "endDate",
+            "sessions", "attendees", "speakers", "feedback");
+    private static final List<String> SESSION_COLUMNS = List.of("id", "conferenceId", "speakerId", "speakerName", "name", "description",
+            "room", "date", "startTime", "endTime", "registeredAttendees", "presentAttendees", "attendanceRecord");
+
+    private final UserRepository userRepository;
+    private final ConferenceRepository conferenceRepository;
+    private final SessionRepository sessionRepository;
+
+    public DataTransferService(UserRepository userRepository, ConferenceRepository conferenceRepository, SessionRepository sessionRepository) {
+        this.userRepository = userRepository;
+        this.conferenceRepository = conferenceRepository;
+        this.sessionRepository = sessionRepository;
+    }
+
+    // usage: DataTransferService <import|export> <USERS|CONFERENCES|SESSIONS> <file.csv|file.jsonl>, e.g. "import USERS attendees.csv"
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: DataTransferService <import|export> <USERS|CONFERENCES|SESSIONS> <file.csv|file.jsonl>");
+            System.exit(1);
+        }
+
+        DataTransferService service = new DataTransferService(UserRepository.getInstance(), ConferenceRepository.getInstance(), SessionRepository.getInstance());
+        String dataSet = args[1].toUpperCase(), filePath = args[2];
+
+        boolean isSuccessful;
+        if (args[0].equalsIgnoreCase("import")) {
+            ImportReport report = switch (dataSet) {
+                case "USERS" -> service.importUsers(filePath);
+                case "CONFERENCES" -> service.importConferences(filePath);
+                case "SESSIONS" -> service.importSessions(filePath);
+                default -> throw new IllegalArgumentException("Unknown data set: " + args[1]);
+            };
+            System.out.println(report);
+            isSuccessful = report.isSuccessful();
+        } else {
+            isSuccessful = switch (dataSet) {
+                case "USERS" -> service.exportUsers(filePath);
+                case "CONFERENCES" -> service.exportConferences(filePath);
+                case "SESSIONS" -> service.exportSessions(filePath);
+                default -> throw new IllegalArgumentException("Unknown data set: " + args[1]);
+            };
+        }
+        System.exit(isSuccessful ? 0 : 1);
+    }
+
+
+    // IMPORTS
+
+    // columns: email, name, role, bio (speakers), employeeId (organizers), and either password or passwordHash (bcrypt).
+    // seed files should carry hashes: hashing plain passwords is deliberately slow, even when spread over all cores
+    public ImportReport importUsers(String filePath) {
+        Set<String> emails = new HashSet<>();           // emails accepted earlier in the same file
+
+        return importRows(filePath, row -> {
+            UserRole role = UserRole.fromString(required(row, "role"));
+            String email = required(row, "email"), name = required(row, "name");
+            String bio = optional(row, "bio"), employeeId = optional(row, "employeeId");
+            String passwordHash = optional(row, "passwordHash");
+            char[] password = (passwordHash != null ? passwordHash : required(row, "password")).toCharArray();
+
+            FormValidator.validateRegistrationForm(email, name, bio, employeeId, password, password, role);
+            if (userRepository.findByEmail(email).isPresent() || !emails.add(email)) {
+                throw new UserException(String.format("A user with email '%s' is already registered.", email));
+            }
+
+            // plain passwords are only hashed once the batch is written, in parallel
+            return () -> UserFactory.createUser(new RegistrationDTO(email, name, bio, employeeId,
+                    passwordHash != null ? password : PasswordUtil.hashPassword(password).toCharArray(), role));
+        }, this::writeUsers);
+    }
+
+    // columns: id (optional), organizerId or organizerEmail, name, description, startDate, endDate (ISO dates)
+    public ImportReport importConferences(String filePath) {
+        // a copy of the calendar that also holds the conferences accepted earlier in the same file
+        ConferenceCalendar calendar = conferenceRepository.findCalendar().copy();
+        Set<String> ids = new HashSet<>();
+
+        return importRows(filePath, row -> {
+            String name = required(row, "name"), description = required(row, "description");
+            LocalDate startDate = parseDate(row, "startDate"), endDate = parseDate(row, "endDate");
+
+            FormValidator.validateConferenceForm(name, description, startDate, endDate);
+            String organizerId = findReferencedUser(row, "organizer", UserRole.ORGANIZER).getId();
+
+            ConferenceDTO conferenceDTO = ConferenceDTO.builder(organizerId, name, description, startDate, endDate)
+                    .setId(optional(row, "id"))
+                    .build();
+            // generated ids are always free; given ones must be new to both the repository and the file
+            String id = conferenceDTO.getId();
+            if (id != null && (conferenceRepository.findById(id).isPresent() || !ids.add(id))) {
+                throw new ConferenceException(String.format("Conference id '%s' is already in use.", id));
+            }
+            ConferenceValidatorService.validateData(conferenceDTO, calendar, List.of(), false);
+
+            Conference conference = ConferenceFactory.createConference(conferenceDTO);
+            calendar.add(conference);
+            return conference;
+        }, this::writeConferences);
+    }
+
+    // columns: id (optional), conferenceId, speakerId or speakerEmail, name, description, room, date (ISO), startTime, endTime (HH:mm)
+    public ImportReport importSessions(String filePath) {
+        // K: conference id, V: a copy of its timeline that also holds the sessions accepted earlier in the same file
+        Map<String, SessionTimeline> timelines = new HashMap<>();
+        Map<String, ConferenceDTO> conferences = new HashMap<>();
+        Set<String> ids = new HashSet<>();
+
+        return importRows(filePath, row -> {
+            String conferenceId = required(row, "conferenceId");
+            String name = required(row, "name"), description = required(row, "description"), room = required(row, "room");
+            LocalDate date = parseDate(row, "date");
+            LocalTime startTime = parseTime(row, "startTime"), endTime = parseTime(row, "endTime");
+
+            User speaker = findReferencedUser(row, "speaker", UserRole.SPEAKER);
+            String speakerId = speaker.getId();
+            FormValidator.validateSessionForm(name, description, UserDTO.withoutPassword(speaker.getId(), speaker.getEmail(), speaker.getName(), speaker.getRole()),
+                    room, date, startTime, endTime);
+
+            ConferenceDTO conferenceDTO = conferences.computeIfAbsent(conferenceId,
+                    id -> conferenceRepository.findById(id).map(this::mapToDTO).orElse(null));
+            if (conferenceDTO == null) {
+                throw new ConferenceException(String.format("Conference with id '%s' does not exist.", conferenceId));
+            }
+            SessionTimeline timeline = timelines.computeIfAbsent(conferenceId, id -> sessionRepository.findTimeline(id).copy());
+
+            SessionDTO sessionDTO = SessionDTO.builder(conferenceId, speakerId, speaker.getName(), name, room, date, startTime, endTime)
+                    .setId(optional(row, "id"))
+                    .setDescription(description)
+                    .build();
+            String id = sessionDTO.getId();
+            if (id != null && (sessionRepository.findById(id).isPresent() || !ids.add(id))) {
+                throw new SessionException(String.format("Session id '%s' is already in use.", id));
+            }
+            SessionValidatorService.validateData(sessionDTO, conferenceDTO, timeline, false);
+
+            Session session = SessionFactory.create(sessionDTO);
+            timeline.add(session);
+            return session;
+        }, this::writeSessions);
+    }
+
+
+    // EXPORTS
+
+    // password hashes are never exported
+    public boolean exportUsers(String filePath) {
+        return export(filePath, USER_COLUMNS, userRepository.findAll(), user -> {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", user.getId());
+            record.put("email", user.getEmail());
+            record.put("name", user.getName());
+            record.put("role", user.getRole().getDisplayName());
+            switch (user) {
+                case Attendee attendee -> {
+                    record.put("registeredConferences", attendee.getRegisteredConferences());
+                    record.put("schedule", attendee.getSchedule().values().stream().map(Attendee.ScheduledSession::getId).toList());
+                }
+                case Speaker speaker -> {
+                    record.put("bio", speaker.getBio());
+                    record.put("assignedSessions", speaker.getAssignedSessionIds());
+                }
+                case Organizer organizer -> record.put("managedConferences", organizer.getManagedConferences());
+                default -> {}
+            }
+            return record;
+        });
+    }
+
+    public boolean exportConferences(String filePath) {
+        return export(filePath, CONFERENCE_COLUMNS, conferenceRepository.findAll(), conference -> {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", conference.getId());
+            record.put("organizerId", conference.getOrganizerId());
+            record.put("name", conference.getName());
+            record.put("description", conference.getDescription());
+            record.put("startDate", Objects.toString(conference.getStartDate(), null));
+            record.put("endDate", Objects.toString(conference.getEndDate(), null));
+            record.put("sessions", conference.getSessions());
+            record.put("attendees", conference.getAttendees());
+            record.put("speakers", conference.getSpeakers());
+            record.put("feedback", conference.getFeedback());
+            return record;
+        });
+    }
+
+    public boolean exportSessions(String filePath) {
+        return export(filePath, SESSION_COLUMNS, sessionRepository.findAll(), session -> {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", session.getId());
+            record.put("conferenceId", session.getConferenceId());
+            record.put("speakerId", session.getSpeakerId());
+            record.put("speakerName", session.getSpeakerName());
+            record.put("name", session.getName());
+            record.put("description", session.getDescription());
+            record.put("room", session.getRoom());
+            record.put("date", Objects.toString(session.getDate(), null));
+            record.put("startTime", Objects.toString(session.getStartTime(), null));
+            record.put("endTime", Objects.toString(session.getEndTime(), null));
+            record.put("registeredAttendees", session.getRegisteredAttendees());
+            record.put("presentAttendees", session.getPresentAttendees());
+            record.put("attendanceRecord", session.getAttendanceRecord());
+            return record;
+        });
+    }
+
+
+    // helpers
+    private boolean writeUsers(List<Supplier<User>> batch) {
+        List<User> users = batch.parallelStream()
+                .map(Supplier::get)
+                .toList();
+
+        return UnitOfWork.run(() -> users.forEach(user -> userRepository.save(user, user.getId())));
+    }
+
+    private boolean writeConferences(List<Conference> batch) {
+        return UnitOfWork.run(() -> batch.forEach(conference -> {
+            conferenceRepository.save(conference, conference.getId());
+
+            // add reference to conference in organizer's managed conferences
+            Organizer organizer = (Organizer) findWithRole(conference.getOrganizerId(), UserRole.ORGANIZER);
+            organizer.addConference(conference.getId());
+            userRepository.save(organizer, organizer.getId());
+        }));
+    }
+
+    private boolean writeSessions(List<Session> batch) {
+        return UnitOfWork.run(() -> batch.forEach(session -> {
+            sessionRepository.save(session, session.getId());
+
+            // add session and speaker references to conference data
+            Conference conference = conferenceRepository.findById(session.getConferenceId())
+                    .orElseThrow(() -> new ConferenceException(String.format("Conference with id '%s' does not exist.", session.getConferenceId())));
+            conference.addSession(session.getId());
+            conference.addSpeaker(session.getSpeakerId());
+            conferenceRepository.save(conference, conference.getId());
+
+            // assign session to speaker
+            Speaker speaker = (Speaker) findWithRole(session.getSpeakerId(), UserRole.SPEAKER);
+            speaker.assignSession(session.getId(), LocalDateTime.of(session.getDate(), session.getStartTime()),
+                    LocalDateTime.of(session.getDate(), session.getEndTime()));
+            userRepository.save(speaker, speaker.getId());
+        }));
+    }
+
+    // validates each row as it is read and writes the accepted rows once a batch is full
+    private <T> ImportReport importRows(String filePath, RowParser<T> parser, Predicate<List<T>> batchWriter) {
+        ImportReport report = new ImportReport(filePath);
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        List<Long> batchLines = new ArrayList<>(BATCH_SIZE);
+
+        try (RecordReader reader = RecordReader.open(filePath)) {
+            while (true) {
+                Map<String, String> row;
+                try {
+                    row = reader.next();
+                } catch (RecordReader.MalformedRecordException e) {
+                    report.recordRead();
+                    report.recordError(reader.getLineNumber(), e.getMessage());
+                    continue;
+                }
+                if (row == null) break;
+                report.recordRead();
+
+                try {
+                    batch.add(parser.parse(row));
+                    batchLines.add(reader.getLineNumber());
+                } catch (RuntimeException e) {
+                    report.recordError(reader.getLineNumber(), e.getMessage());
+                }
+
+                if (batch.size() == BATCH_SIZE) {
+                    writeBatch(batch, batchLines, batchWriter, report);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to read import file '%s': %s", filePath, e.getMessage()));
+            report.recordError(0, "Failed to read import file: " + e.getMessage());
+        }
+
+        // rows validated before a read failure are still written
+        writeBatch(batch, batchLines, batchWriter, report);
+
+        LoggerUtil.getInstance().logInfo(String.format("Imported %d of %d rows from '%s' with %d errors.",
+                report.getImported(), report.getRowsRead(), filePath, report.getErrors().size()));
+        return report;
+    }
+
+    private <T> void writeBatch(List<T> batch, List<Long> batchLines, Predicate<List<T>> batchWriter, ImportReport report) {
+        if (batch.isEmpty()) return;
+
+        boolean isWritten;
+        try {
+            isWritten = batchWriter.test(batch);
+        } catch (RuntimeException e) {
+            LoggerUtil.getInstance().logError("Failed to write import batch: " + e.getMessage());
+            isWritten = false;
+        }
+
+        if (isWritten) {
+            report.recordImported(batch.size());
+        } else {
+            batchLines.forEach(line -> report.recordError(line, "Row was valid but could not be written to storage."));
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private <T> boolean export(String filePath, List<String> columns, List<T> entities, Function<T, Map<String, Object>> mapper) {
+        try (RecordWriter writer = RecordWriter.open(filePath, columns)) {
+            for (T entity : entities) {
+                writer.write(mapper.apply(entity));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to export to '%s': %s", filePath, e.getMessage()));
+            return false;
+        }
+
+        LoggerUtil.getInstance().logInfo(String.format("Exported %d entities to '%s'.", entities.size(), filePath));
+        return true;
+    }
+
+    // users are referenced by "<prefix>Id" or, since imported users get generated ids, by "<prefix>Email"
+    private User findReferencedUser(Map<String, String> row, String prefix, UserRole requiredRole) {
+        String id = optional(row, prefix + "Id");
+        if (id != null) {
+            return findWithRole(id, requiredRole);
+        }
+
+        String email = required(row, prefix + "Email");
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UserException(String.format("User with email '%s' does not exist.", email)));
+        return findWithRole(user.getId(), requiredRole);
+    }
+
+    private User findWithRole(String id, UserRole requiredRole) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UserException(String.format("User with id '%s' does not exist.", id)));
+        if (user.getRole() != requiredRole) {
+            throw new UserException(String.format("User with id '%s' does not have %s permissions.", id, requiredRole.getDisplayName()));
+        }
+        return user;
+    }
+
+    private static String required(Map<String, String> row, String column) {
+        String value = optional(row, column);
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("Missing value for column '%s'.", column));
+        }
+        return value;
+    }
+
+    // empty cells count as missing
+    private static String optional(Map<String, String> row, String column) {
+        String value = row.get(column);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static LocalDate parseDate(Map<String, String> row, String column) {
+        String value = required(row, column);
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format("Invalid date '%s' in column '%s', expected yyyy-MM-dd.", value, column));
+        }
+    }
+
+    private static LocalTime parseTime(Map<String, String> row, String column) {
+        String value = required(row, column);
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format("Invalid time '%s' in column '%s', expected HH:mm.", value, column));
+        }
+    }
+
+    private ConferenceDTO mapToDTO(Conference conference) {
+        return ConferenceDTO.builder(conference.getOrganizerId(), conference.getName(), conference.getDescription(),
+                        conference.getStartDate(), conference.getEndDate())
+                .setId(conference.getId())
+                .setSessions(conference.getSessions())
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface RowParser<T> {
+        T parse(Map<String, String> row);
+    }
+}
@@ -0,0 +1,76 @@
+package service.transfer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// outcome of a bulk import: how many rows were read and imported, and why each rejected row was rejected
+public class ImportReport {
+    private final String filePath;
+    private int rowsRead;
+    private int imported;
+    private final List<RowError> errors;
+
+    ImportReport(String filePath) {
+        this.filePath = filePath;
+        this.errors = new ArrayList<>();
+    }
+
+    void recordRead() {
+        rowsRead++;
+    }
+
+    void recordImported(int count) {
+        imported += count;
+    }
+
+    void recordError(long line, String message) {
+        errors.add(new RowError(line, message));
+    }
+
+    public boolean isSuccessful() {
+        return errors.isEmpty();
+    }
+
+    public int getRowsRead() {
+        return this.rowsRead;
+    }
+
+    public int getImported() {
+        return this.imported;
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(this.errors);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format("Imported %d of %d rows from '%s'.", imported, rowsRead, filePath));
+        errors.forEach(error -> report.append(System.lineSeparator()).append(error));
+        return report.toString();
+    }
+
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        private RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return this.line;
+        }
+
+        public String getMessage() {
+            return this.message;
+        }
+
+        @Override
+        public String toString() {
+            return line > 0 ? String.format("Line %d: %s", line, message) : message;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package util;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public class CollectionUtils {
@@ -10,4 +9,17 @@ public class CollectionUtils {
                 .flatMap(Optional::stream)
                 .collect(Collectors.toList());
     }
+
+    // copy-on-write: the original set is never modified, so read-only views handed out earlier stay stable snapshots.
+    // the copy is a persistent set that shares all but one path with the original, so only the first change to a set
+    // loaded from storage copies every element
+    public static <T> Set<T> copyWith(Set<T> set, T element) {
+        if (set.contains(element)) return set;
+        return PersistentHashSet.copyOf(set).with(element);
+    }
+
+    public static <T> Set<T> copyWithout(Set<T> set, T element) {
+        if (!set.contains(element)) return set;
+        return PersistentHashSet.copyOf(set).without(element);
+    }
 }
@@ -0,0 +1,168 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+// self-balancing (AVL) tree of closed intervals identified by id, ordered by start and then id; every node also
+// knows the latest end in its subtree, so the intervals overlapping a range are found in O(log n + matches).
+// not thread-safe, callers synchronize
+public class IntervalTree<K extends Comparable<? super K>> {
+
+    private Node<K> root;
+    private int size;
+
+    public void insert(String id, K start, K end) {
+        root = insert(root, new Node<>(id, start, end));
+    }
+
+    // the start is needed to find the interval, ids alone are not ordered
+    public void remove(String id, K start) {
+        root = remove(root, id, start);
+    }
+
+    // whether any interval overlapping [start, end] passes the filter; stops at the first one that does
+    public boolean anyOverlap(K start, K end, Predicate<String> filter) {
+        return anyOverlap(root, start, end, filter);
+    }
+
+    public List<String> findOverlapping(K start, K end) {
+        List<String> ids = new ArrayList<>();
+        anyOverlap(root, start, end, id -> {
+            ids.add(id);
+            return false;
+        });
+        return ids;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // for tests checking the balance
+    int height() {
+        return height(root);
+    }
+
+    private boolean anyOverlap(Node<K> node, K start, K end, Predicate<String> filter) {
+        // nothing in this subtree ends late enough to reach the range
+        if (node == null || node.maxEnd.compareTo(start) < 0) return false;
+
+        if (anyOverlap(node.left, start, end, filter)) return true;
+
+        // this node and everything to its right starts after the range
+        if (node.start.compareTo(end) > 0) return false;
+
+        if (node.end.compareTo(start) >= 0 && filter.test(node.id)) return true;
+        return anyOverlap(node.right, start, end, filter);
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> inserted) {
+        if (node == null) {
+            size++;
+            return inserted;
+        }
+
+        int comparison = compare(inserted.start, inserted.id, node);
+        if (comparison < 0) node.left = insert(node.left, inserted);
+        else if (comparison > 0) node.right = insert(node.right, inserted);
+        else {
+            // same interval inserted again, only its end can differ
+            node.end = inserted.end;
+        }
+        return balance(node);
+    }
+
+    private Node<K> remove(Node<K> node, String id, K start) {
+        if (node == null) return null;
+
+        int comparison = compare(start, id, node);
+        if (comparison < 0) node.left = remove(node.left, id, start);
+        else if (comparison > 0) node.right = remove(node.right, id, start);
+        else {
+            if (node.left == null || node.right == null) {
+                size--;
+                return node.left != null ? node.left : node.right;
+            }
+
+            // replace with the next interval in order, then remove that one from the right subtree
+            Node<K> successor = node.right;
+            while (successor.left != null) successor = successor.left;
+            node.id = successor.id;
+            node.start = successor.start;
+            node.end = successor.end;
+            node.right = remove(node.right, successor.id, successor.start);
+        }
+        return balance(node);
+    }
+
+    private int compare(K start, String id, Node<K> node) {
+        int comparison = start.compareTo(node.start);
+        return comparison != 0 ? comparison : id.compareTo(node.id);
+    }
+
+    private Node<K> balance(Node<K> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<K> rotateRight(Node<K> node) {
+        Node<K> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<K> rotateLeft(Node<K> node) {
+        Node<K> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(Node<K> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.compareTo(node.maxEnd) > 0) node.maxEnd = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd.compareTo(node.maxEnd) > 0) node.maxEnd = node.right.maxEnd;
+    }
+
+    private int height(Node<K> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node<K> {
+        private String id;
+        private K start;
+        private K end;
+        private K maxEnd;
+        private int height;
+        private Node<K> left;
+        private Node<K> right;
+
+        private Node(String id, K start, K end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package util.email;
+
+import domain.model.user.UserRole;
+import dto.UserDTO;
+import util.IdGenerator;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+// one notification for many recipients, journaled by the outbox as a single record. the body is rendered once with
+// a placeholder where the recipient's name goes and kept split at it, so a recipient's copy is only spliced together
+// when it is sent instead of being formatted and stored for every recipient
+public class EmailBatch {
+
+    public static final String NAME_PLACEHOLDER = "\u0000recipient\u0000";
+    private static final Pattern NAME_PATTERN = Pattern.compile(Pattern.quote(NAME_PLACEHOLDER));
+
+    private final String id;
+    private final String subject;
+    private final List<String> bodyParts;           // the body around each occurrence of the recipient's name
+    private final List<Recipient> recipients;
+
+    // no-arg constructor for JSON serialization/de-serialization
+    private EmailBatch() {
+        this.id = null;
+        this.subject = null;
+        this.bodyParts = new ArrayList<>();
+        this.recipients = new ArrayList<>();
+    }
+
+    public EmailBatch(String subject, String body, List<Recipient> recipients) {
+        this.id = IdGenerator.generateUniqueId();
+        this.subject = subject;
+        this.bodyParts = List.of(NAME_PATTERN.split(body, -1));
+        this.recipients = List.copyOf(recipients);
+    }
+
+    private EmailBatch(String subject, List<String> bodyParts, List<Recipient> recipients) {
+        this.id = IdGenerator.generateUniqueId();
+        this.subject = subject;
+        this.bodyParts = bodyParts;
+        this.recipients = List.copyOf(recipients);
+    }
+
+    public static EmailBatch single(String toAddress, String userName, String subject, String body) {
+        return new EmailBatch(subject, body, List.of(new Recipient(toAddress, userName)));
+    }
+
+    // one batch per role among the users, each body rendered once by the renderer from the role and the placeholder name
+    public static List<EmailBatch> forUsers(String subject, Collection<UserDTO> users, BiFunction<UserRole, String, String> bodyRenderer) {
+        Map<UserRole, List<Recipient>> recipientsByRole = new EnumMap<>(UserRole.class);
+        users.forEach(user -> recipientsByRole.computeIfAbsent(user.getRole(), role -> new ArrayList<>())
+                .add(new Recipient(user.getEmail(), user.getName())));
+
+        List<EmailBatch> batches = new ArrayList<>();
+        recipientsByRole.forEach((role, recipients) ->
+                batches.add(new EmailBatch(subject, bodyRenderer.apply(role, NAME_PLACEHOLDER), recipients)));
+        return batches;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getSubject() {
+        return this.subject;
+    }
+
+    public List<String> getBodyParts() {
+        return this.bodyParts;
+    }
+
+    public List<Recipient> getRecipients() {
+        return this.recipients;
+    }
+
+    // a new batch with the same subject and body for some of the recipients
+    EmailBatch withRecipients(List<Recipient> recipients) {
+        return new EmailBatch(subject, bodyParts, recipients);
+    }
+
+    // one email per recipient, identified by the batch id and the recipient's position, leaving out finished ones
+    List<OutgoingEmail> toEmails(Set<String> finishedIds) {
+        List<OutgoingEmail> emails = new ArrayList<>(recipients.size());
+        for (int i = 0; i < recipients.size(); i++) {
+            String emailId = emailId(i);
+            if (finishedIds.contains(emailId)) continue;
+
+            Recipient recipient = recipients.get(i);
+            emails.add(new OutgoingEmail(emailId, recipient.getEmail(), recipient.getName(), subject, bodyParts));
+        }
+        return emails;
+    }
+
+    String emailId(int recipientIndex) {
+        return id + "/" + recipientIndex;
+    }
+
+    static String batchIdOf(String emailId) {
+        return emailId.substring(0, emailId.lastIndexOf('/'));
+    }
+
+    public static class Recipient {
+        private final String email;
+        private final String name;
+
+        // no-arg constructor for JSON serialization/de-serialization
+        private Recipient() {
+            this.email = null;
+            this.name = null;
+        }
+
+        public Recipient(String email, String name) {
+            this.email = email;
+            this.name = name;
+        }
+
+        public String getEmail() {
+            return this.email;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+    }
+}
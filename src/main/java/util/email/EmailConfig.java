@@ -5,7 +5,15 @@ public enum EmailConfig {
     SMTP_PORT("587"),
     SENDER_EMAIL("zeyame14@gmail.com"),
     PASSWORD("qshj louz iwhc rygo"),
-    DISPLAY_NAME("UH Scientific Conferences");
+    DISPLAY_NAME("UH Scientific Conferences"),
+    OUTBOX_JOURNAL_PATH("src/main/resources/data/outbox.journal"),
+    DIGEST_JOURNAL_PATH("src/main/resources/data/digest.journal"),
+    TEMPLATE_DIRECTORY("/templates/email"),      // on the classpath
+    OUTBOX_SENDERS("4"),                // emails sent at the same time, however many are queued
+    OUTBOX_QUEUE_CAPACITY("10000"),     // emails kept in memory, the rest wait in the outbox journal
+    SMTP_POOL_SIZE("4"),                // authenticated connections kept open and reused across emails
+    MAX_SEND_ATTEMPTS("3"),
+    DIGEST_WINDOW_SECONDS("60");        // change notifications about the same session or conference within this are merged
 
     private final String value;
 
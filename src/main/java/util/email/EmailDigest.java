@@ -0,0 +1,342 @@
+package util.email;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import util.IdGenerator;
+import util.LoggerUtil;
+import util.file.JournalFileHandler;
+import util.file.StorageCodec;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+// holds back notifications about an entity, such as a session or a conference, for a short window and passes on only
+// the latest one per recipient, so an entity edited several times in quick succession sends each recipient a single
+// email with its latest details. the window starts with the first notification held for the entity, so steady
+// editing cannot hold emails back for longer than that. whatever is still held when the application stops is passed
+// on at once.
+// every notification held is journaled under its window, together with the time the window ends, and the window is
+// only marked done once the sink has durably taken its emails, so held emails survive a crash and are passed on when
+// their window ends after the next start (at least once, like the outbox). a sink that fails is retried with backoff,
+// and after the last attempt the windows are given up on and marked done, so they are not sent again on every start
+public class EmailDigest {
+
+    private static final TypeReference<Map<String, HeldBatches>> TYPE_REFERENCE = new TypeReference<Map<String, HeldBatches>>() {};
+    private static final long COMPACTION_THRESHOLD_BYTES = 1 << 20;     // the journal is rewritten with only the open windows past this
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+    private static final int MAX_PASS_ATTEMPTS = 5;
+
+    private final long windowMillis;
+    private final String journalPath;
+    private final Predicate<List<EmailBatch>> sink;                      // true once the batches are durable
+    private final long baseBackoffMillis;
+    private final ScheduledExecutorService timer;
+    private final Map<String, Window> heldByEntity = new HashMap<>();    // entity key -> its open window
+    private final Map<String, Window> unclosed = new LinkedHashMap<>();  // window id -> window not yet passed on durably
+    private final Queue<JournalFileHandler.Entry<HeldBatches>> unjournaled = new ConcurrentLinkedQueue<>();    // in the order held
+    private final Object journalLock = new Object();                     // taken before heldByEntity, never after
+    private final AtomicLong emailsHeld = new AtomicLong();
+    private final AtomicLong emailsCoalesced = new AtomicLong();
+
+    public EmailDigest(long windowMillis, String journalPath, Predicate<List<EmailBatch>> sink) {
+        this(windowMillis, journalPath, sink, BASE_BACKOFF_MILLIS);
+    }
+
+    EmailDigest(long windowMillis, String journalPath, Predicate<List<EmailBatch>> sink, long baseBackoffMillis) {
+        if (windowMillis < 0 || journalPath == null || sink == null) {
+            throw new IllegalArgumentException("A digest needs a window that is not negative, a journal and somewhere to pass emails on to.");
+        }
+        this.windowMillis = windowMillis;
+        this.journalPath = journalPath;
+        this.sink = sink;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-digest");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        recover();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushAll, "email-digest-shutdown"));
+    }
+
+    // replaces any email still held for the same entity and recipient; with no window the batches are passed on at once
+    public void submit(String entityKey, List<EmailBatch> batches) {
+        if (entityKey == null) {
+            throw new IllegalArgumentException("Entity key cannot be null.");
+        }
+        if (windowMillis == 0) {
+            pass(batches, () -> {}, 1);
+            return;
+        }
+
+        synchronized (heldByEntity) {
+            Window window = heldByEntity.get(entityKey);
+            if (window == null) {
+                window = open(entityKey, IdGenerator.generateUniqueId(), System.currentTimeMillis() + windowMillis);
+            }
+            window.hold(batches);
+            HeldBatches record = new HeldBatches(entityKey, window.notBefore, batches);
+            unjournaled.add(new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PUT, window.id, record));
+        }
+        journalHeld();
+    }
+
+    // drops what is held for the entity and passes the batches on at once, for notifications that supersede any
+    // earlier one, like a cancellation
+    public void replace(String entityKey, List<EmailBatch> batches) {
+        Window dropped;
+        synchronized (heldByEntity) {
+            dropped = heldByEntity.remove(entityKey);
+            if (dropped != null) {
+                emailsCoalesced.addAndGet(dropped.byRecipient.size());
+            }
+        }
+        pass(batches, dropped == null ? () -> {} : () -> close(List.of(dropped)), 1);
+    }
+
+    public int getHeldCount() {
+        synchronized (heldByEntity) {
+            return heldByEntity.values().stream().mapToInt(window -> window.byRecipient.size()).sum();
+        }
+    }
+
+    public long getEmailsHeld() {
+        return emailsHeld.get();
+    }
+
+    // emails that were replaced by a later one and never sent
+    public long getEmailsCoalesced() {
+        return emailsCoalesced.get();
+    }
+
+    // must be called holding the lock on heldByEntity
+    private Window open(String entityKey, String windowId, long notBefore) {
+        Window window = new Window(windowId, entityKey, notBefore);
+        heldByEntity.put(entityKey, window);
+        unclosed.put(windowId, window);
+        long delay = Math.max(0, notBefore - System.currentTimeMillis());
+        timer.schedule(() -> flush(entityKey, windowId), delay, TimeUnit.MILLISECONDS);
+        return window;
+    }
+
+    // windows still open when the application stopped are held again until they end, or passed on at once if they
+    // already have
+    private void recover() {
+        Map<String, Window> windows = new LinkedHashMap<>();
+        JournalFileHandler.replay(journalPath, StorageCodec.JSON, TYPE_REFERENCE,
+                (windowId, record) -> windows.computeIfAbsent(windowId, id -> new Window(id, record.entityKey, record.notBefore)).hold(record.batches),
+                (windowId, changes) -> {}, windows::remove);
+        if (windows.isEmpty()) {
+            JournalFileHandler.truncate(journalPath);
+            return;
+        }
+
+        // an older window of the same entity was already due and only missed being marked done, it goes first
+        Map<String, Window> latestByEntity = new LinkedHashMap<>();
+        List<Window> due = new ArrayList<>();
+        for (Window recovered : windows.values()) {
+            Window older = latestByEntity.put(recovered.entityKey, recovered);
+            if (older != null) due.add(older);
+        }
+        synchronized (heldByEntity) {
+            // queued on the timer ahead of the windows opened below, which are all still unclosed when it closes them
+            due.forEach(window -> unclosed.put(window.id, window));
+            timer.execute(() -> pass(due));
+            for (Window recovered : latestByEntity.values()) {
+                Window window = open(recovered.entityKey, recovered.id, recovered.notBefore);
+                window.byRecipient.putAll(recovered.byRecipient);
+            }
+        }
+        LoggerUtil.getInstance().logInfo(String.format("Recovered %d held emails from the digest.", windows.values().stream().mapToInt(window -> window.byRecipient.size()).sum()));
+    }
+
+    // a window that was replaced before it ended is no longer held and is skipped
+    private void flush(String entityKey, String windowId) {
+        Window window;
+        synchronized (heldByEntity) {
+            window = heldByEntity.get(entityKey);
+            if (window == null || !window.id.equals(windowId)) return;
+            heldByEntity.remove(entityKey);
+        }
+        pass(List.of(window));
+    }
+
+    private void flushAll() {
+        List<Window> windows;
+        synchronized (heldByEntity) {
+            windows = new ArrayList<>(heldByEntity.values());
+            heldByEntity.clear();
+        }
+        pass(windows);
+    }
+
+    private void pass(List<Window> windows) {
+        if (windows.isEmpty()) return;
+
+        // windows no longer held are not changed anymore, so they are read without the lock
+        List<EmailBatch> batches = new ArrayList<>();
+        windows.forEach(window -> batches.addAll(window.regroup()));
+        pass(batches, () -> close(windows), 1);
+    }
+
+    // hands the batches to the sink, retrying on the timer with backoff while it fails; done runs once the sink has
+    // taken them, or once they are given up on after the last attempt
+    private void pass(List<EmailBatch> batches, Runnable done, int attempt) {
+        String failure;
+        try {
+            if (sink.test(batches)) {
+                done.run();
+                return;
+            }
+            failure = "they could not be made durable";
+        } catch (Exception e) {
+            failure = e.getMessage();
+        }
+
+        if (attempt >= MAX_PASS_ATTEMPTS) {
+            LoggerUtil.getInstance().logError(String.format("Gave up passing on %d digested email batches after %d attempts: %s", batches.size(), attempt, failure));
+            done.run();
+            return;
+        }
+
+        // exponential backoff with jitter, like the outbox's retries
+        long backOffTime = baseBackoffMillis << attempt;
+        long delay = backOffTime / 2 + ThreadLocalRandom.current().nextLong(backOffTime / 2 + 1);
+        LoggerUtil.getInstance().logWarning(String.format("Failed to pass on %d digested email batches, retrying in %d ms: %s", batches.size(), delay, failure));
+        timer.schedule(() -> pass(batches, done, attempt + 1), delay, TimeUnit.MILLISECONDS);
+    }
+
+    // appends every held record not yet journaled with a single write, in the order they were held. each submit queues
+    // its record and calls this, so a submit whose record was already written along with another's writes nothing
+    private void journalHeld() {
+        synchronized (journalLock) {
+            List<JournalFileHandler.Entry<HeldBatches>> entries = new ArrayList<>();
+            for (JournalFileHandler.Entry<HeldBatches> entry; (entry = unjournaled.poll()) != null; ) {
+                entries.add(entry);
+            }
+            if (!JournalFileHandler.append(journalPath, StorageCodec.JSON, entries, TYPE_REFERENCE)) {
+                LoggerUtil.getInstance().logWarning(String.format("%d held emails could not be journaled and will be lost if the application stops before they are passed on.", entries.size()));
+            }
+        }
+    }
+
+    // marks the windows done; the journal is emptied once no window is left, or compacted down to the windows left once
+    // it has grown past the threshold, so a digest that is never idle does not keep every window ever held. what to
+    // write is decided under heldByEntity and written under journalLock only, so submits are not held up by the disk
+    private void close(List<Window> windows) {
+        synchronized (journalLock) {
+            List<JournalFileHandler.Entry<HeldBatches>> entries = new ArrayList<>();
+            boolean isIdle;
+            boolean isCompacting;
+            synchronized (heldByEntity) {
+                windows.forEach(window -> unclosed.remove(window.id));
+                isIdle = unclosed.isEmpty();
+                isCompacting = !isIdle && new File(journalPath).length() > COMPACTION_THRESHOLD_BYTES;
+                if (isIdle || isCompacting) {
+                    // records still queued are of closed windows, or are part of the state the rewrite holds
+                    unjournaled.clear();
+                    unclosed.values().forEach(window -> entries.add(new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PUT, window.id, window.toRecord())));
+                } else {
+                    // records still queued go first, so a window's records never land after its done record
+                    for (JournalFileHandler.Entry<HeldBatches> entry; (entry = unjournaled.poll()) != null; ) {
+                        entries.add(entry);
+                    }
+                    windows.forEach(window -> entries.add(new JournalFileHandler.Entry<>(JournalFileHandler.Operation.DELETE, window.id, null)));
+                }
+            }
+
+            if (isIdle) {
+                JournalFileHandler.truncate(journalPath);
+            } else if (isCompacting) {
+                JournalFileHandler.rewrite(journalPath, StorageCodec.JSON, entries, TYPE_REFERENCE);
+            } else {
+                JournalFileHandler.append(journalPath, StorageCodec.JSON, entries, TYPE_REFERENCE);
+            }
+        }
+    }
+
+    // the emails held about an entity from its first notification until the window ends
+    private class Window {
+        private final String id;
+        private final String entityKey;
+        private final long notBefore;
+        private final Map<String, Held> byRecipient = new LinkedHashMap<>();       // lowercased email -> latest email
+
+        private Window(String id, String entityKey, long notBefore) {
+            this.id = id;
+            this.entityKey = entityKey;
+            this.notBefore = notBefore;
+        }
+
+        private Window hold(List<EmailBatch> batches) {
+            for (EmailBatch batch : batches) {
+                for (EmailBatch.Recipient recipient : batch.getRecipients()) {
+                    if (byRecipient.put(recipient.getEmail().toLowerCase(), new Held(batch, recipient)) != null) {
+                        emailsCoalesced.incrementAndGet();
+                    }
+                    emailsHeld.incrementAndGet();
+                }
+            }
+            return this;
+        }
+
+        // recipients whose latest email came from the same batch share a batch again
+        private List<EmailBatch> regroup() {
+            Map<EmailBatch, List<EmailBatch.Recipient>> recipientsByBatch = new LinkedHashMap<>();
+            byRecipient.values().forEach(email -> recipientsByBatch.computeIfAbsent(email.batch, batch -> new ArrayList<>()).add(email.recipient));
+
+            List<EmailBatch> batches = new ArrayList<>();
+            recipientsByBatch.forEach((batch, recipients) -> batches.add(batch.withRecipients(recipients)));
+            return batches;
+        }
+
+        private HeldBatches toRecord() {
+            return new HeldBatches(entityKey, notBefore, regroup());
+        }
+    }
+
+    private static class Held {
+        private final EmailBatch batch;
+        private final EmailBatch.Recipient recipient;
+
+        private Held(EmailBatch batch, EmailBatch.Recipient recipient) {
+            this.batch = batch;
+            this.recipient = recipient;
+        }
+    }
+
+    // a journal record: batches held in a window, replayed in order so that later ones replace earlier ones again
+    private static class HeldBatches {
+        private final String entityKey;
+        private final long notBefore;
+        private final List<EmailBatch> batches;
+
+        // no-arg constructor for JSON serialization/de-serialization
+        private HeldBatches() {
+            this.entityKey = null;
+            this.notBefore = 0;
+            this.batches = new ArrayList<>();
+        }
+
+        private HeldBatches(String entityKey, long notBefore, List<EmailBatch> batches) {
+            this.entityKey = entityKey;
+            this.notBefore = notBefore;
+            this.batches = batches;
+        }
+
+        public String getEntityKey() {
+            return this.entityKey;
+        }
+
+        public long getNotBefore() {
+            return this.notBefore;
+        }
+
+        public List<EmailBatch> getBatches() {
+            return this.batches;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package util.email;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import util.LoggerUtil;
+import util.file.JournalFileHandler;
+import util.file.StorageCodec;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// durable queue of outgoing emails. every batch is journaled before its emails are queued, and each email is marked
+// done once it is sent or given up on, so whatever was still pending when the application stopped is sent after the
+// next start (at least once: a send finishing just before a crash may be repeated). a fixed pool of sender threads
+// takes one email at a time, so however many are queued no more than that many SMTP sends run at once, and a failed
+// send waits for its retry on a timer instead of holding a sender. only a bounded number of emails is held in memory:
+// batches that do not fit wait in the journal and are read back from where they were written as the senders drain the
+// queue, so a backlog, say while the SMTP server is down, costs disk rather than heap
+public class EmailOutbox {
+
+    private static final TypeReference<Map<String, EmailBatch>> TYPE_REFERENCE = new TypeReference<Map<String, EmailBatch>>() {};
+    private static final long ACK_FLUSH_INTERVAL_MILLIS = 200;         // sent emails are marked done in batches
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+    private static final long COMPACTION_THRESHOLD_BYTES = 4 << 20;    // the journal is rewritten with only the outstanding batches past this
+
+    private final String journalPath;
+    private final int maxAttempts;
+    private final int queueCapacity;
+    private final EmailSender sender;
+    private final BlockingQueue<OutgoingEmail> pending = new LinkedBlockingQueue<>();   // bounded by admit, not by the queue
+    private final Queue<Append> appends = new ConcurrentLinkedQueue<>();                // enqueued, not yet written
+    private final Map<String, JournaledBatch> journaled = new LinkedHashMap<>();        // batch id -> its record, while it has unfinished emails
+    private final Queue<String> spilledBatchIds = new ConcurrentLinkedQueue<>();        // journaled, waiting to be read back, in order
+    private final Queue<String> finishedIds = new ConcurrentLinkedQueue<>();            // sent or given up, not yet journaled as done
+    private final ExecutorService senderPool;
+    private final ScheduledExecutorService timer;
+    private final Object journalLock = new Object();                      // the journal and the batches journaled and spilled
+    private final AtomicInteger unfinished = new AtomicInteger();        // queued or journaled but not yet finished
+
+    @FunctionalInterface
+    public interface EmailSender {
+        void send(OutgoingEmail email) throws Exception;
+    }
+
+    public EmailOutbox(String journalPath, int senderCount, int queueCapacity, int maxAttempts, EmailSender sender) {
+        if (senderCount < 1 || queueCapacity < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("An outbox needs at least one sender, room for one queued email and one attempt per email.");
+        }
+        this.journalPath = journalPath;
+        this.maxAttempts = maxAttempts;
+        this.queueCapacity = queueCapacity;
+        this.sender = sender;
+        this.senderPool = Executors.newFixedThreadPool(senderCount, daemonThreads("email-sender"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("email-outbox-timer"));
+
+        recover();
+        for (int i = 0; i < senderCount; i++) {
+            senderPool.execute(this::sendPending);
+        }
+        timer.scheduleWithFixedDelay(this::flushFinished, ACK_FLUSH_INTERVAL_MILLIS, ACK_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushFinished, "email-outbox-shutdown"));
+    }
+
+    // journals the batches before handing their emails to the senders, or leaving them in the journal if the queue is
+    // full; never waits for a send. batches enqueued while another enqueue is writing share its next write and force
+    public boolean enqueue(List<EmailBatch> batches) {
+        if (batches == null || batches.isEmpty()) {
+            return true;
+        }
+
+        Append append = new Append(batches);
+        appends.add(append);
+        synchronized (journalLock) {
+            if (!append.isWritten) {
+                writeAppends();
+            }
+        }
+        if (!append.isJournaled) {
+            int emailCount = batches.stream().mapToInt(batch -> batch.getRecipients().size()).sum();
+            LoggerUtil.getInstance().logWarning(String.format("%d emails could not be journaled and will be lost if the application stops before they are sent.", emailCount));
+        }
+        return append.isJournaled;
+    }
+
+    public int getPendingCount() {
+        return unfinished.get();
+    }
+
+    // batches journaled but never marked done are spilled and read back in their original order, as far as they fit;
+    // the journal is replayed once here and only read at the tracked places of its batches after that
+    private void recover() {
+        Map<String, JournaledBatch> batches = new LinkedHashMap<>();
+        Set<String> finished = new HashSet<>();
+        JournalFileHandler.replay(journalPath, StorageCodec.JSON, TYPE_REFERENCE,
+                (id, batch, offset, end) -> batches.put(id, new JournaledBatch(batch.getRecipients().size(), offset, end)),
+                (id, changes) -> {}, finished::add);
+        for (String emailId : finished) {
+            JournaledBatch batch = batches.get(EmailBatch.batchIdOf(emailId));
+            if (batch != null) batch.finish(emailId);
+        }
+
+        int unsent = 0;
+        synchronized (journalLock) {
+            for (Map.Entry<String, JournaledBatch> entry : batches.entrySet()) {
+                JournaledBatch batch = entry.getValue();
+                if (batch.getUnfinishedCount() == 0) continue;
+
+                journaled.put(entry.getKey(), batch);
+                spilledBatchIds.add(entry.getKey());
+                unsent += batch.getUnfinishedCount();
+            }
+            if (unsent == 0) {
+                JournalFileHandler.truncate(journalPath);
+                return;
+            }
+            unfinished.set(unsent);
+            readBackSpilled();
+        }
+        LoggerUtil.getInstance().logInfo(String.format("Recovered %d unsent emails from the outbox.", unsent));
+    }
+
+    // writes every enqueued batch not yet written with a single append, in the order they were enqueued, and admits
+    // their emails. must be called holding journalLock
+    private void writeAppends() {
+        List<Append> written = new ArrayList<>();
+        List<JournalFileHandler.Entry<EmailBatch>> entries = new ArrayList<>();
+        for (Append append; (append = appends.poll()) != null; ) {
+            written.add(append);
+            append.batches.forEach(batch -> entries.add(new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PUT, batch.getId(), batch)));
+        }
+
+        long[] offsets = JournalFileHandler.appendLocated(journalPath, StorageCodec.JSON, entries, TYPE_REFERENCE);
+        int record = 0;
+        for (Append append : written) {
+            for (EmailBatch batch : append.batches) {
+                if (offsets != null) {
+                    admit(batch, offsets[record], offsets[record + 1]);
+                } else {
+                    admitUnjournaled(batch);
+                }
+                record++;
+            }
+            append.isJournaled = offsets != null;
+            append.isWritten = true;
+        }
+    }
+
+    // queues the batch's emails if they fit, or if nothing else is queued so a batch larger than the queue still goes
+    // out, and spills the batch otherwise; nothing is queued past a spilled batch, to keep the order.
+    // must be called holding journalLock
+    private void admit(EmailBatch batch, long offset, long end) {
+        int emailCount = batch.getRecipients().size();
+        if (emailCount == 0) return;
+
+        journaled.put(batch.getId(), new JournaledBatch(emailCount, offset, end));
+        unfinished.addAndGet(emailCount);
+        if (spilledBatchIds.isEmpty() && fits(emailCount)) {
+            pending.addAll(batch.toEmails(Set.of()));
+        } else {
+            spilledBatchIds.add(batch.getId());
+        }
+    }
+
+    // a batch that could not be journaled has nothing to be read back from, so what does not fit is dropped rather than
+    // held past the bound. must be called holding journalLock
+    private void admitUnjournaled(EmailBatch batch) {
+        int emailCount = batch.getRecipients().size();
+        if (emailCount == 0) return;
+
+        if (fits(emailCount)) {
+            unfinished.addAndGet(emailCount);
+            pending.addAll(batch.toEmails(Set.of()));
+        } else {
+            LoggerUtil.getInstance().logError(String.format("Dropped %d emails that could neither be journaled nor queued.", emailCount));
+        }
+    }
+
+    private boolean fits(int emailCount) {
+        return pending.isEmpty() || pending.size() + emailCount <= queueCapacity;
+    }
+
+    // reads spilled batches back from the journal once the queue is down to half its capacity
+    private void refill() {
+        if (spilledBatchIds.isEmpty() || pending.size() > queueCapacity / 2) return;
+
+        synchronized (journalLock) {
+            readBackSpilled();
+        }
+    }
+
+    // reads spilled batches back from where they were written, in order, as far as they fit.
+    // must be called holding journalLock
+    private void readBackSpilled() {
+        for (String batchId; (batchId = spilledBatchIds.peek()) != null; ) {
+            JournaledBatch batch = journaled.get(batchId);
+            if (!fits(batch.getUnfinishedCount())) return;
+
+            spilledBatchIds.poll();
+            Optional<EmailBatch> read = JournalFileHandler.readEntity(journalPath, StorageCodec.JSON, TYPE_REFERENCE, batch.offset, batch.end);
+            if (read.isEmpty()) {
+                // its emails can never be sent, so they no longer keep the journal from being emptied
+                LoggerUtil.getInstance().logError(String.format("Spilled email batch '%s' could not be read back from the outbox journal.", batchId));
+                journaled.remove(batchId);
+                unfinished.addAndGet(-batch.getUnfinishedCount());
+                continue;
+            }
+            pending.addAll(read.get().toEmails(batch.finishedIds));
+        }
+    }
+
+    private void sendPending() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                send(pending.take());
+                refill();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void send(OutgoingEmail email) {
+        try {
+            sender.send(email);
+            LoggerUtil.getInstance().logInfo(String.format("An email has successfully been sent to '%s'.", email.getToAddress()));
+            finishedIds.add(email.getId());
+        } catch (Exception e) {
+            email.recordAttempt();
+            if (email.getAttempts() >= maxAttempts) {
+                LoggerUtil.getInstance().logError("Failed to send email to " + email.getToAddress() + " after " + email.getAttempts() + " attempts: " + e.getMessage());
+                finishedIds.add(email.getId());
+                return;
+            }
+
+            // exponential backoff with jitter, so emails that failed together are not all retried at the same moment.
+            // a retry goes back into the queue regardless of its capacity, as it was admitted once already
+            long backOffTime = BASE_BACKOFF_MILLIS << email.getAttempts();
+            long delay = backOffTime / 2 + ThreadLocalRandom.current().nextLong(backOffTime / 2 + 1);
+            timer.schedule(() -> pending.add(email), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // journals the finished emails as done, or empties the journal once nothing in it is unfinished
+    private void flushFinished() {
+        synchronized (journalLock) {
+            List<JournalFileHandler.Entry<EmailBatch>> entries = new ArrayList<>();
+            int finishedCount = 0;
+            for (String emailId; (emailId = finishedIds.poll()) != null; finishedCount++) {
+                String batchId = EmailBatch.batchIdOf(emailId);
+                JournaledBatch batch = journaled.get(batchId);
+                if (batch == null) continue;       // it was never journaled
+
+                entries.add(new JournalFileHandler.Entry<>(JournalFileHandler.Operation.DELETE, emailId, null));
+                if (batch.finish(emailId)) {
+                    journaled.remove(batchId);
+                }
+            }
+            if (finishedCount == 0) return;
+
+            if (unfinished.addAndGet(-finishedCount) == 0) {
+                JournalFileHandler.truncate(journalPath);
+            } else {
+                JournalFileHandler.append(journalPath, StorageCodec.JSON, entries, TYPE_REFERENCE);
+                long length = new File(journalPath).length();
+                if (length > COMPACTION_THRESHOLD_BYTES && length > 2 * liveBytes()) {
+                    compact();
+                }
+            }
+        }
+    }
+
+    // the bytes of the journal taken up by batches that still have unfinished emails; compacting only pays off once
+    // most of the journal is past that, otherwise a backlog larger than the threshold would be copied on every flush.
+    // must be called holding journalLock
+    private long liveBytes() {
+        return journaled.values().stream().mapToLong(batch -> batch.end - batch.offset).sum();
+    }
+
+    // rewrites the journal with only the records of batches that still have unfinished emails, copied from where they
+    // are tracked rather than found by replaying the journal, followed by the done records of their finished emails,
+    // so an outbox that is never idle does not keep every email it ever sent. must be called holding journalLock
+    private void compact() {
+        List<JournaledBatch> live = new ArrayList<>(journaled.values());
+        List<long[]> ranges = new ArrayList<>(live.size());
+        List<JournalFileHandler.Entry<EmailBatch>> entries = new ArrayList<>();
+        for (JournaledBatch batch : live) {
+            ranges.add(new long[]{batch.offset, batch.end});
+            batch.finishedIds.forEach(id -> entries.add(new JournalFileHandler.Entry<>(JournalFileHandler.Operation.DELETE, id, null)));
+        }
+
+        long[] starts = JournalFileHandler.rewriteKeeping(journalPath, StorageCodec.JSON, ranges, entries, TYPE_REFERENCE);
+        if (starts == null) return;
+        for (int i = 0; i < live.size(); i++) {
+            live.get(i).moveTo(starts[i]);
+        }
+    }
+
+    // the outbox lives as long as the application and never keeps it from exiting
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // batches enqueued together, written by whichever enqueue takes the journal first. read and written holding
+    // journalLock
+    private static class Append {
+        private final List<EmailBatch> batches;
+        private boolean isWritten;
+        private boolean isJournaled;
+
+        private Append(List<EmailBatch> batches) {
+            this.batches = batches;
+        }
+    }
+
+    // where a batch's record is in the journal and which of its emails are finished
+    private static class JournaledBatch {
+        private final int emailCount;
+        private final Set<String> finishedIds = new HashSet<>();
+        private long offset;
+        private long end;
+
+        private JournaledBatch(int emailCount, long offset, long end) {
+            this.emailCount = emailCount;
+            this.offset = offset;
+            this.end = end;
+        }
+
+        // true once every email of the batch is finished
+        private boolean finish(String emailId) {
+            finishedIds.add(emailId);
+            return finishedIds.size() == emailCount;
+        }
+
+        private int getUnfinishedCount() {
+            return emailCount - finishedIds.size();
+        }
+
+        private void moveTo(long offset) {
+            this.end = offset + (this.end - this.offset);
+            this.offset = offset;
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package util.email;
 
 import domain.model.user.UserRole;
-import util.LoggerUtil;
 
 import javax.mail.*;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 import java.io.UnsupportedEncodingException;
-import java.util.concurrent.CompletableFuture;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class EmailService {
     private final Session session;
+    private final InternetAddress fromAddress;
+    private final TransportPool transportPool;
+    private final EmailOutbox outbox;
+    private final EmailDigest digest;
     private static EmailService instance;
 
     private final String welcomeSubject = "Welcome to UH Scientific Conferences";
@@ -18,65 +22,79 @@ public class EmailService {
 
     private EmailService() {
         this.session = EmailSessionFactory.createEmailSession();
+        this.fromAddress = createFromAddress();
+        this.transportPool = new TransportPool(session, Integer.parseInt(EmailConfig.SMTP_POOL_SIZE.getValue()));
+        Runtime.getRuntime().addShutdownHook(new Thread(transportPool::close, "smtp-pool-shutdown"));
+        this.outbox = new EmailOutbox(
+                EmailConfig.OUTBOX_JOURNAL_PATH.getValue(),
+                Integer.parseInt(EmailConfig.OUTBOX_SENDERS.getValue()),
+                Integer.parseInt(EmailConfig.OUTBOX_QUEUE_CAPACITY.getValue()),
+                Integer.parseInt(EmailConfig.MAX_SEND_ATTEMPTS.getValue()),
+                this::deliver
+        );
+        this.digest = new EmailDigest(
+                TimeUnit.SECONDS.toMillis(Long.parseLong(EmailConfig.DIGEST_WINDOW_SECONDS.getValue())),
+                EmailConfig.DIGEST_JOURNAL_PATH.getValue(),
+                outbox::enqueue
+        );
     }
 
-    public static EmailService getInstance() {
+    public static synchronized EmailService getInstance() {
         if (instance == null) instance = new EmailService();
         return instance;
     }
 
     public void sendWelcomeEmail(String toAddress, String userName, UserRole role) {
-        String welcomeAttendee = EmailContentService.getWelcomeMessage(userName, role);
-        String welcomeOrganizer = EmailContentService.getWelcomeMessage(userName, role);
-        String welcomeSpeaker = EmailContentService.getWelcomeMessage(userName, role);
-
-        switch (role) {
-            case ATTENDEE -> CompletableFuture.runAsync(() ->
-                    sendEmail(toAddress, userName, welcomeSubject, welcomeAttendee));
-            case ORGANIZER -> CompletableFuture.runAsync(() ->
-                    sendEmail(toAddress, userName, welcomeSubject, welcomeOrganizer));
-            case SPEAKER -> CompletableFuture.runAsync(() ->
-                    sendEmail(toAddress, userName, welcomeSubject, welcomeSpeaker));
-        }
+        sendEmail(toAddress, userName, welcomeSubject, EmailContentService.getWelcomeMessage(userName, role));
     }
 
-
+    // queued in the outbox and sent in the background, retries included
     public void sendEmail(String toAddress, String userName, String subject, String body) {
-        final int MAX_ATTEMPTS = 3;
-        int attempt = 0;
-        while (attempt < MAX_ATTEMPTS) {
-            try {
-                Message message = new MimeMessage(session);
-
-                message.setFrom(new InternetAddress(EmailConfig.SENDER_EMAIL.getValue(), EmailConfig.DISPLAY_NAME.getValue()));
-
-                message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toAddress));
-                message.setSubject(subject);
-
-                String content = String.format(body, userName);
-                message.setText(content);
-
-                Transport.send(message);
-
-                LoggerUtil.getInstance().logInfo(String.format("An email has successfully been sent to '%s'.", toAddress));
-                return;
-            } catch (MessagingException | UnsupportedEncodingException e) {
-                attempt++;
-                if (attempt >= MAX_ATTEMPTS) {
-                    LoggerUtil.getInstance().logError("Failed to send email to " + toAddress + " after " + attempt + " attempts: " + e.getMessage());
-                } else {
-                    try {
-                        long backOffTime = (long) Math.pow(2, attempt) * 1000;          // exponential backoff
-                        Thread.sleep(backOffTime);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();;
-                    }
-                }
-            }
-        }
+        outbox.enqueue(List.of(EmailBatch.single(toAddress, userName, subject, body)));
     }
 
-}
+    // queues all batches with a single write to the outbox
+    public void sendEmails(List<EmailBatch> batches) {
+        outbox.enqueue(batches);
+    }
 
+    // held back for the digest window, within which only the latest batches about the entity reach each recipient
+    public void sendLatestEmails(String entityKey, List<EmailBatch> batches) {
+        digest.submit(entityKey, batches);
+    }
 
+    // sent at once, dropping whatever is still held back about the entity
+    public void sendFinalEmails(String entityKey, List<EmailBatch> batches) {
+        digest.replace(entityKey, batches);
+    }
 
+    public EmailDigest getDigest() {
+        return this.digest;
+    }
+
+    public TransportPool getTransportPool() {
+        return this.transportPool;
+    }
+
+    // a single attempt over a pooled connection, the outbox decides whether to retry
+    private void deliver(OutgoingEmail email) throws MessagingException {
+        Message message = new MimeMessage(session);
+
+        message.setFrom(fromAddress);
+
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(email.getToAddress()));
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+
+        transportPool.send(message);
+    }
+
+    // the same sender for every email, so its display name is only encoded once
+    private static InternetAddress createFromAddress() {
+        try {
+            return new InternetAddress(EmailConfig.SENDER_EMAIL.getValue(), EmailConfig.DISPLAY_NAME.getValue());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("Invalid sender display name: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package util.email;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// an email body with {{key}} placeholders, split once into the text between the placeholders and their keys, so
+// rendering only appends segments instead of parsing a format string for every email. templates are read from the
+// template directory on the classpath the first time they are used and kept for the life of the application
+public class EmailTemplate {
+
+    private static final String OPENING = "{{";
+    private static final String CLOSING = "}}";
+    private static final int INITIAL_CAPACITY = 2048;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;        // a thread's builder is dropped once it grows past this
+
+    private static final Map<String, EmailTemplate> TEMPLATES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    private final String name;
+    private final String[] literals;            // one more than there are keys: the text before, between and after them
+    private final String[] keys;
+
+    private EmailTemplate(String name, String[] literals, String[] keys) {
+        this.name = name;
+        this.literals = literals;
+        this.keys = keys;
+    }
+
+    public static EmailTemplate get(String name) {
+        return TEMPLATES.computeIfAbsent(name, EmailTemplate::load);
+    }
+
+    public static EmailTemplate compile(String name, String source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Email template '" + name + "' has no content.");
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int position = 0;
+        int opening;
+        while ((opening = source.indexOf(OPENING, position)) >= 0) {
+            int closing = source.indexOf(CLOSING, opening + OPENING.length());
+            if (closing < 0) {
+                throw new IllegalArgumentException("Email template '" + name + "' has an unclosed placeholder at position " + opening + ".");
+            }
+            literals.add(source.substring(position, opening));
+            keys.add(source.substring(opening + OPENING.length(), closing).trim());
+            position = closing + CLOSING.length();
+        }
+        literals.add(source.substring(position));
+        return new EmailTemplate(name, literals.toArray(String[]::new), keys.toArray(String[]::new));
+    }
+
+    // values are appended as String.valueOf would print them, so a null value shows as "null" like it did with String.format
+    public String render(Map<String, ?> values) {
+        StringBuilder body = buffer();
+        body.append(literals[0]);
+        for (int i = 0; i < keys.length; i++) {
+            Object value = values.get(keys[i]);
+            if (value == null && !values.containsKey(keys[i])) {
+                throw new IllegalArgumentException("No value given for '" + keys[i] + "' in email template '" + name + "'.");
+            }
+            body.append(value).append(literals[i + 1]);
+        }
+        return body.toString();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    // the calling thread's builder, emptied; only valid until the thread asks for it again
+    static StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(INITIAL_CAPACITY);
+            BUFFER.set(buffer);
+        }
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    // read from the classpath, so templates are found in the packaged application wherever it is started from
+    private static EmailTemplate load(String name) {
+        String resource = EmailConfig.TEMPLATE_DIRECTORY.getValue() + "/" + name + ".txt";
+        try (InputStream in = EmailTemplate.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Email template '" + name + "' was not found on the classpath at '" + resource + "'.");
+            }
+            return compile(name, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Email template '" + name + "' could not be read from '" + resource + "'.", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package util.email;
+
+import java.util.List;
+
+// a single recipient's copy of an EmailBatch, as queued for the senders; its body shares the batch's parts
+public class OutgoingEmail {
+    private final String id;
+    private final String toAddress;
+    private final String userName;
+    private final String subject;
+    private final List<String> bodyParts;
+    private int attempts;
+
+    OutgoingEmail(String id, String toAddress, String userName, String subject, List<String> bodyParts) {
+        this.id = id;
+        this.toAddress = toAddress;
+        this.userName = userName;
+        this.subject = subject;
+        this.bodyParts = bodyParts;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getToAddress() {
+        return this.toAddress;
+    }
+
+    public String getUserName() {
+        return this.userName;
+    }
+
+    public String getSubject() {
+        return this.subject;
+    }
+
+    // the shared body with the recipient's name spliced in, built in the sending thread's reusable buffer
+    public String getBody() {
+        if (bodyParts.size() == 1) {
+            return bodyParts.get(0);
+        }
+
+        StringBuilder body = EmailTemplate.buffer();
+        body.append(bodyParts.get(0));
+        for (int i = 1; i < bodyParts.size(); i++) {
+            body.append(userName).append(bodyParts.get(i));
+        }
+        return body.toString();
+    }
+
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    void recordAttempt() {
+        this.attempts++;
+    }
+}
@@ -0,0 +1,153 @@
+package util.email;
+
+import util.LoggerUtil;
+
+import javax.mail.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// keeps a fixed number of authenticated SMTP connections and sends every message over one of them, instead of
+// Transport.send connecting, negotiating STARTTLS and authenticating again for each email. connections are opened
+// on first use; one that fails is closed and replaced, and one left idle long enough for the server to have dropped
+// it is reopened before it is used again
+public class TransportPool {
+
+    private static final long MAX_IDLE_MILLIS = 60_000;
+
+    private final Session session;
+    private final int size;
+    private final BlockingQueue<PooledTransport> available;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    public TransportPool(Session session, int size) {
+        if (session == null || size < 1) {
+            throw new IllegalArgumentException("A transport pool needs a mail session and at least one connection.");
+        }
+        this.session = session;
+        this.size = size;
+        this.available = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            available.add(new PooledTransport());
+        }
+    }
+
+    // waits for a free connection when all of them are in use
+    public void send(Message message) throws MessagingException {
+        PooledTransport transport;
+        try {
+            transport = available.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection.", e);
+        }
+
+        try {
+            message.saveChanges();
+            try {
+                transport.send(message);
+            } catch (SendFailedException e) {
+                throw e;
+            } catch (MessagingException e) {
+                // most likely the server dropped the connection, try once more on a fresh one
+                transport.close();
+                reconnects.incrementAndGet();
+                transport.send(message);
+            }
+            messagesSent.incrementAndGet();
+        } catch (SendFailedException e) {
+            // the server refused the message itself, say a recipient it does not accept; the connection is fine and
+            // stays open for the next message
+            sendFailures.incrementAndGet();
+            throw e;
+        } catch (MessagingException e) {
+            sendFailures.incrementAndGet();
+            transport.close();
+            throw e;
+        } finally {
+            available.add(transport);
+        }
+    }
+
+    // closes every connection not in use; the pool opens new ones if it is used again
+    public void close() {
+        List<PooledTransport> transports = new ArrayList<>();
+        available.drainTo(transports);
+        transports.forEach(PooledTransport::close);
+        available.addAll(transports);
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    public long getSendFailures() {
+        return sendFailures.get();
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TransportPool[size=%d, open=%d, opened=%d, sent=%d, failures=%d, reconnects=%d]",
+                size, getOpenConnections(), getConnectionsOpened(), getMessagesSent(), getSendFailures(), getReconnects());
+    }
+
+    // one connection slot of the pool, only ever used by the thread that took it
+    private class PooledTransport {
+        private Transport transport;
+        private long lastUsedMillis;
+
+        private void send(Message message) throws MessagingException {
+            if (transport != null && System.currentTimeMillis() - lastUsedMillis > MAX_IDLE_MILLIS) {
+                close();
+            }
+            if (transport == null) {
+                open();
+            }
+            transport.sendMessage(message, message.getAllRecipients());
+            lastUsedMillis = System.currentTimeMillis();
+        }
+
+        private void open() throws MessagingException {
+            Transport opened = session.getTransport("smtp");
+            opened.connect();
+            transport = opened;
+            openConnections.incrementAndGet();
+            connectionsOpened.incrementAndGet();
+        }
+
+        private void close() {
+            if (transport == null) return;
+
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                LoggerUtil.getInstance().logDebug("Failed to close SMTP connection cleanly: " + e.getMessage());
+            }
+            transport = null;
+            openConnections.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package util.file;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import util.LoggerUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class JournalFileHandler {
+
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+
+    public enum Operation {
+        PUT,
+        PATCH,          // field-level changes to an existing entity
+        DELETE
+    }
+
+    // private no-arg constructor to suppress instantiability
+    private JournalFileHandler() {}
+
+    // a put replayed together with where its record is in the journal, so it can be read back later on its own
+    @FunctionalInterface
+    public interface LocatedPutAction<T> {
+        void accept(String id, T entity, long offset, long end);
+    }
+
+    public static class Entry<T> {
+        private final Operation operation;
+        private final String id;
+        private final T entity;
+        private final List<?> changes;        // PATCH only; the entity still carries the full state for other backends
+
+        public Entry(Operation operation, String id, T entity) {
+            this(operation, id, entity, List.of());
+        }
+
+        public Entry(Operation operation, String id, T entity, List<?> changes) {
+            this.operation = operation;
+            this.id = id;
+            this.entity = entity;
+            this.changes = changes;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public T getEntity() {
+            return entity;
+        }
+
+        public List<?> getChanges() {
+            return changes;
+        }
+    }
+
+    // appends a batch of put/delete records with a single write and a single force to disk
+    public static <T> boolean append(String journalPath, StorageCodec codec, List<Entry<T>> entries, TypeReference<Map<String, T>> typeReference) {
+        return appendLocated(journalPath, codec, entries, typeReference) != null;
+    }
+
+    // appends like append and returns where each record starts, followed by where the last one ends, or null if the
+    // append failed
+    public static <T> long[] appendLocated(String journalPath, StorageCodec codec, List<Entry<T>> entries, TypeReference<Map<String, T>> typeReference) {
+        if (entries.isEmpty()) {
+            return new long[]{0};
+        }
+
+        try (FileChannel channel = FileChannel.open(Path.of(journalPath),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long[] ends = new long[entries.size()];
+            ByteBuffer buffer = ByteBuffer.wrap(encodeRecords(codec, entries, typeReference, ends));
+            long intactLength = channel.size();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                // a batch written only in part would otherwise sit in front of every later append
+                channel.truncate(intactLength);
+                throw e;
+            }
+            return locate(intactLength, ends);
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to append %d records to journal at '%s': %s", entries.size(), journalPath, e.getMessage()));
+            return null;
+        }
+    }
+
+    // replaces the whole journal with the given records, for compacting it down to what is still outstanding; they are
+    // written to a temp file and forced before it is moved over the journal, so a crash leaves either journal intact
+    public static <T> boolean rewrite(String journalPath, StorageCodec codec, List<Entry<T>> entries, TypeReference<Map<String, T>> typeReference) {
+        return rewriteKeeping(journalPath, codec, List.of(), entries, typeReference) != null;
+    }
+
+    // rewrites like rewrite, starting the new journal with the given ranges of the old one, copied as they are, so
+    // records that are still outstanding are neither read nor encoded again. returns where each range starts in the
+    // new journal, or null if the rewrite failed
+    public static <T> long[] rewriteKeeping(String journalPath, StorageCodec codec, List<long[]> ranges, List<Entry<T>> entries, TypeReference<Map<String, T>> typeReference) {
+        Path journal = Path.of(journalPath);
+        Path temp = Path.of(journalPath + ".tmp");
+        long[] starts = new long[ranges.size()];
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (!ranges.isEmpty()) {
+                try (FileChannel source = FileChannel.open(journal, StandardOpenOption.READ)) {
+                    for (int i = 0; i < ranges.size(); i++) {
+                        starts[i] = channel.position();
+                        long position = ranges.get(i)[0];
+                        long end = ranges.get(i)[1];
+                        while (position < end) {
+                            long copied = source.transferTo(position, end - position, channel);
+                            if (copied <= 0) throw new EOFException("A range to keep runs past the end of the journal.");
+                            position += copied;
+                        }
+                    }
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(encodeRecords(codec, entries, typeReference, new long[entries.size()]));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to rewrite journal at '%s' with %d records: %s", journalPath, ranges.size() + entries.size(), e.getMessage()));
+            return null;
+        }
+
+        try {
+            Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            JsonFileHandler.forceDirectory(journal);
+            return starts;
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to swap in rewritten journal at '%s' with %d records: %s", journalPath, ranges.size() + entries.size(), e.getMessage()));
+            return null;
+        }
+    }
+
+    // reads back the entity of the put record between the given offsets, as returned by appendLocated, rewriteKeeping
+    // or a located replay
+    public static <T> Optional<T> readEntity(String journalPath, StorageCodec codec, TypeReference<Map<String, T>> typeReference, long offset, long end) {
+        try (FileChannel channel = FileChannel.open(Path.of(journalPath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(end - offset));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("The record runs past the end of the journal.");
+                }
+            }
+
+            // binary records start with their length, JSON records end with a line end
+            int start = codec.isBinary() ? Integer.BYTES : 0;
+            int length = buffer.capacity() - start - (codec.isBinary() ? 0 : 1);
+            ObjectMapper codecMapper = codec.getObjectMapper();
+            JsonNode record = codecMapper.readTree(buffer.array(), start, length);
+            return Optional.of(codecMapper.readerFor(JsonFileHandler.getEntityType(typeReference)).readValue(record.get("entity")));
+        } catch (IOException | RuntimeException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to read back the record at %d in journal at '%s': %s", offset, journalPath, e.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    // replays every intact record in order and returns the number of records applied. replay stops at the first record
+    // that cannot be read, which after a crash is the one torn mid-append; the journal is cut back to the records
+    // before it, so later appends are not stranded behind it, and what was cut off is kept next to the journal
+    public static <T> int replay(String journalPath, StorageCodec codec, TypeReference<Map<String, T>> typeReference,
+                                 BiConsumer<String, T> putAction, BiConsumer<String, JsonNode> patchAction, Consumer<String> deleteAction) {
+        return replay(journalPath, codec, typeReference, (id, entity, offset, end) -> putAction.accept(id, entity), patchAction, deleteAction);
+    }
+
+    // replays like replay, handing every put the place of its record
+    public static <T> int replay(String journalPath, StorageCodec codec, TypeReference<Map<String, T>> typeReference,
+                                 LocatedPutAction<T> putAction, BiConsumer<String, JsonNode> patchAction, Consumer<String> deleteAction) {
+        File file = new File(journalPath);
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+
+        ObjectMapper codecMapper = codec.getObjectMapper();
+        ObjectReader entityReader = codecMapper.readerFor(JsonFileHandler.getEntityType(typeReference));
+        int replayed = 0;
+        long intactLength = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            RecordReader records = codec.isBinary() ? new FramedRecordReader(in, codecMapper, file.length()) : new DelimitedRecordReader(in, codecMapper);
+
+            JsonNode record;
+            while ((record = records.next()) != null) {
+                Operation operation = Operation.valueOf(record.get("op").asText());
+                String id = record.get("id").asText();
+
+                switch (operation) {
+                    case PUT -> putAction.accept(id, entityReader.readValue(record.get("entity")), intactLength, records.getOffset());
+                    case PATCH -> patchAction.accept(id, record.get("changes"));
+                    case DELETE -> deleteAction.accept(id);
+                }
+                replayed++;
+                intactLength = records.getOffset();
+            }
+        } catch (IOException | RuntimeException e) {
+            LoggerUtil.getInstance().logWarning(String.format("Stopped replaying journal at '%s' after %d records: %s", journalPath, replayed, e.getMessage()));
+            discardTail(file.toPath(), intactLength);
+        }
+
+        return replayed;
+    }
+
+    public static boolean truncate(String journalPath) {
+        try (FileChannel channel = FileChannel.open(Path.of(journalPath),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.force(true);
+            return true;
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError("Failed to truncate journal at '" + journalPath + "': " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void discardTail(Path journal, long intactLength) {
+        Path discarded = Path.of(journal + CORRUPT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel copy = FileChannel.open(discarded, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long tail = channel.size() - intactLength;
+            channel.transferTo(intactLength, tail, copy);
+            copy.force(false);
+            channel.truncate(intactLength);
+            channel.force(true);
+            LoggerUtil.getInstance().logWarning(String.format("Cut %d unreadable bytes off journal at '%s', they were moved to '%s'.", tail, journal, discarded));
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError(String.format("Failed to cut the unreadable tail off journal at '%s': %s", journal, e.getMessage()));
+        }
+    }
+
+    // ends is filled with where each record ends in the encoded bytes
+    private static <T> byte[] encodeRecords(StorageCodec codec, List<Entry<T>> entries, TypeReference<Map<String, T>> typeReference, long[] ends) throws IOException {
+        JavaType entityType = JsonFileHandler.getEntityType(typeReference);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * Math.max(entries.size(), 1));
+        for (int i = 0; i < entries.size(); i++) {
+            writeRecord(out, codec, encodeRecord(codec, entries.get(i), entityType));
+            ends[i] = out.size();
+        }
+        return out.toByteArray();
+    }
+
+    private static long[] locate(long start, long[] ends) {
+        long[] offsets = new long[ends.length + 1];
+        offsets[0] = start;
+        for (int i = 0; i < ends.length; i++) {
+            offsets[i + 1] = start + ends[i];
+        }
+        return offsets;
+    }
+
+    private static <T> byte[] encodeRecord(StorageCodec codec, Entry<T> entry, JavaType entityType) throws IOException {
+        ObjectMapper codecMapper = codec.getObjectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = codecMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("op", entry.getOperation().name());
+            generator.writeStringField("id", entry.getId());
+            if (entry.getOperation() == Operation.PUT) {
+                generator.writeFieldName("entity");
+                codecMapper.writerFor(entityType).writeValue(generator, entry.getEntity());
+            } else if (entry.getOperation() == Operation.PATCH) {
+                generator.writeFieldName("changes");
+                codecMapper.writeValue(generator, entry.getChanges());
+            }
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    // JSON records stay newline-delimited so the journal remains readable; binary records are length-prefixed
+    private static void writeRecord(ByteArrayOutputStream out, StorageCodec codec, byte[] record) throws IOException {
+        if (codec.isBinary()) {
+            new DataOutputStream(out).writeInt(record.length);
+            out.write(record);
+        } else {
+            out.write(record);
+            out.write('\n');
+        }
+    }
+
+    private interface RecordReader {
+        JsonNode next() throws IOException;         // null once the journal is exhausted
+
+        long getOffset();                           // just past the last record returned
+    }
+
+    // a record only counts once its newline is written; a last line without one was torn mid-append
+    private static class DelimitedRecordReader implements RecordReader {
+        private final InputStream in;
+        private final ObjectMapper codecMapper;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        private long offset;
+
+        private DelimitedRecordReader(InputStream in, ObjectMapper codecMapper) {
+            this.in = in;
+            this.codecMapper = codecMapper;
+        }
+
+        @Override
+        public JsonNode next() throws IOException {
+            while (true) {
+                line.reset();
+                int b;
+                while ((b = in.read()) >= 0 && b != '\n') {
+                    line.write(b);
+                }
+                if (b < 0) {
+                    if (line.size() == 0) return null;
+                    throw new EOFException("Last record has no line end, it was torn mid-append.");
+                }
+
+                JsonNode record = line.toString(StandardCharsets.UTF_8).isBlank() ? null : codecMapper.readTree(line.toByteArray());
+                offset += line.size() + 1;
+                if (record != null) return record;
+            }
+        }
+
+        @Override
+        public long getOffset() {
+            return this.offset;
+        }
+    }
+
+    private static class FramedRecordReader implements RecordReader {
+        private final DataInputStream in;
+        private final ObjectMapper codecMapper;
+        private final long size;
+        private long offset;
+
+        private FramedRecordReader(InputStream in, ObjectMapper codecMapper, long size) {
+            this.in = new DataInputStream(in);
+            this.codecMapper = codecMapper;
+            this.size = size;
+        }
+
+        @Override
+        public JsonNode next() throws IOException {
+            int first = in.read();
+            if (first < 0) return null;
+
+            // a length prefix or record cut short by a crash ends the journal like a clean end would not
+            int length = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+            if (length < 0 || length > size - offset - Integer.BYTES) {
+                throw new EOFException(String.format("Record of %d bytes runs past the end of the journal, it was torn mid-append.", length));
+            }
+
+            byte[] record = new byte[length];
+            in.readFully(record);
+            JsonNode node = codecMapper.readTree(record);
+            offset += Integer.BYTES + length;
+            return node;
+        }
+
+        @Override
+        public long getOffset() {
+            return this.offset;
+        }
+    }
+}
@@ -1,77 +1,276 @@
 package util.file;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import util.LoggerUtil;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 public class JsonFileHandler {
-    private static final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule());
+    private static final ObjectMapper objectMapper = StorageCodec.JSON.getObjectMapper();
+
+    // every snapshot ends with an ASCII "\n#checksum crc32=<hex> length=<payload bytes>\n" so torn writes are detectable
+    private static final String TRAILER_PREFIX = "\n#checksum ";
+    private static final int MAX_TRAILER_LENGTH = 64;
+    private static final String TEMP_SUFFIX = ".tmp";
+    public static final String PREVIOUS_SUFFIX = ".prev";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final int BUFFER_SIZE = 64 * 1024;
 
 
     // private no-arg constructor to suppress instantiability
     private JsonFileHandler() {}
 
     public static <T> Optional<T> loadData(String filePath, TypeReference<T> typeReference) {
-        File file = new File(filePath);
+        return loadWithFallback(filePath, in -> objectMapper.readValue(in, typeReference));
+    }
 
-        if (!file.exists() || file.length() == 0) {
-            LoggerUtil.getInstance().logInfo("File at path '" + filePath + "' is either missing or empty.");
-            return Optional.empty();
+    // streams the snapshot entity by entity straight into the target map instead of materializing an intermediate map
+    public static <T> boolean loadInto(String filePath, StorageCodec codec, TypeReference<Map<String, T>> typeReference, Map<String, T> target) {
+        ObjectMapper codecMapper = codec.getObjectMapper();
+        ObjectReader entityReader = codecMapper.readerFor(getEntityType(typeReference));
+
+        boolean loaded = loadWithFallback(filePath, in -> {
+            // a partially read generation must not leak into the fallback
+            target.clear();
+            try (JsonParser parser = codecMapper.createParser(in)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected an object of entities keyed by id.");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String id = parser.currentName();
+                    parser.nextToken();
+                    T entity = entityReader.readValue(parser);
+                    // concurrent caches reject null values
+                    if (entity != null) target.put(id, entity);
+                }
+            }
+            return true;
+        }).isPresent();
+
+        if (!loaded) {
+            target.clear();
+        }
+        return loaded;
+    }
+
+    // streams the entities one by one to a temp file, forces it to disk and atomically swaps it in,
+    // keeping the old file as the previous generation
+    public static <T> boolean saveSnapshot(Map<String, T> data, String filePath, StorageCodec codec, TypeReference<Map<String, T>> typeReference) {
+        Path file = Path.of(filePath);
+        Path temp = Path.of(filePath + TEMP_SUFFIX);
+        ObjectMapper codecMapper = codec.getObjectMapper();
+        ObjectWriter entityWriter = codecMapper.writerFor(getEntityType(typeReference));
+
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 checksum = new CRC32();
+            CountingOutputStream payload = new CountingOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), checksum));
+
+            try (JsonGenerator generator = codecMapper.getFactory().createGenerator(payload)) {
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                generator.writeStartObject();
+                for (Map.Entry<String, T> entry : data.entrySet()) {
+                    generator.writeFieldName(entry.getKey());
+                    entityWriter.writeValue(generator, entry.getValue());
+                }
+                generator.writeEndObject();
+            }
+
+            String trailer = String.format("%scrc32=%08x length=%d\n", TRAILER_PREFIX, checksum.getValue(), payload.getCount());
+            payload.write(trailer.getBytes(StandardCharsets.US_ASCII));
+            payload.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            LoggerUtil.getInstance().logError("Failed to save snapshot to file at '" + filePath + "': " + e.getMessage());
+            return false;
+        }
+
+        try {
+            if (isNonEmpty(file)) {
+                keepPrevious(file, Path.of(filePath + PREVIOUS_SUFFIX));
+            }
+            // a single rename, so there is a complete live file at every moment
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(file);
+            return true;
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError("Failed to swap in snapshot at '" + filePath + "': " + e.getMessage());
+            return false;
         }
+    }
 
+    // the previous generation is a hard link to the live file, which the rename then leaves pointing at the old
+    // contents, or a plain copy where the file system has no links
+    private static void keepPrevious(Path file, Path previous) throws IOException {
+        Files.deleteIfExists(previous);
         try {
-            return Optional.of(objectMapper.readValue(file, typeReference));
+            Files.createLink(previous, file);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(file, previous, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // makes the rename itself durable; directories cannot be opened for this on every platform, where it is skipped
+    static void forceDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
         } catch (IOException e) {
-            LoggerUtil.getInstance().logError("Failed to load data from file at path '" + filePath + "': " + e.getMessage());
-            return Optional.empty();
+            LoggerUtil.getInstance().logDebug("Could not force directory '" + directory + "' to disk: " + e.getMessage());
         }
     }
 
-    public static <T> boolean saveDataWithRetry(T data, String filePath, int maxRetries) {
-        int retryCount = 0;
+    private static <R> Optional<R> loadWithFallback(String filePath, SnapshotReader<R> reader) {
+        Path file = Path.of(filePath);
+        Path previous = Path.of(filePath + PREVIOUS_SUFFIX);
 
-        while (retryCount < maxRetries) {
+        if (!isNonEmpty(file) && !isNonEmpty(previous)) {
+            LoggerUtil.getInstance().logInfo("File at path '" + filePath + "' is either missing or empty.");
+            return Optional.empty();
+        }
+
+        if (isNonEmpty(file)) {
             try {
-                saveData(filePath, data);
-                return true;
-            } catch (IOException e) {
-                retryCount++;
-                LoggerUtil.getInstance().logError("Attempt " + retryCount + " to save data to file at '" + filePath + "' failed.");
-
-                if (retryCount >= maxRetries) {
-                    LoggerUtil.getInstance().logError("Exceeded maximum retry attempts to save data to file at '" + filePath + "'.");
-                    return false;
-                }
+                return Optional.of(readSnapshot(file, reader));
+            } catch (IOException | RuntimeException e) {
+                LoggerUtil.getInstance().logError("Failed to load data from file at path '" + filePath + "': " + e.getMessage());
+                quarantine(file);
+            }
+        }
 
-                // Exponential backoff for retries
-                try {
-                    Thread.sleep((long) Math.pow(2, retryCount) * 100);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    return false;
-                }
+        // the live file is missing or damaged, fall back to the previous good generation
+        if (isNonEmpty(previous)) {
+            try {
+                R data = readSnapshot(previous, reader);
+                LoggerUtil.getInstance().logWarning("Recovered data for '" + filePath + "' from its previous snapshot generation.");
+                return Optional.of(data);
+            } catch (IOException | RuntimeException e) {
+                LoggerUtil.getInstance().logError("Failed to load previous snapshot generation for '" + filePath + "': " + e.getMessage());
             }
         }
-        return false;
+
+        return Optional.empty();
     }
 
-    private static <T> void saveData(String filePath, T data) throws IOException {
-        File file = new File(filePath);
+    // the checksum is verified in a first streaming pass so nothing is deserialized from a damaged file;
+    // the parser stops at the end of the root value, so the trailer is never read as data
+    private static <R> R readSnapshot(Path file, SnapshotReader<R> reader) throws IOException {
+        verifyTrailer(file);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            return reader.read(in);
+        }
+    }
+
+    // files written before checksums were introduced have no trailer and are accepted as-is
+    private static void verifyTrailer(Path file) throws IOException {
+        long size = Files.size(file);
+        int tailLength = (int) Math.min(size, MAX_TRAILER_LENGTH);
+        byte[] tailBytes = new byte[tailLength];
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "r")) {
+            randomAccessFile.seek(size - tailLength);
+            randomAccessFile.readFully(tailBytes);
+        }
+
+        String tail = new String(tailBytes, StandardCharsets.US_ASCII);
+        int trailerIndex = tail.lastIndexOf(TRAILER_PREFIX);
+        if (trailerIndex < 0) {
+            return;
+        }
+
+        long payloadLength = size - tailLength + trailerIndex;
+        long expectedChecksum;
+        long expectedLength;
+        try {
+            String[] fields = tail.substring(trailerIndex + TRAILER_PREFIX.length()).trim().split(" ");
+            expectedChecksum = Long.parseLong(fields[0].substring("crc32=".length()), 16);
+            expectedLength = Long.parseLong(fields[1].substring("length=".length()));
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed snapshot trailer in '" + file + "'.");
+        }
 
-        // Create the file if it doesn't exist
-        if (!file.exists()) {
-            if (!file.createNewFile()) {
-                throw new IOException("Unable to create file at path: " + filePath);
+        CRC32 checksum = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(file), checksum)) {
+            long remaining = payloadLength;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) break;
+                remaining -= read;
             }
         }
 
-        // Save data to file
-        objectMapper.writeValue(file, data);
+        if (expectedLength != payloadLength || expectedChecksum != checksum.getValue()) {
+            throw new IOException("Checksum mismatch in '" + file + "', the snapshot is incomplete or corrupted.");
+        }
+    }
+
+    static <T> JavaType getEntityType(TypeReference<Map<String, T>> typeReference) {
+        return objectMapper.getTypeFactory().constructType(typeReference).getContentType();
+    }
+
+    // keeps a damaged snapshot around for inspection instead of letting the next save overwrite it
+    private static void quarantine(Path file) {
+        try {
+            Files.move(file, Path.of(file + CORRUPT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LoggerUtil.getInstance().logError("Failed to move damaged snapshot '" + file + "' aside: " + e.getMessage());
+        }
+    }
+
+    private static boolean isNonEmpty(Path file) {
+        try {
+            return Files.exists(file) && Files.size(file) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SnapshotReader<R> {
+        R read(InputStream in) throws IOException;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        private long getCount() {
+            return count;
+        }
     }
 }
@@ -0,0 +1,227 @@
+package util.file;
+
+import util.LoggerUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+// a memory-mapped file of length-prefixed records, one live record per id. a record is never overwritten: every write
+// goes to a free slot with a higher sequence number, and the slot of the version it replaces is only retired once the
+// new one has been forced to disk, so a crash at any point leaves at least one intact version of every entity.
+// slot layout: int capacity | int length (0 = free) | int crc32 | long sequence | short id length | id | payload,
+// where length, capacity and the checksum cover everything from the sequence on
+public class MappedSegmentFile implements Closeable {
+
+    private static final int SLOT_HEADER_SIZE = 12;
+    private static final int RECORD_HEADER_SIZE = Long.BYTES + Short.BYTES;
+    private static final int SLOT_ALIGNMENT = 16;
+    private static final int INITIAL_MAPPING_SIZE = 1 << 20;
+    private static final int MAX_REUSE_WASTE_FACTOR = 2;          // a free slot is only reused if it is at most twice the size needed
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int end;                                               // offset at which the next new slot is appended
+    private long sequence;                                         // of the latest record written
+    private final Map<String, Integer> index = new HashMap<>();    // id -> slot offset of its latest version
+    private final TreeMap<Integer, Deque<Integer>> freeSlots = new TreeMap<>();     // capacity -> slot offsets
+    private final List<Integer> replacedSlots = new ArrayList<>(); // retired once the records replacing them are on disk
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo;
+
+    private MappedSegmentFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    public static MappedSegmentFile open(String segmentPath) throws IOException {
+        Path path = Path.of(segmentPath);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedSegmentFile segment = new MappedSegmentFile(path, channel);
+        segment.map((int) Math.max(channel.size(), INITIAL_MAPPING_SIZE));
+        segment.scan();
+        segment.force();
+        return segment;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // visits the latest intact record of every id; records torn by a crash are skipped and their slots reused
+    public void forEach(BiConsumer<String, byte[]> action) {
+        for (Map.Entry<String, Integer> entry : index.entrySet()) {
+            action.accept(entry.getKey(), readPayload(entry.getValue()));
+        }
+    }
+
+    // the previous version stays intact until the next force has made this one durable
+    public void write(String id, byte[] payload) throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER_SIZE + idBytes.length + payload.length;
+
+        int offset = allocate(length);
+        int body = offset + SLOT_HEADER_SIZE;
+        buffer.putLong(body, ++sequence);
+        buffer.putShort(body + Long.BYTES, (short) idBytes.length);
+        buffer.put(body + RECORD_HEADER_SIZE, idBytes);
+        buffer.put(body + RECORD_HEADER_SIZE + idBytes.length, payload);
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(body, length));
+        buffer.putInt(offset + 8, (int) checksum.getValue());
+        // a crash can leave any subset of the dirty pages on disk, the checksum tells a torn record apart on the next scan
+        buffer.putInt(offset + 4, length);
+        markDirty(offset, SLOT_HEADER_SIZE + length);
+
+        Integer replaced = index.put(id, offset);
+        if (replaced != null) {
+            replacedSlots.add(replaced);
+        }
+    }
+
+    public void delete(String id) {
+        Integer offset = index.remove(id);
+        if (offset != null) {
+            replacedSlots.add(offset);
+        }
+    }
+
+    // forces the records written since the last force to disk, then retires the slots they replaced and forces that too
+    public void force() {
+        forceDirty();
+        if (replacedSlots.isEmpty()) return;
+
+        replacedSlots.forEach(this::clear);
+        forceDirty();
+        // only reused once retired on disk, so no write can land on a version that is still needed
+        replacedSlots.forEach(offset -> addFreeSlot(buffer.getInt(offset), offset));
+        replacedSlots.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // keeps the intact record with the highest sequence number of every id; older versions left behind by a crash
+    // between writing a record and retiring the one it replaced are retired now
+    private void scan() {
+        int offset = 0;
+        while (offset + SLOT_HEADER_SIZE <= buffer.capacity()) {
+            int capacity = buffer.getInt(offset);
+            if (capacity <= 0 || offset + SLOT_HEADER_SIZE + capacity > buffer.capacity()) break;
+
+            int length = buffer.getInt(offset + 4);
+            if (length == 0) {
+                addFreeSlot(capacity, offset);
+            } else if (length > capacity || length < RECORD_HEADER_SIZE || !isIntact(offset, length)) {
+                LoggerUtil.getInstance().logWarning(String.format("Skipping damaged record at offset %d of segment '%s'.", offset, path));
+                retire(offset);
+            } else {
+                long recordSequence = buffer.getLong(offset + SLOT_HEADER_SIZE);
+                sequence = Math.max(sequence, recordSequence);
+
+                String id = readId(offset);
+                Integer other = index.get(id);
+                if (other == null || buffer.getLong(other + SLOT_HEADER_SIZE) < recordSequence) {
+                    index.put(id, offset);
+                    if (other != null) retire(other);
+                } else {
+                    retire(offset);
+                }
+            }
+            offset += SLOT_HEADER_SIZE + capacity;
+        }
+        end = offset;
+    }
+
+    private boolean isIntact(int offset, int length) {
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(offset + SLOT_HEADER_SIZE, length));
+        return (int) checksum.getValue() == buffer.getInt(offset + 8);
+    }
+
+    private String readId(int offset) {
+        int body = offset + SLOT_HEADER_SIZE;
+        byte[] idBytes = new byte[buffer.getShort(body + Long.BYTES)];
+        buffer.get(body + RECORD_HEADER_SIZE, idBytes);
+        return new String(idBytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] readPayload(int offset) {
+        int body = offset + SLOT_HEADER_SIZE;
+        int idLength = buffer.getShort(body + Long.BYTES);
+        byte[] payload = new byte[buffer.getInt(offset + 4) - RECORD_HEADER_SIZE - idLength];
+        buffer.get(body + RECORD_HEADER_SIZE + idLength, payload);
+        return payload;
+    }
+
+    private int allocate(int length) throws IOException {
+        Map.Entry<Integer, Deque<Integer>> free = freeSlots.ceilingEntry(length);
+        if (free != null && free.getKey() <= length * MAX_REUSE_WASTE_FACTOR) {
+            int offset = free.getValue().poll();
+            if (free.getValue().isEmpty()) freeSlots.remove(free.getKey());
+            return offset;
+        }
+
+        int capacity = align(length);
+        int offset = end;
+        int slotEnd = offset + SLOT_HEADER_SIZE + capacity;
+        if (slotEnd > buffer.capacity()) {
+            map(Math.max(buffer.capacity() * 2, slotEnd));
+        }
+        buffer.putInt(offset + 4, 0);
+        buffer.putInt(offset, capacity);
+        end = slotEnd;
+        return offset;
+    }
+
+    private void retire(int offset) {
+        clear(offset);
+        addFreeSlot(buffer.getInt(offset), offset);
+    }
+
+    // the checksum is cleared along with the length, so if the slot is reused and a crash leaves its new header
+    // but not its new body on disk, the old body left there does not pass for an intact record
+    private void clear(int offset) {
+        buffer.putInt(offset + 4, 0);
+        buffer.putInt(offset + 8, 0);
+        markDirty(offset, SLOT_HEADER_SIZE);
+    }
+
+    private void addFreeSlot(int capacity, int offset) {
+        freeSlots.computeIfAbsent(capacity, key -> new ArrayDeque<>()).add(offset);
+    }
+
+    // mapping beyond the end of the file grows it; a single mapping limits a segment to 2 GB
+    private void map(int size) throws IOException {
+        forceDirty();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void forceDirty() {
+        if (dirtyFrom >= dirtyTo) return;
+        buffer.force(dirtyFrom, dirtyTo - dirtyFrom);
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyTo = 0;
+    }
+
+    private void markDirty(int offset, int length) {
+        dirtyFrom = Math.min(dirtyFrom, offset);
+        dirtyTo = Math.max(dirtyTo, offset + length);
+    }
+
+    private static int align(int length) {
+        return (length + SLOT_ALIGNMENT - 1) / SLOT_ALIGNMENT * SLOT_ALIGNMENT;
+    }
+}
@@ -0,0 +1,29 @@
+package util.file;
+
+// line-oriented formats used to import and export entities in bulk, picked from the file extension
+public enum RecordFormat {
+    CSV(".csv"),
+    JSONL(".jsonl");
+
+    // joins the values of a multi-valued column in a CSV cell
+    public static final String LIST_SEPARATOR = ";";
+
+    private final String extension;
+
+    RecordFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public static RecordFormat fromPath(String path) {
+        for (RecordFormat format : RecordFormat.values()) {
+            if (path.toLowerCase().endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unsupported file '%s'. Expected a .csv or .jsonl file.", path));
+    }
+
+    public String getExtension() {
+        return this.extension;
+    }
+}
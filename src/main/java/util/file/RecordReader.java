@@ -0,0 +1,165 @@
+package util.file;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// streams the records of a CSV (with a header row) or JSON Lines file one at a time as column -> value maps,
+// so files of any size are read in constant memory
+public class RecordReader implements Closeable {
+    private static final ObjectMapper objectMapper = StorageCodec.JSON.getObjectMapper();
+
+    private final BufferedReader reader;
+    private final RecordFormat format;
+    private final List<String> header;
+    private long lineNumber;            // physical line the current record started on
+    private long nextLineNumber = 1;
+
+    private RecordReader(BufferedReader reader, RecordFormat format) throws IOException {
+        this.reader = reader;
+        this.format = format;
+        List<String> header = format == RecordFormat.CSV ? readCsvRecord() : List.of();
+        if (header == null) {
+            throw new IOException("CSV file is empty, expected a header row.");
+        }
+
+        // spreadsheet exports often start with a byte order mark
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        this.header = header;
+    }
+
+    public static RecordReader open(String filePath) throws IOException {
+        RecordFormat format = RecordFormat.fromPath(filePath);
+        return new RecordReader(Files.newBufferedReader(Path.of(filePath), StandardCharsets.UTF_8), format);
+    }
+
+    // the next record, or null once the file is exhausted; blank lines are skipped
+    public Map<String, String> next() throws IOException {
+        return format == RecordFormat.CSV ? nextCsv() : nextJsonLine();
+    }
+
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Map<String, String> nextCsv() throws IOException {
+        List<String> fields;
+        do {
+            fields = readCsvRecord();
+            if (fields == null) return null;
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+        if (fields.size() > header.size()) {
+            throw new MalformedRecordException(String.format("Line has %d fields but the header only has %d columns.", fields.size(), header.size()));
+        }
+
+        Map<String, String> record = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            record.put(header.get(i), fields.get(i));
+        }
+        return record;
+    }
+
+    private Map<String, String> nextJsonLine() throws IOException {
+        String line;
+        do {
+            lineNumber = nextLineNumber++;
+            line = reader.readLine();
+            if (line == null) return null;
+        } while (line.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new MalformedRecordException("Line is not valid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new MalformedRecordException("Line is not a JSON object.");
+        }
+
+        Map<String, String> record = new LinkedHashMap<>();
+        node.fields().forEachRemaining(field -> record.put(field.getKey(), asText(field.getValue())));
+        return record;
+    }
+
+    // arrays are flattened the same way multi-valued CSV cells are written
+    private static String asText(JsonNode value) {
+        if (value.isNull()) return null;
+        if (!value.isArray()) return value.asText();
+
+        StringJoiner joiner = new StringJoiner(RecordFormat.LIST_SEPARATOR);
+        value.forEach(element -> joiner.add(element.asText()));
+        return joiner.toString();
+    }
+
+    // RFC 4180: fields may be quoted, quotes inside them are doubled and quoted fields may span lines
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) return null;
+        lineNumber = nextLineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        while (c >= 0) {
+            if (isQuoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        isQuoted = false;
+                    }
+                } else {
+                    if (c == '\n') nextLineNumber++;
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') reader.reset();
+                }
+                nextLineNumber++;
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+
+        if (isQuoted) {
+            throw new IOException(String.format("Unterminated quoted field starting on line %d.", lineNumber));
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // a single record that cannot be parsed; the reader has moved past it and can carry on with the next one
+    public static class MalformedRecordException extends IOException {
+        private MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+}
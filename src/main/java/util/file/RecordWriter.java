@@ -0,0 +1,81 @@
+package util.file;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// streams records out as CSV (with a header row) or JSON Lines; collections become ';'-joined CSV cells or JSON arrays
+public class RecordWriter implements Closeable {
+    private static final ObjectWriter objectWriter = StorageCodec.JSON.getObjectMapper().writer();
+
+    private final BufferedWriter writer;
+    private final RecordFormat format;
+    private final List<String> columns;
+
+    private RecordWriter(BufferedWriter writer, RecordFormat format, List<String> columns) throws IOException {
+        this.writer = writer;
+        this.format = format;
+        this.columns = columns;
+        if (format == RecordFormat.CSV) {
+            writeCsvLine(columns);
+        }
+    }
+
+    public static RecordWriter open(String filePath, List<String> columns) throws IOException {
+        RecordFormat format = RecordFormat.fromPath(filePath);
+        return new RecordWriter(Files.newBufferedWriter(Path.of(filePath), StandardCharsets.UTF_8), format, columns);
+    }
+
+    // values are written in column order; columns missing from the record are left empty
+    public void write(Map<String, ?> record) throws IOException {
+        if (format == RecordFormat.JSONL) {
+            Map<String, Object> ordered = new LinkedHashMap<>();
+            columns.forEach(column -> ordered.put(column, record.get(column)));
+            writer.write(objectWriter.writeValueAsString(ordered));
+            writer.newLine();
+            return;
+        }
+
+        List<String> cells = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            cells.add(toCell(record.get(column)));
+        }
+        writeCsvLine(cells);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeCsvLine(List<String> cells) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) writer.write(',');
+            writer.write(escape(cells.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String toCell(Object value) {
+        if (value == null) return "";
+        if (value instanceof Collection<?> values) {
+            StringJoiner joiner = new StringJoiner(RecordFormat.LIST_SEPARATOR);
+            values.forEach(element -> joiner.add(String.valueOf(element)));
+            return joiner.toString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static String escape(String cell) {
+        if (cell.indexOf(',') < 0 && cell.indexOf('"') < 0 && cell.indexOf('\n') < 0 && cell.indexOf('\r') < 0) {
+            return cell;
+        }
+        return '"' + cell.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,35 @@
+package util.file;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public enum StorageCodec {
+    JSON(".json", new JsonFactory()),
+    SMILE(".smile", new SmileFactory()),        // binary JSON with back-referenced names and values
+    CBOR(".cbor", new CBORFactory());
+
+    private final String extension;
+    private final ObjectMapper objectMapper;
+
+    StorageCodec(String extension, JsonFactory factory) {
+        this.extension = extension;
+        this.objectMapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule());
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    // binary records cannot be delimited by newlines and are length-prefixed instead
+    public boolean isBinary() {
+        return this != JSON;
+    }
+}
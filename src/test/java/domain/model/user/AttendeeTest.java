@@ -0,0 +1,56 @@
+package domain.model.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exception.SessionException;
+import org.junit.jupiter.api.Test;
+import util.file.StorageCodec;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttendeeTest {
+
+    private static final ObjectMapper MAPPER = StorageCodec.JSON.getObjectMapper();
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 5, 1, 9, 0);
+
+    @Test
+    void loadsSchedulesSavedAsSessionIds() throws IOException {
+        // as users.json held them before scheduled sessions kept their end time
+        String json = "{\"id\":\"a\",\"email\":\"a@x.io\",\"name\":\"Ada\",\"hashedPassword\":\"h\",\"role\":\"Attendee\","
+                + "\"schedule\":{\"2030-05-01T09:00:00\":\"session-1\",\"2030-05-01T13:00:00\":\"session-2\"},"
+                + "\"registeredConferences\":[\"conference\"]}";
+
+        Attendee attendee = (Attendee) MAPPER.readValue(json, User.class);
+
+        assertEquals(List.of("session-1", "session-2"), attendee.getSchedule().values().stream().map(Attendee.ScheduledSession::getId).toList());
+        assertNull(attendee.getSchedule().get(NINE).getEndTime());
+    }
+
+    @Test
+    void savesAndLoadsEndTimes() throws IOException {
+        Attendee attendee = new Attendee("a", "a@x.io", "Ada", "h", UserRole.ATTENDEE);
+        attendee.addSession("session-1", NINE, NINE.plusHours(1));
+
+        Attendee loaded = (Attendee) MAPPER.readValue(MAPPER.writeValueAsString(attendee), User.class);
+
+        assertEquals("session-1", loaded.getSchedule().get(NINE).getId());
+        assertEquals(NINE.plusHours(1), loaded.getSchedule().get(NINE).getEndTime());
+    }
+
+    @Test
+    void sessionsWithoutEndTimeClashWithSessionsRunningWhenTheyStart() throws IOException {
+        String json = "{\"id\":\"a\",\"email\":\"a@x.io\",\"name\":\"Ada\",\"hashedPassword\":\"h\",\"role\":\"Attendee\","
+                + "\"schedule\":{\"2030-05-01T09:00:00\":\"session-1\"},\"registeredConferences\":[]}";
+        Attendee attendee = (Attendee) MAPPER.readValue(json, User.class);
+
+        assertTrue(attendee.hasClash("session-2", NINE, NINE.plusHours(1)));
+        assertTrue(attendee.hasClash("session-2", NINE.minusMinutes(30), NINE.plusMinutes(30)));
+        assertFalse(attendee.hasClash("session-2", NINE.minusHours(1), NINE));
+        assertFalse(attendee.hasClash("session-2", NINE.plusMinutes(30), NINE.plusHours(1)));
+        assertFalse(attendee.hasClash("session-1", NINE, NINE.plusHours(1)));
+        assertThrows(SessionException.class, () -> attendee.addSession("session-2", NINE, NINE.plusHours(2)));
+    }
+}
@@ -0,0 +1,119 @@
+package repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domain.model.Session;
+import domain.model.user.Speaker;
+import domain.model.user.UserRole;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import util.file.JournalFileHandler;
+import util.file.StorageCodec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the changes an entity records are journaled as patches and replayed onto the state it was loaded with; replaying
+// them must give back exactly the state the entity had when it was saved
+class EntityPatcherTest {
+
+    private static final TypeReference<Map<String, Session>> SESSIONS = new TypeReference<>() {};
+    private static final TypeReference<Map<String, Speaker>> SPEAKERS = new TypeReference<>() {};
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(StorageCodec.class)
+    void replaysSessionChanges(StorageCodec codec) throws IOException {
+        Session session = Session.builder("s1", "c1", "sp1", "Ada", "Keynote", "Hall A", LocalDate.of(2026, 5, 4), LocalTime.of(9, 0), LocalTime.of(10, 0))
+                .setRegisteredAttendees(new HashSet<>(Set.of("a1")))
+                .build();
+        Session loaded = copy(session, Session.class, codec.getObjectMapper());
+
+        session.registerAttendees(List.of("a2", "a3"));
+        session.markAttendeeAsPresent("a2");
+        session.unregisterAttendee("a1");
+        session.setDescription("Opening talk");
+        session.setStartTime(LocalTime.of(9, 30));
+        session.addFeedback("f1");
+        session.removeFeedback("f1");
+
+        Session replayed = replay(codec, SESSIONS, "s1", loaded, session.drainChanges());
+
+        assertEquals(Set.of("a2", "a3"), replayed.getRegisteredAttendees());
+        assertEquals(Set.of("a2"), replayed.getPresentAttendees());
+        assertEquals(LocalTime.of(9, 30), replayed.getStartTime());
+        assertState(session, replayed);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageCodec.class)
+    void replaysMapChangesWithTypedKeys(StorageCodec codec) throws IOException {
+        Speaker speaker = new Speaker("sp1", "ada@x.io", "Ada", "Mathematician", "hash", UserRole.SPEAKER);
+        LocalDateTime morning = LocalDateTime.of(2026, 5, 4, 9, 0);
+        speaker.assignSession("s0", morning.minusDays(1), morning.minusDays(1).plusHours(1));
+        Speaker loaded = copy(speaker, Speaker.class, codec.getObjectMapper());
+
+        speaker.assignSession("s1", morning, morning.plusHours(1));
+        speaker.assignSession("s2", morning.plusHours(2), morning.plusHours(3));
+        speaker.unassignSession("s0");
+        speaker.setBio("Mathematician and writer");
+
+        Speaker replayed = replay(codec, SPEAKERS, "sp1", loaded, speaker.drainChanges());
+
+        assertEquals(List.of("s1", "s2"), replayed.getAssignedSessions().values().stream().map(Speaker.AssignedSession::getId).toList());
+        // a sorted map stays sorted after it is patched
+        assertInstanceOf(SortedMap.class, replayed.getAssignedSessions());
+        assertState(speaker, replayed);
+    }
+
+    @Test
+    void drainingStartsOver() {
+        Session session = Session.builder("s1", "c1", "sp1", "Ada", "Keynote", "Hall A", LocalDate.of(2026, 5, 4), LocalTime.of(9, 0), LocalTime.of(10, 0)).build();
+        session.registerAttendee("a1");
+        session.registerAttendee("a1");
+        session.setDescription(null);
+
+        // re-adding an element and assigning the same value record nothing
+        assertEquals(1, session.drainChanges().size());
+        assertTrue(session.drainChanges().isEmpty());
+    }
+
+    @Test
+    void skipsChangesToMissingEntity() {
+        ObjectMapper mapper = StorageCodec.JSON.getObjectMapper();
+        Session session = Session.builder("s1", "c1", "sp1", "Ada", "Keynote", "Hall A", LocalDate.of(2026, 5, 4), LocalTime.of(9, 0), LocalTime.of(10, 0)).build();
+        session.registerAttendee("a1");
+
+        assertDoesNotThrow(() -> EntityPatcher.apply("s1", null, mapper.valueToTree(session.drainChanges()), mapper));
+    }
+
+    private <T> T replay(StorageCodec codec, TypeReference<Map<String, T>> typeReference, String id, T loaded, List<?> changes) {
+        String journalPath = directory.resolve("entities" + codec.getExtension() + ".journal").toString();
+        assertTrue(JournalFileHandler.append(journalPath, codec, List.of(new JournalFileHandler.Entry<T>(JournalFileHandler.Operation.PATCH, id, null, changes)), typeReference));
+
+        Map<String, T> entities = new HashMap<>(Map.of(id, loaded));
+        int replayed = JournalFileHandler.replay(journalPath, codec, typeReference, entities::put,
+                (patchedId, patch) -> EntityPatcher.apply(patchedId, entities.get(patchedId), patch, codec.getObjectMapper()), entities::remove);
+        assertEquals(1, replayed);
+        return entities.get(id);
+    }
+
+    private static <T> T copy(T entity, Class<T> type, ObjectMapper mapper) throws IOException {
+        return mapper.readValue(mapper.writeValueAsBytes(entity), type);
+    }
+
+    private static void assertState(Object expected, Object actual) {
+        ObjectMapper mapper = StorageCodec.JSON.getObjectMapper();
+        assertEquals(mapper.valueToTree(expected), mapper.valueToTree(actual));
+    }
+}
@@ -0,0 +1,237 @@
+package repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Test;
+import util.file.JournalFileHandler;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitFlusherTest {
+
+    private static final long WINDOW_MILLIS = 20;
+
+    private final List<List<JournalFileHandler.Entry<String>>> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // the first batch is held in its commit until released, so the writes submitted meanwhile all end up in the next one
+    private GroupCommitFlusher<String> blockedFlusher() throws InterruptedException {
+        return blockedFlusher(WINDOW_MILLIS);
+    }
+
+    private GroupCommitFlusher<String> blockedFlusher(long windowMillis) throws InterruptedException {
+        CountDownLatch committing = new CountDownLatch(1);
+        GroupCommitFlusher<String> flusher = new GroupCommitFlusher<>("test", windowMillis, entries -> {
+            if (batches.isEmpty()) {
+                committing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batches.add(entries);
+            return true;
+        });
+        flusher.submit(JournalFileHandler.Operation.PUT, "first", "first");
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+        return flusher;
+    }
+
+    @Test
+    void patchAfterPutBecomesPutOfLatestState() throws Exception {
+        GroupCommitFlusher<String> flusher = blockedFlusher();
+        flusher.submit(JournalFileHandler.Operation.PUT, "x", "v1");
+        CompletableFuture<Boolean> committed = flusher.submit(patch("x", "v2", "change-1"));
+        release.countDown();
+
+        assertTrue(committed.get(5, TimeUnit.SECONDS));
+        JournalFileHandler.Entry<String> entry = onlyEntry(batches.get(1));
+        assertEquals(JournalFileHandler.Operation.PUT, entry.getOperation());
+        assertEquals("v2", entry.getEntity());
+    }
+
+    @Test
+    void patchesAfterPatchesKeepEveryChangeInOrder() throws Exception {
+        GroupCommitFlusher<String> flusher = blockedFlusher();
+        flusher.submit(patch("x", "v1", "change-1", "change-2"));
+        flusher.submit(patch("x", "v2", "change-3"));
+        CompletableFuture<Boolean> committed = flusher.submit(patch("x", "v3", "change-4"));
+        release.countDown();
+
+        assertTrue(committed.get(5, TimeUnit.SECONDS));
+        JournalFileHandler.Entry<String> entry = onlyEntry(batches.get(1));
+        assertEquals(JournalFileHandler.Operation.PATCH, entry.getOperation());
+        assertEquals(List.of("change-1", "change-2", "change-3", "change-4"), entry.getChanges());
+        assertEquals("v3", entry.getEntity());
+    }
+
+    @Test
+    void laterPutOrDeleteSupersedesEarlierWrites() throws Exception {
+        GroupCommitFlusher<String> flusher = blockedFlusher();
+        flusher.submit(patch("x", "v1", "change-1"));
+        flusher.submit(JournalFileHandler.Operation.DELETE, "x", null);
+        flusher.submit(JournalFileHandler.Operation.PUT, "y", "v1");
+        flusher.submit(patch("y", "v2", "change-1"));
+        CompletableFuture<Boolean> committed = flusher.submit(JournalFileHandler.Operation.PUT, "y", "v3");
+        release.countDown();
+
+        assertTrue(committed.get(5, TimeUnit.SECONDS));
+        List<JournalFileHandler.Entry<String>> batch = batches.get(1);
+        assertEquals(2, batch.size());
+        assertEquals(JournalFileHandler.Operation.DELETE, batch.get(0).getOperation());
+        assertEquals("x", batch.get(0).getId());
+        assertEquals(JournalFileHandler.Operation.PUT, batch.get(1).getOperation());
+        assertEquals("v3", batch.get(1).getEntity());
+    }
+
+    @Test
+    void writesMadeDuringCommitShareTheNextBatch() throws Exception {
+        GroupCommitFlusher<String> flusher = blockedFlusher();
+        List<CompletableFuture<Boolean>> committed = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            committed.add(flusher.submit(JournalFileHandler.Operation.PUT, "id-" + i, "v" + i));
+        }
+        release.countDown();
+
+        for (CompletableFuture<Boolean> future : committed) {
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, batches.size());
+        assertEquals(10, batches.get(1).size());
+    }
+
+    @Test
+    void loneWriteDoesNotWaitOutTheWindow() throws Exception {
+        GroupCommitFlusher<String> flusher = new GroupCommitFlusher<>("test", 10_000, entries -> batches.add(entries));
+
+        long started = System.nanoTime();
+        assertTrue(flusher.submit(JournalFileHandler.Operation.PUT, "x", "v1").get(5, TimeUnit.SECONDS));
+        assertTrue(flusher.submit(JournalFileHandler.Operation.PUT, "y", "v1").get(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5_000);
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    void flushCommitsWithoutWaitingOutTheWindow() throws Exception {
+        // writers are seen to overlap, so without the flush the batch would wait out the whole window
+        GroupCommitFlusher<String> flusher = blockedFlusher(60_000);
+        flusher.submit(JournalFileHandler.Operation.PUT, "a", "v1");
+        flusher.submit(JournalFileHandler.Operation.PUT, "b", "v1");
+        release.countDown();
+
+        long started = System.nanoTime();
+        assertTrue(flusher.flush());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5_000);
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(1).size());
+    }
+
+    @Test
+    void failedCommitCompletesFalse() throws Exception {
+        GroupCommitFlusher<String> flusher = new GroupCommitFlusher<>("test", WINDOW_MILLIS, entries -> {
+            throw new IllegalStateException("disk full");
+        });
+
+        assertFalse(flusher.submit(JournalFileHandler.Operation.PUT, "x", "v1").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void coalescedWritesToOneIdThatFailTogetherRestoreTheStateBeforeTheFirst() throws Exception {
+        // the first batch holds the writer while both writes to x queue up behind it, and the second batch fails
+        CountDownLatch committing = new CountDownLatch(1);
+        StringRepository repository = new StringRepository(entries -> {
+            batches.add(entries);
+            if (batches.size() > 1) return false;
+            committing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        });
+        String original = repository.findById("x").orElseThrow();
+
+        ExecutorService writers = Executors.newFixedThreadPool(3);
+        try {
+            Future<Boolean> blocking = writers.submit(() -> repository.save("blocking", "other"));
+            assertTrue(committing.await(5, TimeUnit.SECONDS));
+
+            String first = new String("v1");
+            String second = new String("v2");
+            Future<Boolean> firstSaved = writers.submit(() -> repository.save(first, "x"));
+            awaitCached(repository, first);
+            Future<Boolean> secondSaved = writers.submit(() -> repository.save(second, "x"));
+            awaitCached(repository, second);
+            release.countDown();
+
+            assertTrue(blocking.get(5, TimeUnit.SECONDS));
+            assertFalse(firstSaved.get(5, TimeUnit.SECONDS));
+            assertFalse(secondSaved.get(5, TimeUnit.SECONDS));
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertEquals(2, batches.size());
+        assertEquals("v2", onlyEntry(batches.get(1)).getEntity());
+        assertSame(original, repository.findById("x").orElseThrow());
+    }
+
+    private static JournalFileHandler.Entry<String> patch(String id, String entity, String... changes) {
+        return new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PATCH, id, entity, List.of(changes));
+    }
+
+    private static JournalFileHandler.Entry<String> onlyEntry(List<JournalFileHandler.Entry<String>> batch) {
+        assertEquals(1, batch.size());
+        return batch.get(0);
+    }
+
+    private static void awaitCached(StringRepository repository, String entity) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (repository.findById("x").orElse(null) != entity) {
+            assertTrue(System.nanoTime() < deadline, "write was not applied in memory");
+            Thread.sleep(1);
+        }
+    }
+
+    // a repository of strings over a store that starts out holding x and commits through the given function
+    private static class StringRepository extends BaseRepository<String> {
+        private static final ThreadLocal<Function<List<JournalFileHandler.Entry<String>>, Boolean>> COMMIT = new ThreadLocal<>();
+
+        private StringRepository(Function<List<JournalFileHandler.Entry<String>>, Boolean> commit) {
+            super(withCommit(commit));
+            COMMIT.remove();
+        }
+
+        // the store is created by the base constructor, before this class's fields are set
+        private static RepositoryConfig withCommit(Function<List<JournalFileHandler.Entry<String>>, Boolean> commit) {
+            COMMIT.set(commit);
+            return RepositoryConfig.USERS;
+        }
+
+        @Override
+        EntityStore<String> createStore(RepositoryConfig config, List<SecondaryIndex<String>> secondaryIndexes) {
+            Function<List<JournalFileHandler.Entry<String>>, Boolean> commit = COMMIT.get();
+            return new EntityStore<>() {
+                @Override
+                public void loadInto(Map<String, String> target) {
+                    target.put("x", "v0");
+                }
+
+                @Override
+                public boolean commit(List<JournalFileHandler.Entry<String>> entries) {
+                    return commit.apply(entries);
+                }
+            };
+        }
+
+        @Override
+        protected TypeReference<Map<String, String>> getTypeReference() {
+            return new TypeReference<>() {};
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package repository;
+
+import domain.factory.SessionFactory;
+import domain.model.Session;
+import dto.SessionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTimelineTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(30);
+
+    @Test
+    void indexesSessionsOverallByRoomAndBySpeaker() {
+        SessionTimeline timeline = new SessionTimeline();
+        timeline.add(session("a", "Room 1", "speaker-1", 9, 10));
+        timeline.add(session("b", "Room 2", "speaker-2", 9, 11));
+
+        assertTrue(timeline.isTimeTaken(at(10), at(12), null));
+        assertFalse(timeline.isTimeTaken(at(12), at(13), null));
+        assertEquals(List.of("a", "b"), timeline.findSessionsDuring(at(9), at(10)).stream().sorted().toList());
+        assertEquals(List.of("b"), timeline.findSessionsDuring(at(10).plusMinutes(30), at(12)));
+
+        assertTrue(timeline.isRoomTaken(" room 1 ", at(9).plusMinutes(30), at(12), null));
+        assertFalse(timeline.isRoomTaken("Room 3", at(9), at(10), null));
+        assertTrue(timeline.isSpeakerBusy("speaker-2", at(10), at(12), null));
+        assertFalse(timeline.isSpeakerBusy("speaker-1", at(10).plusMinutes(30), at(12), null));
+    }
+
+    @Test
+    void excludesTheSessionBeingChanged() {
+        SessionTimeline timeline = new SessionTimeline();
+        timeline.add(session("a", "Room 1", "speaker-1", 9, 10));
+
+        assertFalse(timeline.isTimeTaken(at(9), at(10), "a"));
+        assertFalse(timeline.isRoomTaken("Room 1", at(9), at(10), "a"));
+        assertFalse(timeline.isSpeakerBusy("speaker-1", at(9), at(10), "a"));
+        assertTrue(timeline.isNameTaken("Session a", null));
+        assertFalse(timeline.isNameTaken("Session a", "a"));
+    }
+
+    @Test
+    void keepsEveryIndexInStepWithUpdatesAndRemovals() {
+        SessionTimeline timeline = new SessionTimeline();
+        timeline.add(session("a", "Room 1", "speaker-1", 9, 10));
+
+        // moving the session drops it from where it was in every tree
+        timeline.add(session("a", "Room 2", "speaker-2", 14, 15));
+        assertFalse(timeline.isTimeTaken(at(9), at(10), null));
+        assertFalse(timeline.isRoomTaken("Room 1", at(9), at(10), null));
+        assertFalse(timeline.isSpeakerBusy("speaker-1", at(9), at(10), null));
+        assertEquals(List.of("a"), timeline.findSessionsDuring(at(14), at(15)));
+
+        SessionTimeline copy = timeline.copy();
+        timeline.remove("a");
+        assertTrue(timeline.isEmpty());
+        assertEquals(List.of(), timeline.findSessionsDuring(at(0), at(23)));
+        assertFalse(timeline.isRoomTaken("Room 2", at(14), at(15), null));
+        assertFalse(timeline.isNameTaken("Session a", null));
+
+        // the copy is not affected
+        assertTrue(copy.isTimeTaken(at(14), at(15), null));
+        assertTrue(copy.isRoomTaken("room 2", at(14), at(15), null));
+    }
+
+    private static LocalDateTime at(int hour) {
+        return LocalDateTime.of(DATE, LocalTime.of(hour, 0));
+    }
+
+    private static Session session(String id, String room, String speakerId, int startHour, int endHour) {
+        return SessionFactory.create(SessionDTO.builder("conference", speakerId, "Speaker", "Session " + id, room,
+                        DATE, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0))
+                .setId(id)
+                .build());
+    }
+}
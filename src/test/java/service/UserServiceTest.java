@@ -0,0 +1,66 @@
+package service;
+
+import domain.model.FieldChange;
+import domain.model.user.Attendee;
+import domain.model.user.Organizer;
+import domain.model.user.Speaker;
+import domain.model.user.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 5, 1, 9, 0);
+
+    @Test
+    void stripsTheDeletedFeedbackFromSpeakers() {
+        Speaker speaker = new Speaker("s", "s@x.io", "Sam", "Talks", "h", UserRole.SPEAKER);
+        speaker.assignSession("session-1", NINE, NINE.plusHours(1));
+        speaker.assignSession("session-2", NINE.plusDays(1), NINE.plusDays(1).plusHours(1));
+        speaker.addFeedback("feedback-1");
+        speaker.addFeedback("feedback-2");
+        speaker.addFeedback("feedback-other");
+        speaker.drainChanges();
+
+        UserService.removeConferenceReferences(speaker, "conference", Set.of("session-1"), Set.of("feedback-1", "feedback-2", "feedback-missing"));
+
+        assertEquals(Set.of("feedback-other"), speaker.getFeedback());
+        assertEquals(Set.of("session-2"), speaker.getAssignedSessionIds());
+        List<FieldChange> feedbackChanges = speaker.drainChanges().stream().filter(change -> change.getField().equals("feedback")).toList();
+        assertEquals(2, feedbackChanges.size());
+        assertTrue(feedbackChanges.stream().allMatch(change -> change.getOperation() == FieldChange.Operation.REMOVE));
+    }
+
+    @Test
+    void stripsTheConferenceAndItsSessionsFromAttendees() {
+        Attendee attendee = new Attendee("a", "a@x.io", "Ada", "h", UserRole.ATTENDEE);
+        attendee.addRegisteredConference("conference");
+        attendee.addRegisteredConference("conference-other");
+        attendee.addSession("session-1", NINE, NINE.plusHours(1));
+        attendee.addSession("session-other", NINE.plusHours(2), NINE.plusHours(3));
+        attendee.drainChanges();
+
+        UserService.removeConferenceReferences(attendee, "conference", Set.of("session-1"), Set.of("feedback-1"));
+
+        assertEquals(Set.of("conference-other"), attendee.getRegisteredConferences());
+        assertEquals(List.of("session-other"), attendee.getSchedule().values().stream().map(Attendee.ScheduledSession::getId).toList());
+        // feedback the attendee never submitted leaves nothing to save
+        assertTrue(attendee.drainChanges().stream().noneMatch(change -> change.getField().equals("submittedFeedback")));
+    }
+
+    @Test
+    void stripsTheConferenceFromOrganizers() {
+        Organizer organizer = new Organizer("o", "o@x.io", "Olu", "e-1", "h", UserRole.ORGANIZER);
+        organizer.addConference("conference");
+        organizer.addConference("conference-other");
+
+        UserService.removeConferenceReferences(organizer, "conference", Set.of("session-1"), Set.of("feedback-1"));
+
+        assertEquals(Set.of("conference-other"), organizer.getManagedConferences());
+    }
+}
@@ -0,0 +1,129 @@
+package service.session;
+
+import exception.SessionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckInDeskTest {
+
+    @Test
+    void scansQueuedDuringACheckInShareTheNextBatch() throws Exception {
+        RecordingSessionService sessionService = new RecordingSessionService();
+        List<Map<String, AttendanceResult>> results = new CopyOnWriteArrayList<>();
+        CheckInDesk desk = new CheckInDesk("session", sessionService, results::add);
+
+        assertTrue(desk.scan("attendee-0"));
+        assertTrue(sessionService.checkingIn.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(desk.scan("attendee-" + i));
+        }
+        sessionService.release.countDown();
+        desk.close();
+
+        assertEquals(List.of(List.of("attendee-0"), ids(1, 100)), sessionService.batches);
+        assertEquals(2, results.size());
+        assertEquals(100, results.get(1).size());
+        assertTrue(results.get(1).values().stream().allMatch(result -> result == AttendanceResult.PRESENT));
+    }
+
+    @Test
+    void splitsABacklogIntoBoundedBatches() throws Exception {
+        RecordingSessionService sessionService = new RecordingSessionService();
+        CheckInDesk desk = new CheckInDesk("session", sessionService, results -> {});
+
+        assertTrue(desk.scan("attendee-0"));
+        assertTrue(sessionService.checkingIn.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 1200; i++) {
+            desk.scan("attendee-" + i);
+        }
+        sessionService.release.countDown();
+        desk.close();
+
+        assertEquals(List.of(1, 500, 500, 200), sessionService.batches.stream().map(List::size).toList());
+        assertEquals(ids(0, 1200), sessionService.batches.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void keepsCheckingInAfterAFailedBatch() {
+        RecordingSessionService sessionService = new RecordingSessionService();
+        sessionService.release.countDown();
+        sessionService.failing.add("attendee-1");
+        List<Map<String, AttendanceResult>> results = new CopyOnWriteArrayList<>();
+        CheckInDesk desk = new CheckInDesk("session", sessionService, results::add);
+
+        desk.scan("attendee-1");
+        awaitBatches(sessionService, 1);
+        desk.scan("attendee-2");
+        desk.close();
+
+        assertEquals(List.of(List.of("attendee-1"), List.of("attendee-2")), sessionService.batches);
+        assertEquals(List.of(Map.of("attendee-2", AttendanceResult.PRESENT)), results);
+    }
+
+    @Test
+    void refusesScansOnceClosed() {
+        RecordingSessionService sessionService = new RecordingSessionService();
+        sessionService.release.countDown();
+        CheckInDesk desk = new CheckInDesk("session", sessionService, results -> {});
+
+        assertFalse(desk.scan(null));
+        assertFalse(desk.scan(""));
+        desk.close();
+        desk.close();
+
+        assertFalse(desk.scan("attendee-1"));
+        assertEquals(List.of(), sessionService.batches);
+    }
+
+    private static List<String> ids(int from, int to) {
+        List<String> ids = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            ids.add("attendee-" + i);
+        }
+        return ids;
+    }
+
+    private static void awaitBatches(RecordingSessionService sessionService, int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sessionService.batches.size() < count) {
+            assertTrue(System.nanoTime() < deadline, "batch was not checked in");
+            Thread.onSpinWait();
+        }
+    }
+
+    // records every batch it is handed and holds the first one until released; batches holding a failing id throw
+    private static class RecordingSessionService extends SessionService {
+        private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        private final Set<String> failing = new HashSet<>();
+        private final CountDownLatch checkingIn = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private RecordingSessionService() {
+            super(null);
+        }
+
+        @Override
+        public Map<String, AttendanceResult> markAttendeesPresent(String id, Collection<String> attendeeIds) {
+            batches.add(List.copyOf(attendeeIds));
+            checkingIn.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (attendeeIds.stream().anyMatch(failing::contains)) {
+                throw new SessionException("Changes could not be saved. Please try again later.");
+            }
+
+            Map<String, AttendanceResult> results = new LinkedHashMap<>();
+            attendeeIds.forEach(attendeeId -> results.put(attendeeId, AttendanceResult.PRESENT));
+            return results;
+        }
+    }
+}
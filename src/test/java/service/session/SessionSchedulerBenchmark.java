@@ -0,0 +1,40 @@
+package service.session;
+
+import org.openjdk.jmh.annotations.*;
+import repository.SessionTimeline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// how long a scheduling run takes on synthetic programmes of ten rooms over five days with a speaker per ten
+// sessions. 300 one-hour sessions exactly fill the programme; with mixed durations they no longer fit, and the run
+// takes the whole time budget to find the best partial placement.
+// run with mvn -P benchmark test -Dbenchmark=SessionSchedulerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionSchedulerBenchmark {
+
+    private static final Duration TIME_BUDGET = Duration.ofSeconds(5);
+
+    @Param({"100", "300"})
+    private int sessions;
+
+    @Param({"false", "true"})
+    private boolean isMixed;
+
+    private SyntheticProgramme programme;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        programme = SyntheticProgramme.generate(sessions, 10, 5, Math.max(1, sessions / 10), isMixed, 42);
+    }
+
+    @Benchmark
+    public ScheduleResult schedule() {
+        return programme.scheduler(new SessionTimeline(), TIME_BUDGET).schedule(programme.getRequests());
+    }
+}
@@ -0,0 +1,101 @@
+package service.session;
+
+import domain.model.Session;
+import dto.SessionDTO;
+import org.junit.jupiter.api.Test;
+import repository.SessionTimeline;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// sessions that merely touch clash, as everywhere else, so a room holds at most six one-hour sessions a day: at 9:00,
+// 10:30, 12:00, 13:30, 15:00 and 16:30
+class SessionSchedulerTest {
+
+    private static final Duration TIME_BUDGET = Duration.ofSeconds(5);
+
+    @Test
+    void placesThreeHundredSessionsWithoutConflictsWithinASecond() {
+        // exactly fills ten rooms over five days
+        // the first run pays for class loading and compilation, the claim is about a warm service
+        SyntheticProgramme warmUp = SyntheticProgramme.generate(300, 10, 5, 30, false, 1);
+        warmUp.scheduler(new SessionTimeline(), TIME_BUDGET).schedule(warmUp.getRequests());
+
+        SyntheticProgramme programme = SyntheticProgramme.generate(300, 10, 5, 30, false, 2);
+        long started = System.nanoTime();
+        ScheduleResult result = programme.scheduler(new SessionTimeline(), TIME_BUDGET).schedule(programme.getRequests());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(result.isComplete(), () -> result.getUnscheduled().size() + " sessions left out");
+        assertEquals(300, result.getScheduled().size());
+        assertEquals(List.of(), SyntheticProgramme.findConflicts(result, new SessionTimeline()));
+        assertTrue(elapsedMillis < 1_000, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void keepsSessionsInTheirRequiredRooms() {
+        SyntheticProgramme programme = SyntheticProgramme.generate(70, 5, 2, 10, true, 3);
+        ScheduleResult result = programme.scheduler(new SessionTimeline(), TIME_BUDGET).schedule(programme.getRequests());
+
+        Map<String, ScheduleRequest> requests = new HashMap<>();
+        programme.getRequests().forEach(request -> requests.put(request.getName(), request));
+        for (SessionDTO session : result.getScheduled()) {
+            Set<String> suitableRooms = requests.get(session.getName()).getRooms();
+            assertTrue(suitableRooms.isEmpty() || suitableRooms.stream().anyMatch(session.getRoom()::equalsIgnoreCase), session.getName() + " in " + session.getRoom());
+        }
+        assertEquals(List.of(), SyntheticProgramme.findConflicts(result, new SessionTimeline()));
+    }
+
+    @Test
+    void plansAroundExistingSessions() {
+        SyntheticProgramme programme = SyntheticProgramme.generate(21, 2, 2, 21, false, 4);
+        LocalDate day = programme.getConference().getStartDate();
+        SessionTimeline timeline = new SessionTimeline();
+        // room 0 is taken all morning, and speaker 0 is presenting elsewhere all afternoon
+        timeline.add(Session.builder("existing-1", programme.getConference().getId(), "someone-else", "Someone Else", "Existing Morning", "Room 0", day, LocalTime.of(9, 0), LocalTime.of(13, 0)).build());
+        timeline.add(Session.builder("existing-2", programme.getConference().getId(), "speaker-0", "Speaker 0", "Existing Afternoon", "Elsewhere", day, LocalTime.of(13, 0), LocalTime.of(18, 0)).build());
+
+        ScheduleResult result = programme.scheduler(timeline, TIME_BUDGET).schedule(programme.getRequests());
+
+        assertEquals(List.of(), SyntheticProgramme.findConflicts(result, timeline));
+        // only just fits: three sessions in the afternoon of room 0 and six in room 1 on the first day, twelve on the second
+        assertTrue(result.isComplete(), () -> result.getUnscheduled().size() + " sessions left out");
+    }
+
+    @Test
+    void placesOverfullProgrammeUpToCapacity() {
+        SyntheticProgramme programme = SyntheticProgramme.generate(45, 2, 2, 45, false, 5);
+        ScheduleResult result = programme.scheduler(new SessionTimeline(), Duration.ofSeconds(2)).schedule(programme.getRequests());
+
+        assertFalse(result.isComplete());
+        assertEquals(24, result.getScheduled().size());
+        assertEquals(21, result.getUnscheduled().size());
+        assertEquals(List.of(), SyntheticProgramme.findConflicts(result, new SessionTimeline()));
+    }
+
+    @Test
+    void reportsRequestsThatCanNeverBePlaced() {
+        SyntheticProgramme programme = SyntheticProgramme.generate(1, 2, 2, 1, false, 6);
+        SessionTimeline timeline = new SessionTimeline();
+        LocalDate day = programme.getConference().getStartDate();
+        timeline.add(Session.builder("existing", programme.getConference().getId(), "speaker-9", "Speaker 9", "Taken", "Room 0", day, LocalTime.of(9, 0), LocalTime.of(10, 0)).build());
+
+        List<ScheduleRequest> requests = new ArrayList<>(programme.getRequests());
+        requests.add(new ScheduleRequest("Taken", null, "speaker-1", "Speaker 1", Duration.ofHours(1), Set.of()));
+        requests.add(new ScheduleRequest("Too Short", null, "speaker-1", "Speaker 1", Duration.ofMinutes(30), Set.of()));
+        requests.add(new ScheduleRequest("No Speaker", null, null, null, Duration.ofHours(1), Set.of()));
+        requests.add(new ScheduleRequest("No Such Room", null, "speaker-1", "Speaker 1", Duration.ofHours(1), Set.of("Attic")));
+        requests.add(new ScheduleRequest("Too Long", null, "speaker-1", "Speaker 1", Duration.ofHours(10), Set.of()));
+
+        ScheduleResult result = programme.scheduler(timeline, TIME_BUDGET).schedule(requests);
+
+        assertEquals(List.of("Session 0"), result.getScheduled().stream().map(SessionDTO::getName).toList());
+        assertEquals(Set.of("Taken", "Too Short", "No Speaker", "No Such Room", "Too Long"), result.getUnscheduled().keySet());
+        assertThrows(IllegalArgumentException.class, () -> programme.scheduler(timeline, TIME_BUDGET).schedule(Arrays.asList((ScheduleRequest) null)));
+    }
+}
@@ -0,0 +1,80 @@
+package service.session;
+
+import domain.factory.SessionFactory;
+import dto.ConferenceDTO;
+import dto.SessionDTO;
+import repository.SessionTimeline;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// a reproducible programme for the scheduler to place: a conference some days ahead, its rooms, and sessions handed
+// out round robin to a pool of speakers. every seventh session needs one of the first two rooms
+class SyntheticProgramme {
+
+    private final ConferenceDTO conference;
+    private final List<String> rooms;
+    private final List<ScheduleRequest> requests;
+
+    private SyntheticProgramme(ConferenceDTO conference, List<String> rooms, List<ScheduleRequest> requests) {
+        this.conference = conference;
+        this.rooms = rooms;
+        this.requests = requests;
+    }
+
+    // one-hour sessions, or with mixed durations sessions of one, one and a half or two hours
+    static SyntheticProgramme generate(int sessions, int roomCount, int days, int speakers, boolean isMixed, long seed) {
+        LocalDate firstDay = LocalDate.now().plusDays(10);
+        ConferenceDTO conference = ConferenceDTO.builder("organizer", "Synthetic Conference " + seed, "Generated programme", firstDay, firstDay.plusDays(days - 1))
+                .setId("conference-" + seed)
+                .build();
+
+        List<String> rooms = new ArrayList<>();
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add("Room " + i);
+        }
+
+        Random random = new Random(seed);
+        List<ScheduleRequest> requests = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            Duration duration = isMixed ? Duration.ofMinutes(60 + 30 * random.nextInt(3)) : Duration.ofHours(1);
+            Set<String> suitableRooms = i % 7 == 0 && roomCount > 1 ? Set.of("room 0", "ROOM 1") : Set.of();
+            int speaker = i % speakers;
+            requests.add(new ScheduleRequest("Session " + i, "Synthetic session " + i, "speaker-" + speaker, "Speaker " + speaker, duration, suitableRooms));
+        }
+        return new SyntheticProgramme(conference, rooms, requests);
+    }
+
+    SessionScheduler scheduler(SessionTimeline timeline, Duration timeBudget) {
+        return new SessionScheduler(conference, timeline, rooms, timeBudget);
+    }
+
+    // scheduled sessions that share a room or a speaker with another scheduled or existing session
+    static List<String> findConflicts(ScheduleResult result, SessionTimeline existing) {
+        SessionTimeline placed = existing.copy();
+        List<String> conflicts = new ArrayList<>();
+        for (SessionDTO session : result.getScheduled()) {
+            LocalDateTime start = LocalDateTime.of(session.getDate(), session.getStartTime());
+            LocalDateTime end = LocalDateTime.of(session.getDate(), session.getEndTime());
+            if (placed.isRoomTaken(session.getRoom(), start, end, null) || placed.isSpeakerBusy(session.getSpeakerId(), start, end, null)) {
+                conflicts.add(session.getName());
+            }
+            placed.add(SessionFactory.create(session));
+        }
+        return conflicts;
+    }
+
+    ConferenceDTO getConference() {
+        return this.conference;
+    }
+
+    List<String> getRooms() {
+        return this.rooms;
+    }
+
+    List<ScheduleRequest> getRequests() {
+        return this.requests;
+    }
+}
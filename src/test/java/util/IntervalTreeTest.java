@@ -0,0 +1,143 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void staysBalancedWhenInsertedInOrder() {
+        IntervalTree<Integer> ascending = new IntervalTree<>();
+        IntervalTree<Integer> descending = new IntervalTree<>();
+        int count = 1023;
+        for (int i = 0; i < count; i++) {
+            ascending.insert("a" + i, i, i + 1);
+            descending.insert("d" + i, count - i, count - i + 1);
+        }
+
+        // an AVL tree of n nodes is at most about 1.44 log2(n) high, a degenerate one would be n high
+        int bound = (int) Math.ceil(1.44 * Math.log(count + 2) / Math.log(2));
+        assertEquals(count, ascending.size());
+        assertTrue(ascending.height() <= bound, "ascending height " + ascending.height());
+        assertTrue(descending.height() <= bound, "descending height " + descending.height());
+    }
+
+    @Test
+    void rebalancesOnZigZagInserts() {
+        // left-right and right-left cases, each needs a double rotation
+        IntervalTree<Integer> leftRight = new IntervalTree<>();
+        leftRight.insert("c", 30, 31);
+        leftRight.insert("a", 10, 11);
+        leftRight.insert("b", 20, 21);
+        assertEquals(2, leftRight.height());
+        assertEquals(List.of("a", "b", "c"), leftRight.findOverlapping(0, 100));
+
+        IntervalTree<Integer> rightLeft = new IntervalTree<>();
+        rightLeft.insert("a", 10, 11);
+        rightLeft.insert("c", 30, 31);
+        rightLeft.insert("b", 20, 21);
+        assertEquals(2, rightLeft.height());
+        assertEquals(List.of("a", "b", "c"), rightLeft.findOverlapping(0, 100));
+    }
+
+    @Test
+    void findsOverlapsOfClosedIntervals() {
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        tree.insert("morning", 9, 12);
+        tree.insert("lunch", 12, 13);
+        tree.insert("afternoon", 14, 17);
+
+        assertEquals(List.of("morning", "lunch"), tree.findOverlapping(12, 12));
+        assertEquals(List.of("lunch"), tree.findOverlapping(13, 13));
+        assertEquals(List.of(), tree.findOverlapping(18, 20));
+        assertTrue(tree.anyOverlap(10, 15, id -> id.equals("afternoon")));
+        assertFalse(tree.anyOverlap(10, 15, id -> id.equals("evening")));
+    }
+
+    @Test
+    void keepsEqualStartsApartById() {
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        tree.insert("b", 10, 20);
+        tree.insert("a", 10, 15);
+        tree.insert("c", 10, 11);
+
+        assertEquals(List.of("a", "b", "c"), tree.findOverlapping(10, 10));
+        tree.remove("b", 10);
+        assertEquals(List.of("a", "c"), tree.findOverlapping(0, 100));
+        assertEquals(List.of("a"), tree.findOverlapping(12, 15));
+    }
+
+    @Test
+    void removesNodeWithTwoChildrenBySuccessor() {
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        // the root ends up with two children, and its successor carries the latest end of the tree
+        tree.insert("b", 20, 21);
+        tree.insert("a", 10, 11);
+        tree.insert("d", 40, 41);
+        tree.insert("c", 30, 100);
+        tree.insert("e", 50, 51);
+
+        tree.remove("b", 20);
+        assertEquals(4, tree.size());
+        assertEquals(List.of("a", "c", "d", "e"), tree.findOverlapping(0, 60));
+        // the long interval must still be found through the maxEnd of whatever node now sits above it
+        assertEquals(List.of("c"), tree.findOverlapping(90, 95));
+
+        tree.remove("c", 30);
+        assertEquals(List.of(), tree.findOverlapping(90, 95));
+        assertEquals(List.of("a", "d", "e"), tree.findOverlapping(0, 60));
+    }
+
+    @Test
+    void removingUnknownIntervalChangesNothing() {
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        tree.insert("a", 10, 11);
+        tree.remove("a", 12);
+        tree.remove("b", 10);
+        assertEquals(1, tree.size());
+        tree.remove("a", 10);
+        assertTrue(tree.isEmpty());
+        assertEquals(List.of(), tree.findOverlapping(0, 100));
+    }
+
+    @Test
+    void matchesBruteForceThroughInsertsAndRemoves() {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        Map<String, int[]> intervals = new HashMap<>();
+
+        for (int round = 0; round < 5_000; round++) {
+            if (intervals.isEmpty() || random.nextInt(3) > 0) {
+                String id = "i" + round;
+                int start = random.nextInt(1_000);
+                int end = start + random.nextInt(random.nextInt(10) == 0 ? 300 : 20);
+                tree.insert(id, start, end);
+                intervals.put(id, new int[]{start, end});
+            } else {
+                String id = intervals.keySet().stream().sorted().skip(random.nextInt(intervals.size())).findFirst().orElseThrow();
+                tree.remove(id, intervals.remove(id)[0]);
+            }
+
+            if (round % 50 == 0) {
+                int start = random.nextInt(1_100);
+                int end = start + random.nextInt(50);
+                assertEquals(bruteForce(intervals, start, end), new HashSet<>(tree.findOverlapping(start, end)), "round " + round);
+                assertEquals(intervals.size(), tree.size());
+            }
+        }
+
+        int bound = (int) Math.ceil(1.44 * Math.log(tree.size() + 2) / Math.log(2));
+        assertTrue(tree.height() <= bound, "height " + tree.height() + " for " + tree.size());
+    }
+
+    private static Set<String> bruteForce(Map<String, int[]> intervals, int start, int end) {
+        Set<String> ids = new HashSet<>();
+        intervals.forEach((id, interval) -> {
+            if (interval[0] <= end && interval[1] >= start) ids.add(id);
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,56 @@
+package util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// one registration on a conference of 20k attendees: the copy-on-write add as it was, copying a HashSet, against an
+// add to the persistent set; run with mvn -P benchmark test -Dbenchmark=PersistentHashSetBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentHashSetBenchmark {
+
+    @Param({"1000", "20000"})
+    private int size;
+
+    private Set<String> hashSet;
+    private PersistentHashSet<String> persistentSet;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        hashSet = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            hashSet.add("attendee-" + i);
+        }
+        persistentSet = PersistentHashSet.copyOf(hashSet);
+    }
+
+    @Benchmark
+    public Set<String> copyHashSet() {
+        Set<String> copy = new HashSet<>(hashSet);
+        copy.add("new-attendee-" + (next++ & 1023));
+        return copy;
+    }
+
+    @Benchmark
+    public Set<String> persistentWith() {
+        return persistentSet.with("new-attendee-" + (next++ & 1023));
+    }
+
+    @Benchmark
+    public boolean persistentContains() {
+        return persistentSet.contains("attendee-" + (next++ % size));
+    }
+
+    @Benchmark
+    public boolean hashSetContains() {
+        return hashSet.contains("attendee-" + (next++ % size));
+    }
+}
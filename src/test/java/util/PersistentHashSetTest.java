@@ -0,0 +1,98 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentHashSetTest {
+
+    @Test
+    void behavesLikeAHashSetUnderRandomChanges() {
+        Random random = new Random(7);
+        Set<Integer> expected = new HashSet<>();
+        PersistentHashSet<Integer> set = PersistentHashSet.empty();
+        for (int i = 0; i < 50_000; i++) {
+            int element = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(element);
+                set = set.without(element);
+            } else {
+                expected.add(element);
+                set = set.with(element);
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, set);
+        assertEquals(expected, new HashSet<>(set));
+        assertEquals(expected.hashCode(), set.hashCode());
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(expected.contains(i), set.contains(i));
+        }
+    }
+
+    @Test
+    void leavesEarlierVersionsUnchanged() {
+        PersistentHashSet<String> original = PersistentHashSet.copyOf(List.of("a", "b", "c"));
+
+        PersistentHashSet<String> added = original.with("d");
+        PersistentHashSet<String> removed = original.without("a");
+
+        assertEquals(Set.of("a", "b", "c"), original);
+        assertEquals(Set.of("a", "b", "c", "d"), added);
+        assertEquals(Set.of("b", "c"), removed);
+        assertSame(original, original.with("a"));
+        assertSame(original, original.without("x"));
+        assertSame(original, PersistentHashSet.copyOf(original));
+    }
+
+    @Test
+    void keepsElementsWhoseHashesCollide() {
+        // "Aa" and "BB" share a hash code, and so does every string made of the two
+        List<String> colliding = List.of("AaAa", "AaBB", "BBAa", "BBBB");
+        PersistentHashSet<String> set = PersistentHashSet.copyOf(colliding).with("other");
+
+        assertEquals(5, set.size());
+        assertTrue(set.containsAll(colliding));
+        assertFalse(set.contains("AaAaAa"));
+
+        PersistentHashSet<String> removed = set.without("AaBB").without("BBAa").without("BBBB");
+        assertEquals(Set.of("AaAa", "other"), removed);
+        assertEquals(Set.of("other"), removed.without("AaAa"));
+        assertTrue(removed.without("AaAa").without("other").isEmpty());
+    }
+
+    @Test
+    void holdsNull() {
+        PersistentHashSet<String> set = PersistentHashSet.<String>empty().with(null).with("a");
+
+        assertTrue(set.contains(null));
+        assertEquals(2, set.size());
+        assertEquals(new HashSet<>(Arrays.asList(null, "a")), new HashSet<>(set));
+        assertEquals(Set.of("a"), set.without(null));
+    }
+
+    @Test
+    void refusesInPlaceChanges() {
+        Set<String> set = PersistentHashSet.copyOf(List.of("a"));
+
+        assertThrows(UnsupportedOperationException.class, () -> set.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> set.remove("a"));
+        assertThrows(NoSuchElementException.class, () -> PersistentHashSet.empty().iterator().next());
+    }
+
+    @Test
+    void copyOnWriteHelpersKeepTheOriginal() {
+        Set<String> loaded = new HashSet<>(Set.of("a", "b"));
+
+        Set<String> added = CollectionUtils.copyWith(loaded, "c");
+        Set<String> removed = CollectionUtils.copyWithout(added, "a");
+
+        assertEquals(Set.of("a", "b"), loaded);
+        assertEquals(Set.of("a", "b", "c"), added);
+        assertEquals(Set.of("b", "c"), removed);
+        assertSame(added, CollectionUtils.copyWith(added, "a"));
+    }
+}
@@ -0,0 +1,90 @@
+package util.email;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailDigestTest {
+
+    private static final long WINDOW_MILLIS = 200;
+    private static final long BACKOFF_MILLIS = 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void retriesAFailingSinkUntilItTakesTheWindow() throws Exception {
+        Path journal = directory.resolve("digest.journal");
+        AtomicInteger attempts = new AtomicInteger();
+        List<List<EmailBatch>> passed = new CopyOnWriteArrayList<>();
+        EmailDigest digest = new EmailDigest(WINDOW_MILLIS, journal.toString(), batches -> {
+            switch (attempts.incrementAndGet()) {
+                case 1 -> { return false; }
+                case 2 -> throw new IllegalStateException("disk full");
+                default -> {
+                    passed.add(batches);
+                    return true;
+                }
+            }
+        }, BACKOFF_MILLIS);
+
+        digest.submit("session-1", List.of(email("a@x.io", "v1")));
+        digest.submit("session-1", List.of(email("a@x.io", "v2")));
+
+        await(() -> !passed.isEmpty());
+        assertEquals(3, attempts.get());
+        assertEquals("v2", passed.get(0).get(0).getSubject());
+        await(() -> journal.toFile().length() == 0);
+    }
+
+    @Test
+    void givesUpOnAWindowAfterTheLastAttemptSoARestartDoesNotSendItAgain() throws Exception {
+        Path journal = directory.resolve("digest.journal");
+        AtomicInteger attempts = new AtomicInteger();
+        new EmailDigest(WINDOW_MILLIS, journal.toString(), batches -> {
+            attempts.incrementAndGet();
+            return false;
+        }, BACKOFF_MILLIS).submit("session-1", List.of(email("a@x.io", "v1")));
+
+        await(() -> attempts.get() == 5 && journal.toFile().length() == 0);
+        Thread.sleep(100);
+        assertEquals(5, attempts.get());
+
+        EmailDigest restarted = new EmailDigest(WINDOW_MILLIS, journal.toString(), batches -> fail("nothing is left to pass on"), BACKOFF_MILLIS);
+        assertEquals(0, restarted.getHeldCount());
+    }
+
+    @Test
+    void heldEmailsSurviveARestart() throws Exception {
+        Path journal = directory.resolve("digest.journal");
+        EmailDigest digest = new EmailDigest(60_000, journal.toString(), batches -> true, BACKOFF_MILLIS);
+        digest.submit("session-1", List.of(email("a@x.io", "v1")));
+        digest.submit("session-1", List.of(email("a@x.io", "v2"), email("b@x.io", "v2")));
+        digest.submit("session-2", List.of(email("a@x.io", "v1")));
+        assertTrue(Files.size(journal) > 0);
+
+        EmailDigest restarted = new EmailDigest(60_000, journal.toString(), batches -> true, BACKOFF_MILLIS);
+        assertEquals(3, restarted.getHeldCount());
+    }
+
+    private static EmailBatch email(String toAddress, String subject) {
+        return EmailBatch.single(toAddress, "User", subject, "Body");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition was not met in time");
+            Thread.sleep(1);
+        }
+    }
+}
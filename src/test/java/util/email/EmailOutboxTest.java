@@ -0,0 +1,110 @@
+package util.email;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsSpilledBatchesBackInOrder() throws Exception {
+        Path journal = directory.resolve("outbox.journal");
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        EmailOutbox outbox = new EmailOutbox(journal.toString(), 1, 2, 1, email -> {
+            release.await();
+            sent.add(email.getToAddress());
+        });
+
+        for (String address : addresses(10)) {
+            assertTrue(outbox.enqueue(List.of(email(address))));
+        }
+        release.countDown();
+
+        await(() -> sent.size() == 10);
+        assertEquals(addresses(10), sent);
+        await(() -> outbox.getPendingCount() == 0 && journal.toFile().length() == 0);
+    }
+
+    @Test
+    void recoversOnlyTheEmailsNotMarkedDone() throws Exception {
+        Path journal = directory.resolve("outbox.journal");
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        try {
+            // the first email is sent and marked done, the second holds the only sender until the end of the test
+            EmailOutbox stopped = new EmailOutbox(journal.toString(), 1, 2, 1, email -> {
+                if (!sent.isEmpty()) release.await();
+                sent.add(email.getToAddress());
+            });
+            for (String address : addresses(5)) {
+                stopped.enqueue(List.of(email(address)));
+            }
+            await(() -> stopped.getPendingCount() == 4);
+
+            List<String> resent = new CopyOnWriteArrayList<>();
+            new EmailOutbox(journal.toString(), 1, 2, 1, email -> resent.add(email.getToAddress()));
+
+            await(() -> resent.size() == 4);
+            assertEquals(addresses(5).subList(1, 5), resent);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void dropsWhatDoesNotFitWhenTheJournalCannotBeWritten() throws Exception {
+        Path journal = directory.resolve("missing").resolve("outbox.journal");
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            EmailOutbox outbox = new EmailOutbox(journal.toString(), 1, 2, 1, email -> {
+                sending.countDown();
+                release.await();
+            });
+
+            assertFalse(outbox.enqueue(List.of(email("first@x.io"))));
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+            for (String address : addresses(5)) {
+                assertFalse(outbox.enqueue(List.of(email(address))));
+            }
+
+            // one email in flight and two queued, the three that did not fit are not held
+            assertEquals(3, outbox.getPendingCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static List<String> addresses(int count) {
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            addresses.add("user-" + i + "@x.io");
+        }
+        return addresses;
+    }
+
+    private static EmailBatch email(String toAddress) {
+        return EmailBatch.single(toAddress, "User", "Subject", "Body");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition was not met in time");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package util.email;
+
+import domain.model.user.UserRole;
+import dto.SessionDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// renders the session change email to 10k attendees through the compiled template and through the String.format
+// call it replaced, values map included; run with mvn -P benchmark test -Dbenchmark=EmailTemplateBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private static final int RENDERS = 10_000;
+
+    private final List<SessionDTO> sessions = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void generate() {
+        LocalDate date = LocalDate.now().plusDays(30);
+        for (int i = 0; i < RENDERS; i++) {
+            sessions.add(SessionDTO.builder("conference", "speaker-" + i % 50, "Speaker " + i % 50, "Session " + i % 200, "Room " + i % 10,
+                            date.plusDays(i % 5), LocalTime.of(9 + i % 8, 0), LocalTime.of(10 + i % 8, 0))
+                    .setId("session-" + i % 200)
+                    .setDescription("A session about topic " + i % 200 + " and how it relates to the rest of the programme.")
+                    .build());
+            names.add("Attendee " + i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RENDERS)
+    public void template(Blackhole blackhole) {
+        for (int i = 0; i < RENDERS; i++) {
+            blackhole.consume(EmailContentService.getSessionChangeBody(sessions.get(i), UserRole.ATTENDEE, names.get(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RENDERS)
+    public void stringFormat(Blackhole blackhole) {
+        for (int i = 0; i < RENDERS; i++) {
+            blackhole.consume(formatSessionChange(sessions.get(i), names.get(i)));
+        }
+    }
+
+    // the attendee session change body as it was built before templates
+    static String formatSessionChange(SessionDTO sessionDTO, String attendeeName) {
+        return String.format("Hello %s,\n\nWe kindly inform you that an update has taken place to one of the sessions you are registered for. " +
+                        "These are the updated session details:\n\n" +
+                        "Name: %s\nSpeaker: %s\nDescription: %s\nRoom: %s\nDate: %s\nStart Time: %s\nEnd Time: %s\n\n" +
+                        "We are sorry if this has caused any inconvenience and we hope that you can still make it to the session.\n\n" +
+                        "Kind Regards,\n\nThe University of Hertfordshire Team",
+                attendeeName, sessionDTO.getName(), sessionDTO.getSpeakerName(),
+                sessionDTO.getDescription(), sessionDTO.getRoom(), sessionDTO.getDate(),
+                sessionDTO.getStartTime(), sessionDTO.getEndTime());
+    }
+}
@@ -0,0 +1,64 @@
+package util.email;
+
+import domain.model.user.UserRole;
+import dto.SessionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateTest {
+
+    @Test
+    void rendersTheSameBodyAsStringFormat() {
+        SessionDTO session = SessionDTO.builder("conference", "speaker", "Ada Lovelace", "Analytical Engines", "Room 1",
+                        LocalDate.now().plusDays(30), LocalTime.of(9, 30), LocalTime.of(11, 0))
+                .setId("session")
+                .setDescription("Notes on the engine, 100% of them")
+                .build();
+
+        assertEquals(EmailTemplateBenchmark.formatSessionChange(session, "Grace"), EmailContentService.getSessionChangeBody(session, UserRole.ATTENDEE, "Grace"));
+    }
+
+    @Test
+    void rendersPlaceholdersAnywhere() {
+        EmailTemplate template = EmailTemplate.compile("test", "{{greeting}}, {{ name }}!{{end}}");
+
+        assertEquals("Hello, Ada!.", template.render(Map.of("greeting", "Hello", "name", "Ada", "end", ".")));
+        assertEquals("Hello, 42!.", template.render(Map.of("greeting", "Hello", "name", 42, "end", ".")));
+    }
+
+    @Test
+    void printsNullValuesLikeStringFormat() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("description", null);
+
+        assertEquals("Description: null", EmailTemplate.compile("test", "Description: {{description}}").render(values));
+    }
+
+    @Test
+    void rejectsMissingValuesAndUnclosedPlaceholders() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("test", "Hello {{name}}").render(Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("test", "Hello {{name"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("test", null));
+    }
+
+    @Test
+    void rendersIntoAFreshStringEachTime() {
+        EmailTemplate template = EmailTemplate.compile("test", "Hello {{name}}");
+
+        String first = template.render(Map.of("name", "Ada"));
+        String second = template.render(Map.of("name", "Grace"));
+        assertEquals("Hello Ada", first);
+        assertEquals("Hello Grace", second);
+    }
+
+    @Test
+    void failsForUnknownTemplate() {
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.get("no-such-template"));
+    }
+}
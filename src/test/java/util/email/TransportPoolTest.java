@@ -0,0 +1,245 @@
+package util.email;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportPoolTest {
+
+    private FakeSmtpServer server;
+    private Session session;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new FakeSmtpServer();
+        Properties properties = new Properties();
+        properties.put("mail.smtp.host", "localhost");
+        properties.put("mail.smtp.port", String.valueOf(server.getPort()));
+        properties.put("mail.smtp.connectiontimeout", "5000");
+        properties.put("mail.smtp.timeout", "5000");
+        session = Session.getInstance(properties);
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void reusesConnectionsAcrossMessages() throws Exception {
+        TransportPool pool = new TransportPool(session, 2);
+        for (int i = 0; i < 20; i++) {
+            pool.send(message("user" + i + "@x.io"));
+        }
+
+        assertEquals(20, server.getMessagesReceived());
+        assertEquals(20, pool.getMessagesSent());
+        assertEquals(2, pool.getConnectionsOpened());
+        assertEquals(2, server.getConnectionsAccepted());
+    }
+
+    @Test
+    void concurrentSendersShareThePool() throws Exception {
+        TransportPool pool = new TransportPool(session, 3);
+        ExecutorService senders = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> sent = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String recipient = "user" + i + "@x.io";
+                sent.add(senders.submit(() -> {
+                    pool.send(message(recipient));
+                    return null;
+                }));
+            }
+            for (Future<?> future : sent) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            senders.shutdownNow();
+        }
+
+        assertEquals(100, server.getMessagesReceived());
+        assertTrue(pool.getConnectionsOpened() <= 3, pool.toString());
+    }
+
+    @Test
+    void reconnectsOnceTheServerDropsTheConnection() throws Exception {
+        TransportPool pool = new TransportPool(session, 1);
+        pool.send(message("first@x.io"));
+        server.dropConnections();
+
+        pool.send(message("second@x.io"));
+
+        assertEquals(2, server.getMessagesReceived());
+        assertEquals(1, pool.getReconnects());
+        assertEquals(2, pool.getConnectionsOpened());
+        assertEquals(0, pool.getSendFailures());
+    }
+
+    @Test
+    void keepsTheConnectionWhenTheServerRefusesAMessage() throws Exception {
+        TransportPool pool = new TransportPool(session, 1);
+        pool.send(message("first@x.io"));
+
+        assertThrows(SendFailedException.class, () -> pool.send(message(FakeSmtpServer.REFUSED_RECIPIENT)));
+        assertEquals(1, pool.getSendFailures());
+        assertEquals(1, pool.getOpenConnections());
+
+        pool.send(message("second@x.io"));
+        assertEquals(2, server.getMessagesReceived());
+        assertEquals(1, pool.getConnectionsOpened());
+        assertEquals(1, server.getConnectionsAccepted());
+    }
+
+    @Test
+    void failsWhenTheServerCannotBeReached() throws Exception {
+        TransportPool pool = new TransportPool(session, 1);
+        server.close();
+
+        assertThrows(MessagingException.class, () -> pool.send(message("first@x.io")));
+        assertEquals(1, pool.getSendFailures());
+        assertEquals(0, pool.getOpenConnections());
+    }
+
+    @Test
+    void reopensConnectionsAfterClose() throws Exception {
+        TransportPool pool = new TransportPool(session, 1);
+        pool.send(message("first@x.io"));
+        pool.close();
+        assertEquals(0, pool.getOpenConnections());
+
+        pool.send(message("second@x.io"));
+        assertEquals(1, pool.getOpenConnections());
+        assertEquals(2, pool.getConnectionsOpened());
+        assertEquals(0, pool.getReconnects());
+    }
+
+    @Test
+    void rejectsPoolWithoutConnections() {
+        assertThrows(IllegalArgumentException.class, () -> new TransportPool(session, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TransportPool(null, 1));
+    }
+
+    private Message message(String recipient) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress("conferences@x.io"));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(recipient));
+        message.setSubject("Session update");
+        message.setText("Dear attendee, the session has moved.");
+        return message;
+    }
+
+    // just enough of SMTP for javax.mail to send plain messages; refuses one recipient and can drop every connection
+    // the way a server closing idle connections would
+    private static class FakeSmtpServer implements Closeable {
+        private static final String REFUSED_RECIPIENT = "refused@x.io";
+
+        private final ServerSocket serverSocket;
+        private final List<Socket> connections = new CopyOnWriteArrayList<>();
+        private final AtomicInteger connectionsAccepted = new AtomicInteger();
+        private final AtomicInteger messagesReceived = new AtomicInteger();
+
+        private FakeSmtpServer() throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::accept, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private int getConnectionsAccepted() {
+            return connectionsAccepted.get();
+        }
+
+        private int getMessagesReceived() {
+            return messagesReceived.get();
+        }
+
+        private void dropConnections() throws IOException, InterruptedException {
+            for (Socket connection : connections) {
+                connection.close();
+            }
+            connections.clear();
+            // let the close reach the client before it sends again
+            Thread.sleep(100);
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket connection : connections) {
+                connection.close();
+            }
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket connection = serverSocket.accept();
+                    connections.add(connection);
+                    connectionsAccepted.incrementAndGet();
+                    Thread handler = new Thread(() -> handle(connection), "fake-smtp-connection");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket connection) {
+            try (connection;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+                 Writer out = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII)) {
+                reply(out, "220 fake ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase(Locale.ROOT);
+                    if (command.startsWith("EHLO")) {
+                        reply(out, "250 fake");
+                    } else if (command.startsWith("RCPT") && command.contains(REFUSED_RECIPIENT.toUpperCase(Locale.ROOT))) {
+                        reply(out, "550 mailbox unavailable");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 end with .");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // the message body is not needed
+                        }
+                        messagesReceived.incrementAndGet();
+                        reply(out, "250 queued");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 bye");
+                        return;
+                    } else {
+                        reply(out, "250 ok");
+                    }
+                }
+            } catch (IOException e) {
+                // connection dropped
+            }
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+    }
+}
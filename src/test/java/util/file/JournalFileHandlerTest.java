@@ -0,0 +1,123 @@
+package util.file;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalFileHandlerTest {
+
+    private static final TypeReference<Map<String, String>> TYPE_REFERENCE = new TypeReference<>() {};
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(StorageCodec.class)
+    void recordsAppendedAfterATornTailSurviveTheNextRestart(StorageCodec codec) throws IOException {
+        Path journal = directory.resolve("entities.journal");
+        assertTrue(JournalFileHandler.append(journal.toString(), codec, List.of(put("a", "1"), put("b", "2")), TYPE_REFERENCE));
+        long intactLength = Files.size(journal);
+        tearLastRecord(journal, codec);
+
+        // the first restart finds the torn record, the records after it are appended as usual
+        Map<String, String> recovered = replay(journal, codec);
+        assertEquals(Map.of("a", "1", "b", "2"), recovered);
+        assertEquals(intactLength, Files.size(journal));
+        assertTrue(Files.size(directory.resolve("entities.journal.corrupt")) > 0);
+
+        assertTrue(JournalFileHandler.append(journal.toString(), codec, List.of(put("c", "3"), delete("a")), TYPE_REFERENCE));
+
+        // the second restart must not stop where the first one did
+        assertEquals(Map.of("b", "2", "c", "3"), replay(journal, codec));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageCodec.class)
+    void cutsTheJournalAtACorruptRecord(StorageCodec codec) throws IOException {
+        Path journal = directory.resolve("entities.journal");
+        assertTrue(JournalFileHandler.append(journal.toString(), codec, List.of(put("a", "1")), TYPE_REFERENCE));
+        long intactLength = Files.size(journal);
+        Files.write(journal, codec.isBinary() ? new byte[]{0, 0, 0, 3, 'x', 'y', 'z'} : "{\"op\":\"PUT\",garbage}\n".getBytes(), StandardOpenOption.APPEND);
+        assertTrue(JournalFileHandler.append(journal.toString(), codec, List.of(put("b", "2")), TYPE_REFERENCE));
+
+        // whatever follows a corrupt record is kept aside rather than replayed out of order
+        assertEquals(Map.of("a", "1"), replay(journal, codec));
+        assertEquals(intactLength, Files.size(journal));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageCodec.class)
+    void replaysAnIntactJournalWithoutChangingIt(StorageCodec codec) throws IOException {
+        Path journal = directory.resolve("entities.journal");
+        assertTrue(JournalFileHandler.append(journal.toString(), codec, List.of(put("a", "1"), put("b", "2")), TYPE_REFERENCE));
+        assertTrue(JournalFileHandler.append(journal.toString(), codec, List.of(delete("b"), put("a", "3")), TYPE_REFERENCE));
+        long length = Files.size(journal);
+
+        assertEquals(Map.of("a", "3"), replay(journal, codec));
+        assertEquals(length, Files.size(journal));
+        assertFalse(Files.exists(directory.resolve("entities.journal.corrupt")));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageCodec.class)
+    void readsRecordsBackFromWhereTheyWereWritten(StorageCodec codec) throws IOException {
+        Path journal = directory.resolve("entities.journal");
+        assertTrue(JournalFileHandler.append(journal.toString(), codec, List.of(put("a", "1")), TYPE_REFERENCE));
+        long[] offsets = JournalFileHandler.appendLocated(journal.toString(), codec, List.of(put("b", "2"), delete("a"), put("c", "3")), TYPE_REFERENCE);
+
+        assertNotNull(offsets);
+        assertEquals(Files.size(journal), offsets[3]);
+        assertEquals(Optional.of("2"), JournalFileHandler.readEntity(journal.toString(), codec, TYPE_REFERENCE, offsets[0], offsets[1]));
+        assertEquals(Optional.of("3"), JournalFileHandler.readEntity(journal.toString(), codec, TYPE_REFERENCE, offsets[2], offsets[3]));
+
+        // a located replay hands out the same places
+        Map<String, long[]> replayed = new HashMap<>();
+        JournalFileHandler.<String>replay(journal.toString(), codec, TYPE_REFERENCE, (id, entity, offset, end) -> replayed.put(id, new long[]{offset, end}), (id, changes) -> {}, id -> {});
+        assertEquals(Optional.of("2"), JournalFileHandler.readEntity(journal.toString(), codec, TYPE_REFERENCE, replayed.get("b")[0], replayed.get("b")[1]));
+        assertEquals(Optional.of("1"), JournalFileHandler.readEntity(journal.toString(), codec, TYPE_REFERENCE, replayed.get("a")[0], replayed.get("a")[1]));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageCodec.class)
+    void rewriteKeepsTheGivenRecordsAsTheyAre(StorageCodec codec) throws IOException {
+        Path journal = directory.resolve("entities.journal");
+        long[] offsets = JournalFileHandler.appendLocated(journal.toString(), codec, List.of(put("a", "1"), put("b", "2"), put("c", "3")), TYPE_REFERENCE);
+
+        long[] starts = JournalFileHandler.rewriteKeeping(journal.toString(), codec,
+                List.of(new long[]{offsets[0], offsets[1]}, new long[]{offsets[2], offsets[3]}), List.of(delete("x")), TYPE_REFERENCE);
+
+        assertNotNull(starts);
+        assertEquals(Map.of("a", "1", "c", "3"), replay(journal, codec));
+        long cLength = offsets[3] - offsets[2];
+        assertEquals(Optional.of("3"), JournalFileHandler.readEntity(journal.toString(), codec, TYPE_REFERENCE, starts[1], starts[1] + cLength));
+    }
+
+    // leaves the last record cut short, as a crash between the write and the force can
+    private static void tearLastRecord(Path journal, StorageCodec codec) throws IOException {
+        byte[] record = codec.isBinary() ? new byte[]{0, 0, 0, 100, 1, 2, 3} : "{\"op\":\"PUT\",\"id\":\"x\",\"ent".getBytes();
+        Files.write(journal, record, StandardOpenOption.APPEND);
+    }
+
+    private static Map<String, String> replay(Path journal, StorageCodec codec) {
+        Map<String, String> entities = new HashMap<>();
+        JournalFileHandler.replay(journal.toString(), codec, TYPE_REFERENCE, entities::put, (id, changes) -> {}, entities::remove);
+        return entities;
+    }
+
+    private static JournalFileHandler.Entry<String> put(String id, String entity) {
+        return new JournalFileHandler.Entry<>(JournalFileHandler.Operation.PUT, id, entity);
+    }
+
+    private static JournalFileHandler.Entry<String> delete(String id) {
+        return new JournalFileHandler.Entry<>(JournalFileHandler.Operation.DELETE, id, null);
+    }
+}
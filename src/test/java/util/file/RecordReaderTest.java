@@ -0,0 +1,132 @@
+package util.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsQuotedCommasAndDoubledQuotes() throws IOException {
+        List<Map<String, String>> records = readAll(write("users.csv", "name,bio\nAda,\"Mathematician, writer\"\nGrace,\"Said \"\"it's easier to ask forgiveness\"\"\"\n"));
+
+        assertEquals(2, records.size());
+        assertEquals("Mathematician, writer", records.get(0).get("bio"));
+        assertEquals("Said \"it's easier to ask forgiveness\"", records.get(1).get("bio"));
+    }
+
+    @Test
+    void readsQuotedFieldsSpanningLinesAndCountsPhysicalLines() throws IOException {
+        try (RecordReader reader = RecordReader.open(write("sessions.csv", "name,description\nKeynote,\"first line\nsecond line\"\nPanel,short\n").toString())) {
+            Map<String, String> keynote = reader.next();
+            assertEquals("first line\nsecond line", keynote.get("description"));
+            assertEquals(2, reader.getLineNumber());
+
+            Map<String, String> panel = reader.next();
+            assertEquals("Panel", panel.get("name"));
+            assertEquals(4, reader.getLineNumber());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void handlesCrlfBlankLinesAndByteOrderMark() throws IOException {
+        List<Map<String, String>> records = readAll(write("users.csv", "﻿email,name\r\na@x.io,Ada\r\n\r\nb@x.io,\"Bob\r\nJr\"\r\n"));
+
+        assertEquals(2, records.size());
+        assertEquals(Set.of("email", "name"), records.get(0).keySet());
+        assertEquals("a@x.io", records.get(0).get("email"));
+        assertEquals("Ada", records.get(0).get("name"));
+        assertEquals("Bob\r\nJr", records.get(1).get("name"));
+    }
+
+    @Test
+    void readsShortRowsAndEmptyFields() throws IOException {
+        List<Map<String, String>> records = readAll(write("users.csv", "email,name,bio\na@x.io\nb@x.io,,\n"));
+
+        assertEquals(Map.of("email", "a@x.io"), records.get(0));
+        assertEquals("", records.get(1).get("name"));
+        assertEquals("", records.get(1).get("bio"));
+    }
+
+    @Test
+    void skipsPastRowWithTooManyFields() throws IOException {
+        try (RecordReader reader = RecordReader.open(write("users.csv", "email,name\na@x.io,Ada,extra\nb@x.io,Bob\n").toString())) {
+            assertThrows(RecordReader.MalformedRecordException.class, reader::next);
+            assertEquals(2, reader.getLineNumber());
+
+            assertEquals("b@x.io", reader.next().get("email"));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() throws IOException {
+        try (RecordReader reader = RecordReader.open(write("users.csv", "email,name\na@x.io,\"Ada\nb@x.io,Bob\n").toString())) {
+            IOException e = assertThrows(IOException.class, reader::next);
+            assertFalse(e instanceof RecordReader.MalformedRecordException);
+            assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsEmptyCsvFile() throws IOException {
+        Path empty = write("users.csv", "");
+        assertThrows(IOException.class, () -> RecordReader.open(empty.toString()));
+    }
+
+    @Test
+    void readsJsonLinesFlatteningArraysAndKeepingNulls() throws IOException {
+        Path file = write("users.jsonl", "{\"email\":\"a@x.io\",\"sessions\":[\"s1\",\"s2\"],\"bio\":null}\n\n{\"email\":\"b@x.io\",\"age\":42}\n");
+        try (RecordReader reader = RecordReader.open(file.toString())) {
+            Map<String, String> first = reader.next();
+            assertEquals("s1" + RecordFormat.LIST_SEPARATOR + "s2", first.get("sessions"));
+            assertTrue(first.containsKey("bio"));
+            assertNull(first.get("bio"));
+
+            Map<String, String> second = reader.next();
+            assertEquals("42", second.get("age"));
+            assertEquals(3, reader.getLineNumber());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void skipsPastJsonLineThatIsNotAnObject() throws IOException {
+        try (RecordReader reader = RecordReader.open(write("users.jsonl", "[1,2]\n{not json\n{\"email\":\"a@x.io\"}\n").toString())) {
+            assertThrows(RecordReader.MalformedRecordException.class, reader::next);
+            assertThrows(RecordReader.MalformedRecordException.class, reader::next);
+            assertEquals("a@x.io", reader.next().get("email"));
+        }
+    }
+
+    @Test
+    void rejectsUnknownExtension() {
+        assertThrows(IllegalArgumentException.class, () -> RecordReader.open(directory.resolve("users.xlsx").toString()));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private static List<Map<String, String>> readAll(Path file) throws IOException {
+        List<Map<String, String>> records = new ArrayList<>();
+        try (RecordReader reader = RecordReader.open(file.toString())) {
+            Map<String, String> record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,135 @@
+package util.file;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import domain.model.feedback.*;
+import domain.model.user.Attendee;
+import domain.model.user.Speaker;
+import domain.model.user.User;
+import domain.model.user.UserRole;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// a cold repository load at startup, on synthetic snapshots of 100k users and 1M feedback: streamed entity by entity
+// into the cache, against reading the whole map and copying it into the cache as repositories did before.
+// both allocate the same; what streaming saves is the intermediate map being alive next to the cache at the peak.
+// run with mvn -P benchmark test -Dbenchmark=RepositoryLoadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RepositoryLoadBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int FEEDBACK = 1_000_000;
+    private static final TypeReference<Map<String, User>> USER_TYPE = new TypeReference<>() {};
+    private static final TypeReference<Map<String, Feedback>> FEEDBACK_TYPE = new TypeReference<>() {};
+
+    private Path directory;
+    private String usersPath;
+    private String feedbackPath;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        directory = Files.createTempDirectory("repository-load");
+        usersPath = directory.resolve("users.json").toString();
+        feedbackPath = directory.resolve("feedback.json").toString();
+
+        Random random = new Random(42);
+        LocalDateTime firstDay = LocalDateTime.now().plusDays(30).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        Map<String, User> users = new HashMap<>();
+        for (int i = 0; i < USERS; i++) {
+            String id = "user-" + i;
+            if (i % 100 == 0) {
+                Speaker speaker = new Speaker(id, id + "@x.io", "Speaker " + i, "Speaks about topic " + i % 50, "hash-" + i, UserRole.SPEAKER);
+                speaker.assignSession("session-" + i, firstDay.plusDays(i % 5), firstDay.plusDays(i % 5).plusHours(1));
+                users.put(id, speaker);
+            } else {
+                Attendee attendee = new Attendee(id, id + "@x.io", "Attendee " + i, "hash-" + i, UserRole.ATTENDEE);
+                attendee.addRegisteredConference("conference-" + i % 20);
+                for (int session = 0; session < 4; session++) {
+                    LocalDateTime start = firstDay.plusDays(session).plusHours(random.nextInt(8));
+                    attendee.addSession("session-" + random.nextInt(2_000), start, start.plusHours(1));
+                }
+                users.put(id, attendee);
+            }
+        }
+        save(users, usersPath, USER_TYPE);
+        users = null;
+
+        Map<String, Feedback> feedback = new HashMap<>();
+        for (int i = 0; i < FEEDBACK; i++) {
+            String id = "feedback-" + i;
+            String attendeeId = "user-" + random.nextInt(USERS);
+            int rating = 1 + random.nextInt(5);
+            String comment = "Comment " + i + " on how it went";
+            feedback.put(id, switch (i % 3) {
+                case 0 -> new SessionFeedback(id, attendeeId, "Attendee", rating, comment, FeedbackType.SESSION, "session-" + i % 2_000);
+                case 1 -> new SpeakerFeedback(id, attendeeId, "Attendee", rating, comment, FeedbackType.SPEAKER, "user-" + i % 1_000 * 100);
+                default -> new ConferenceFeedback(id, attendeeId, "Attendee", rating, comment, FeedbackType.CONFERENCE, "conference-" + i % 20);
+            });
+        }
+        save(feedback, feedbackPath, FEEDBACK_TYPE);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Map<String, User> streamUsers() {
+        return stream(usersPath, USER_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, User> readAndCopyUsers() {
+        return readAndCopy(usersPath, USER_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Feedback> streamFeedback() {
+        return stream(feedbackPath, FEEDBACK_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Feedback> readAndCopyFeedback() {
+        return readAndCopy(feedbackPath, FEEDBACK_TYPE);
+    }
+
+    private static <T> Map<String, T> stream(String path, TypeReference<Map<String, T>> typeReference) {
+        Map<String, T> cache = new ConcurrentHashMap<>();
+        if (!JsonFileHandler.loadInto(path, StorageCodec.JSON, typeReference, cache)) {
+            throw new IllegalStateException("Failed to load " + path);
+        }
+        return cache;
+    }
+
+    // the whole map is read first and then copied, so both are alive at the peak
+    private static <T> Map<String, T> readAndCopy(String path, TypeReference<Map<String, T>> typeReference) {
+        Map<String, T> cache = new ConcurrentHashMap<>();
+        cache.putAll(JsonFileHandler.loadData(path, typeReference).orElseThrow());
+        return cache;
+    }
+
+    private static <T> void save(Map<String, T> entities, String path, TypeReference<Map<String, T>> typeReference) {
+        if (!JsonFileHandler.saveSnapshot(entities, path, StorageCodec.JSON, typeReference)) {
+            throw new IllegalStateException("Failed to save " + path);
+        }
+    }
+}